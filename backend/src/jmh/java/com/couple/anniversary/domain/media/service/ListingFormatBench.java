@@ -0,0 +1,92 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.config.BinaryFormats;
+import com.couple.anniversary.common.dto.ApiResponse;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Danh sách 1000 media qua envelope ApiResponse theo từng định dạng (JSON / CBOR / Smile), phần tử là
+ * fragment JSON cache sẵn (fragments) hoặc MediaFileResponse (objects). Kích thước payload thô và sau gzip
+ * được in ra stderr lúc setup; allocation: chạy kèm -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListingFormatBench {
+
+    private static final int LISTING_SIZE = 1000;
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"fragments", "objects"})
+    private String path;
+
+    private ObjectMapper objectMapper;
+    private MediaJsonFragments fragments;
+    private List<MediaFile> rows;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper json = MediaBenchData.objectMapperBuilder().build();
+        BinaryFormats formats = new BinaryFormats(MediaBenchData.objectMapperBuilder());
+        objectMapper = switch (format) {
+            case "cbor" -> formats.mapperFor(MediaType.APPLICATION_CBOR);
+            case "smile" -> formats.mapperFor(BinaryFormats.APPLICATION_SMILE);
+            default -> json;
+        };
+        fragments = new MediaJsonFragments(json, DataSize.ofMegabytes(32), new SimpleMeterRegistry());
+        rows = MediaBenchData.album(LISTING_SIZE);
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        write(payload);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            payload.writeTo(out);
+        }
+        System.err.printf("payload %s/%s: %d bytes, gzip %d bytes%n", format, path, payload.size(),
+                gzipped.size());
+    }
+
+    @Benchmark
+    public int listing() throws IOException {
+        return write(OutputStream.nullOutputStream());
+    }
+
+    private int write(OutputStream out) throws IOException {
+        List<Object> content = new ArrayList<>(rows.size());
+        for (MediaFile mediaFile : rows) {
+            content.add(path.equals("fragments")
+                    ? fragments.fragment(mediaFile, MediaBenchData::toResponse)
+                    : MediaBenchData.toResponse(mediaFile));
+        }
+        objectMapper.writeValue(out, ApiResponse.success(content));
+        return content.size();
+    }
+}
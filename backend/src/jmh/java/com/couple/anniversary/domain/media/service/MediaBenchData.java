@@ -0,0 +1,82 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.domain.media.dto.MediaFileResponse;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigInteger;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Dữ liệu chung cho các benchmark media: album giả có tỉ lệ video / caption / tag gần dữ liệu thật,
+ * cố định seed nên các lần chạy so được với nhau.
+ */
+final class MediaBenchData {
+
+    private static final Instant NOW = Instant.parse("2026-10-01T10:00:00Z");
+
+    private MediaBenchData() {
+    }
+
+    // Cấu hình Jackson như Boot dựng cho app (ngày dạng ISO thay vì số)
+    static Jackson2ObjectMapperBuilder objectMapperBuilder() {
+        return new Jackson2ObjectMapperBuilder().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    static List<MediaFile> album(int size) {
+        Random random = new Random(42);
+        List<MediaFile> rows = new ArrayList<>(size);
+        for (long i = 0; i < size; i++) {
+            boolean video = i % 7 == 0;
+            rows.add(MediaFile.builder()
+                    .id(1000 + i)
+                    .version(3L)
+                    .fileName("anniversary/media/" + new UUID(random.nextLong(), random.nextLong()))
+                    .originalName("IMG_" + i + (video ? ".mp4" : ".jpg"))
+                    .contentType(video ? "video/mp4" : "image/jpeg")
+                    .size(2_345_678L + random.nextInt(5_000_000))
+                    .type(video ? "VIDEO" : "PHOTO")
+                    .createdAt(NOW.minusSeconds(i * 3600))
+                    .mediaDate(NOW.minusSeconds(i * 3600))
+                    .path("https://res.cloudinary.com/demo/image/upload/v1700000000/anniversary/media/img" + i + ".jpg")
+                    .caption(i % 3 == 0 ? null : "Đà Lạt mùa hoa dã quỳ, kỷ niệm " + i + " ngày bên nhau")
+                    .tags(i % 2 == 0 ? "dalat,travel" : null)
+                    .contentHash(String.format("%064x", new BigInteger(256, random)))
+                    .placeholder("LEHV6nWB2yk8pyo0adR*.7kCM" + i)
+                    .dominantColor("#a1b2c3")
+                    .width(4032)
+                    .height(3024)
+                    .orientation(1)
+                    .build());
+        }
+        return rows;
+    }
+
+    // Cùng các trường như MediaService.toResponse
+    static MediaFileResponse toResponse(MediaFile mediaFile) {
+        return MediaFileResponse.builder()
+                .id(mediaFile.getId())
+                .fileName(mediaFile.getFileName())
+                .originalName(mediaFile.getOriginalName())
+                .contentType(mediaFile.getContentType())
+                .size(mediaFile.getSize())
+                .type(mediaFile.getType())
+                .createdAt(mediaFile.getCreatedAt())
+                .downloadUrl(mediaFile.getPath())
+                .caption(mediaFile.getCaption())
+                .tags(mediaFile.getTags())
+                .mediaDate(mediaFile.getMediaDate())
+                .contentHash(mediaFile.getContentHash())
+                .placeholder(mediaFile.getPlaceholder())
+                .dominantColor(mediaFile.getDominantColor())
+                .width(mediaFile.getWidth())
+                .height(mediaFile.getHeight())
+                .orientation(mediaFile.getOrientation())
+                .build();
+    }
+}
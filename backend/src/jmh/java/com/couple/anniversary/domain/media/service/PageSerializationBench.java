@@ -0,0 +1,81 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.dto.ApiResponse;
+import com.couple.anniversary.domain.media.dto.MediaCursorPageResponse;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Một trang gallery 100 media qua envelope ApiResponse: dựng MediaFileResponse rồi để Jackson serialize
+ * (objects) so với ghép JSON đã serialize sẵn từ MediaJsonFragments (fragments, cache đã ấm).
+ * Số allocation: chạy kèm -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageSerializationBench {
+
+    private static final int PAGE_SIZE = 100;
+
+    private ObjectMapper objectMapper;
+    private MediaJsonFragments fragments;
+    private List<MediaFile> rows;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = MediaBenchData.objectMapperBuilder().build();
+        fragments = new MediaJsonFragments(objectMapper, DataSize.ofMegabytes(32), new SimpleMeterRegistry());
+        rows = MediaBenchData.album(PAGE_SIZE);
+        // Nạp cache fragment trước lần đo đầu
+        fragments();
+    }
+
+    @Benchmark
+    public int objects() throws Exception {
+        List<Object> content = new ArrayList<>(rows.size());
+        for (MediaFile mediaFile : rows) {
+            content.add(MediaBenchData.toResponse(mediaFile));
+        }
+        return write(content);
+    }
+
+    @Benchmark
+    public int fragments() throws Exception {
+        List<Object> content = new ArrayList<>(rows.size());
+        for (MediaFile mediaFile : rows) {
+            content.add(fragments.fragment(mediaFile, MediaBenchData::toResponse));
+        }
+        return write(content);
+    }
+
+    private int write(List<Object> content) throws Exception {
+        MediaCursorPageResponse<Object> page = MediaCursorPageResponse.<Object>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(true)
+                .nextCursor("MTcwMDAwMDAwMC4wOjEwMDA")
+                .build();
+        objectMapper.writeValue(OutputStream.nullOutputStream(), ApiResponse.success(page));
+        return content.size();
+    }
+}
@@ -0,0 +1,102 @@
+package com.couple.anniversary.common.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Slf4j
+@Configuration
+@EnableScheduling
+public class AsyncConfig {
+
+    @Value("${app.media.upload.workers:4}")
+    private int uploadWorkers;
+
+    @Value("${app.media.upload.queue-capacity:50}")
+    private int uploadQueueCapacity;
+
+    @Value("${app.media.upload.batch-pool-size:16}")
+    private int batchPoolSize;
+
+    @Value("${app.media.download.stream-pool-size:32}")
+    private int streamPoolSize;
+
+    @Value("${app.media.image.workers:2}")
+    private int imageWorkers;
+
+    /**
+     * Pool cố định cho việc đẩy file lên storage, tách khỏi thread của Tomcat.
+     * Hàng đợi có giới hạn: khi đầy thì từ chối job mới thay vì dồn file vô hạn.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mediaUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(uploadWorkers);
+        executor.setMaxPoolSize(uploadWorkers);
+        executor.setQueueCapacity(uploadQueueCapacity);
+        executor.setThreadNamePrefix("media-upload-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool dùng chung cho các batch upload. Mỗi request tự giới hạn số file đẩy song song,
+     * khi pool quá tải thì thread của request tự chạy phần việc thay vì báo lỗi.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mediaBatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(batchPoolSize);
+        executor.setMaxPoolSize(batchPoolSize);
+        executor.setQueueCapacity(batchPoolSize * 4);
+        executor.setThreadNamePrefix("media-batch-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool cho StreamingResponseBody của download: việc copy byte chạy ở đây,
+     * thread của Tomcat được trả về ngay sau khi ghi header.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mediaStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamPoolSize);
+        executor.setMaxPoolSize(streamPoolSize);
+        executor.setQueueCapacity(streamPoolSize * 4);
+        executor.setThreadNamePrefix("media-stream-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool nhỏ cho việc giải mã ảnh nền (placeholder...), không tranh CPU với request.
+     * Việc ở đây là tùy chọn nên khi hàng đợi đầy thì bỏ task thay vì làm chậm upload; task bị bỏ
+     * được đếm (media.image.rejected) và lượt quét placeholder trong MediaPlaceholderService tính lại sau.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mediaImageExecutor(MeterRegistry meterRegistry) {
+        Counter rejected = meterRegistry.counter("media.image.rejected");
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(imageWorkers);
+        executor.setMaxPoolSize(imageWorkers);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("media-image-");
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            log.warn("Hàng đợi xử lý ảnh đã đầy ({} task), bỏ qua một task", pool.getQueue().size());
+        });
+        executor.initialize();
+        return executor;
+    }
+}
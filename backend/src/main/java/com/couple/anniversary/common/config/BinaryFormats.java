@@ -0,0 +1,84 @@
+package com.couple.anniversary.common.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * CBOR và Smile cho client mobile: cùng cấu trúc với JSON (chung cấu hình Jackson của app)
+ * nhưng tên field và chuỗi lặp lại (URL Cloudinary, type...) chỉ ghi một lần rồi tham chiếu ngược.
+ * Hai ObjectMapper này không đăng ký thành bean để không thay ObjectMapper JSON mặc định của Spring Boot;
+ * converter được thêm vào cuối danh sách nên không gửi Accept thì vẫn nhận JSON.
+ */
+@Component
+public class BinaryFormats {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
+
+    public BinaryFormats(Jackson2ObjectMapperBuilder builder) {
+        // STRINGREF: chuỗi (tên field lẫn giá trị) gặp lại được ghi thành chỉ số thay vì lặp nguyên văn
+        this.cborMapper = builder.factory(CBORFactory.builder()
+                .enable(CBORGenerator.Feature.STRINGREF)
+                .build()).build();
+        // Tên field dùng chung đã bật sẵn, bật thêm cho giá trị chuỗi ngắn
+        this.smileMapper = builder.factory(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()).build();
+    }
+
+    public List<HttpMessageConverter<?>> converters() {
+        return List.of(new MappingJackson2CborHttpMessageConverter(cborMapper),
+                new MappingJackson2SmileHttpMessageConverter(smileMapper));
+    }
+
+    /**
+     * Định dạng nhị phân client muốn theo header Accept (xét theo q), null nếu JSON được ưu tiên
+     * hoặc client chấp nhận mọi thứ.
+     */
+    public static MediaType select(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        return accepted.stream()
+                .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                .filter(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON)
+                        || type.isCompatibleWith(MediaType.APPLICATION_CBOR) || type.isCompatibleWith(APPLICATION_SMILE))
+                .findFirst()
+                .map(type -> type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR) ? MediaType.APPLICATION_CBOR
+                        : type.equalsTypeAndSubtype(APPLICATION_SMILE) ? APPLICATION_SMILE : null)
+                .orElse(null);
+    }
+
+    /**
+     * ObjectMapper cho định dạng nhị phân đã chọn, null với JSON.
+     */
+    public ObjectMapper mapperFor(MediaType format) {
+        if (MediaType.APPLICATION_CBOR.equals(format)) {
+            return cborMapper;
+        }
+        return APPLICATION_SMILE.equals(format) ? smileMapper : null;
+    }
+}
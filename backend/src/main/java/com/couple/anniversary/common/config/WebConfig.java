@@ -1,11 +1,18 @@
 package com.couple.anniversary.common.config;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.time.Duration;
+import java.util.List;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
@@ -15,18 +22,45 @@ public class WebConfig implements WebMvcConfigurer {
     @Value("${app.cors.allowed-origins:http://localhost:5173}")
     private String[] allowedOrigins;
 
+    @Value("${app.media.download.async-timeout:PT30M}")
+    private Duration asyncTimeout;
+
+    private final ThreadPoolTaskExecutor mediaStreamExecutor;
+    private final BinaryFormats binaryFormats;
+
+    public WebConfig(@Qualifier("mediaStreamExecutor") ThreadPoolTaskExecutor mediaStreamExecutor,
+            BinaryFormats binaryFormats) {
+        this.mediaStreamExecutor = mediaStreamExecutor;
+        this.binaryFormats = binaryFormats;
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/uploads/**")
                 .addResourceLocations("file:" + uploadDir + "/");
     }
 
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Video dài stream lâu, timeout mặc định 30s của MVC async không đủ
+        configurer.setTaskExecutor(mediaStreamExecutor);
+        configurer.setDefaultTimeout(asyncTimeout.toMillis());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Thêm sau converter JSON: Accept */* hay thiếu Accept vẫn ra JSON, chỉ client xin CBOR / Smile mới nhận
+        converters.addAll(binaryFormats.converters());
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
                 .allowedOrigins(allowedOrigins)
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("Location", "Upload-Offset", "Upload-Length", "X-Media-Id",
+                        "ETag", "Content-Range", "Accept-Ranges", "Content-Disposition")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
@@ -10,12 +10,22 @@ public final class AppConstants {
 
     public static final long MAX_FILE_SIZE = 100L * 1024 * 1024; // 100MB
 
+    // Kích thước mỗi chunk khi stream file lên storage (Cloudinary yêu cầu tối thiểu 5MB)
+    public static final int UPLOAD_CHUNK_SIZE = 6 * 1024 * 1024; // 6MB
+
     public static final String MEDIA_TYPE_PHOTO = "PHOTO";
     public static final String MEDIA_TYPE_VIDEO = "VIDEO";
     public static final String MEDIA_TYPE_ALL = "ALL";
 
+    // Trạng thái media: PENDING trong lúc đang đẩy lên storage, READY khi đã dùng được
+    public static final String MEDIA_STATUS_PENDING = "PENDING";
+    public static final String MEDIA_STATUS_READY = "READY";
+
     public static final String DEFAULT_ROLE = "USER";
 
+    // Múi giờ của couple chưa tự chọn (ngày kỷ niệm, "ngày này năm xưa" tính theo múi giờ này)
+    public static final String DEFAULT_TIME_ZONE = "Asia/Ho_Chi_Minh";
+
     public static final String AUTHORIZATION_HEADER = "Authorization";
     public static final String BEARER_PREFIX = "Bearer ";
 }
@@ -4,9 +4,11 @@ import com.couple.anniversary.common.dto.ApiResponse;
 import com.couple.anniversary.domain.couple.dto.CoupleRequestResponse;
 import com.couple.anniversary.domain.couple.dto.CoupleResponse;
 import com.couple.anniversary.domain.couple.dto.SendCoupleRequestDto;
+import com.couple.anniversary.domain.couple.dto.UpdateTimeZoneRequest;
 import com.couple.anniversary.domain.couple.entity.Couple;
 import com.couple.anniversary.domain.couple.entity.CoupleRequest;
 import com.couple.anniversary.domain.couple.service.CoupleService;
+import com.couple.anniversary.domain.couple.service.CoupleVersionService;
 import com.couple.anniversary.domain.user.entity.User;
 import com.couple.anniversary.domain.user.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -15,11 +17,16 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @RestController
@@ -31,6 +38,10 @@ public class CoupleController {
 
     private final CoupleService coupleService;
     private final UserService userService;
+    private final CoupleVersionService coupleVersionService;
+
+    // Trình duyệt được giữ bản sao nhưng phải hỏi lại (If-None-Match) trước khi dùng
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
 
     @Operation(summary = "Send couple request", description = "Send a couple request to another user by invite code")
     @ApiResponses(value = {
@@ -105,13 +116,39 @@ public class CoupleController {
     @Operation(summary = "Get my couple", description = "Get current couple info")
     @GetMapping
     public ResponseEntity<ApiResponse<CoupleResponse>> getMyCouple(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
             @AuthenticationPrincipal UserDetails userDetails) {
         User user = userService.findByUsername(userDetails.getUsername());
+        // Chỉ couple đang active mới có phiên bản; daysTogether tăng theo thời gian nên ETag cũng đổi mỗi giờ
+        String etag = user.getCoupleId() != null
+                ? coupleVersionService.etag(user.getCoupleId(), "couple", Instant.now().truncatedTo(ChronoUnit.HOURS))
+                : null;
+        if (etag != null && CoupleVersionService.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+        }
         Couple couple = coupleService.findCoupleByUser(user.getId()).orElse(null);
         if (couple == null) {
             return ResponseEntity.ok(ApiResponse.success("Not in a couple", null));
         }
-        return ResponseEntity.ok(ApiResponse.success(coupleService.toCoupleResponse(couple)));
+        if (etag == null) {
+            return ResponseEntity.ok(ApiResponse.success(coupleService.toCoupleResponse(couple)));
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(REVALIDATE)
+                .body(ApiResponse.success(coupleService.toCoupleResponse(couple)));
+    }
+
+    @Operation(summary = "Update time zone", description = "Set the couple's IANA time zone used for dates such as \"on this day\"")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Time zone updated"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid time zone or not in a couple")
+    })
+    @PutMapping("/time-zone")
+    public ResponseEntity<ApiResponse<CoupleResponse>> updateTimeZone(
+            @Valid @RequestBody UpdateTimeZoneRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        User user = userService.findByUsername(userDetails.getUsername());
+        Couple couple = coupleService.updateTimeZone(user.getId(), request.getTimeZone());
+        return ResponseEntity.ok(ApiResponse.success("Time zone updated", coupleService.toCoupleResponse(couple)));
     }
 
     @Operation(summary = "Breakup", description = "End the couple relationship")
@@ -20,6 +20,7 @@ public class CoupleResponse {
     private String user2DisplayName;
     private String user2Avatar;
     private Instant anniversaryDate;
+    private String timeZone;
     private Long daysTogether;
     private String status;
     private Instant createdAt;
@@ -0,0 +1,14 @@
+package com.couple.anniversary.domain.couple.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateTimeZoneRequest {
+    @NotBlank(message = "Time zone is required")
+    private String timeZone; // IANA id, ví dụ Asia/Ho_Chi_Minh
+}
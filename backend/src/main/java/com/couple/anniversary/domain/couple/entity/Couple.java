@@ -28,6 +28,9 @@ public class Couple {
     @Column(name = "created_at")
     private Instant createdAt;
 
+    @Column(name = "time_zone", length = 64)
+    private String timeZone; // IANA id, null = AppConstants.DEFAULT_TIME_ZONE
+
     @Column(name = "status", nullable = false)
     @Builder.Default
     private String status = "ACTIVE"; // ACTIVE, INACTIVE
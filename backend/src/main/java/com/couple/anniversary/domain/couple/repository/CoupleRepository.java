@@ -4,9 +4,13 @@ import com.couple.anniversary.domain.couple.entity.Couple;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface CoupleRepository extends JpaRepository<Couple, Long> {
     Couple findByUser1IdOrUser2Id(Long user1Id, Long user2Id);
 
     boolean existsByUser1IdOrUser2Id(Long user1Id, Long user2Id);
+
+    List<Couple> findByStatus(String status);
 }
@@ -9,13 +9,17 @@ import com.couple.anniversary.domain.couple.entity.Couple;
 import com.couple.anniversary.domain.couple.entity.CoupleRequest;
 import com.couple.anniversary.domain.couple.repository.CoupleRepository;
 import com.couple.anniversary.domain.couple.repository.CoupleRequestRepository;
+import com.couple.anniversary.domain.media.service.MediaTimelineService;
+import com.couple.anniversary.domain.media.service.OnThisDayService;
 import com.couple.anniversary.domain.user.entity.User;
 import com.couple.anniversary.domain.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DateTimeException;
 import java.time.Instant;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Optional;
@@ -26,6 +30,9 @@ public class CoupleService {
     private final CoupleRepository coupleRepository;
     private final CoupleRequestRepository coupleRequestRepository;
     private final UserRepository userRepository;
+    private final OnThisDayService onThisDayService;
+    private final MediaTimelineService mediaTimelineService;
+    private final CoupleVersionService coupleVersionService;
 
     public Optional<Couple> findCoupleByUser(Long userId) {
         return Optional.ofNullable(coupleRepository.findByUser1IdOrUser2Id(userId, userId));
@@ -122,6 +129,7 @@ public class CoupleService {
         user2.setCoupleId(couple.getId());
         userRepository.save(user1);
         userRepository.save(user2);
+        coupleVersionService.bump(couple.getId());
 
         return couple;
     }
@@ -154,6 +162,32 @@ public class CoupleService {
         user2.setCoupleId(null);
         userRepository.save(user1);
         userRepository.save(user2);
+        coupleVersionService.bump(couple.getId());
+    }
+
+    /**
+     * Đổi múi giờ của couple; "ngày này năm xưa" và timeline của cả album được tính lại theo múi giờ mới.
+     */
+    @Transactional
+    public Couple updateTimeZone(Long userId, String timeZone) {
+        Couple couple = findCoupleByUser(userId)
+                .filter(c -> "ACTIVE".equals(c.getStatus()))
+                .orElseThrow(() -> new BadRequestException("Bé chưa có couple!"));
+        ZoneId zone;
+        try {
+            zone = ZoneId.of(timeZone.trim());
+        } catch (DateTimeException e) {
+            throw new BadRequestException("Múi giờ không hợp lệ!");
+        }
+        if (zone.getId().equals(couple.getTimeZone())) {
+            return couple;
+        }
+        couple.setTimeZone(zone.getId());
+        coupleRepository.save(couple);
+        onThisDayService.changeZone(couple.getId(), zone);
+        mediaTimelineService.rebuild(couple.getId(), zone);
+        coupleVersionService.bump(couple.getId());
+        return couple;
     }
 
     public CoupleRequestResponse toRequestResponse(CoupleRequest request) {
@@ -188,6 +222,7 @@ public class CoupleService {
                 .user2DisplayName(user2 != null ? user2.getDisplayName() : null)
                 .user2Avatar(user2 != null ? user2.getAvatarUrl() : null)
                 .anniversaryDate(couple.getAnniversaryDate())
+                .timeZone(OnThisDayService.parseZone(couple.getTimeZone()).getId())
                 .daysTogether(daysTogether)
                 .status(couple.getStatus())
                 .createdAt(couple.getCreatedAt())
@@ -0,0 +1,106 @@
+package com.couple.anniversary.domain.couple.service;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Phiên bản dữ liệu của từng couple: mọi thay đổi (upload, xóa, sửa media, ghép đôi, đổi múi giờ, hồ sơ)
+ * tăng số này, các API đọc lấy nó làm weak ETag và trả 304 khi client đang giữ đúng bản đó,
+ * nên một lần poll không đổi gì chỉ tốn một lần tra map.
+ * Bộ đếm nằm trong bộ nhớ, bắt đầu từ thời điểm khởi động để sau khi restart vẫn lớn hơn mọi giá trị cũ.
+ */
+@Service
+public class CoupleVersionService {
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public long current(Long coupleId) {
+        return counter(coupleId).get();
+    }
+
+    /**
+     * Tăng phiên bản sau khi transaction hiện tại commit (hoặc ngay nếu không có transaction),
+     * để request nào thấy phiên bản mới thì chắc chắn đọc được dữ liệu mới.
+     */
+    public void bump(Long coupleId) {
+        if (coupleId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter(coupleId).incrementAndGet();
+                }
+            });
+        } else {
+            counter(coupleId).incrementAndGet();
+        }
+    }
+
+    /**
+     * Weak ETag từ phiên bản hiện tại; variant là những gì khác của request làm đổi nội dung (tham số, ngày...).
+     * Phải lấy trước khi đọc dữ liệu: thay đổi xảy ra giữa chừng chỉ làm client tải lại lần sau, không bao giờ cũ.
+     * Variant được băm SHA-256 (giữ 128 bit đầu) thay vì hashCode 32 bit: hai bộ tham số trùng hash
+     * sẽ cho cùng ETag và client nhận 304 cho nội dung khác.
+     */
+    public String etag(Long coupleId, Object... variant) {
+        return "W/\"" + coupleId + "-" + current(coupleId) + "-" + digest(variant) + "\"";
+    }
+
+    /**
+     * Mỗi giá trị ghi kèm độ dài (null ghi riêng) nên cách nối là duy nhất:
+     * ("a,b") và ("a", "b") hay null và "null" không ra cùng chuỗi đầu vào.
+     */
+    private static String digest(Object... variant) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object value : variant) {
+            if (value == null) {
+                canonical.append('~');
+            } else {
+                String text = String.valueOf(value);
+                canonical.append(text.length()).append(':').append(text);
+            }
+            canonical.append(';');
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * So khớp If-None-Match theo kiểu weak (bỏ tiền tố W/), chấp nhận danh sách phân cách bằng dấu phẩy.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(value -> value.equals("*") || opaque(value).equals(opaque));
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private AtomicLong counter(Long coupleId) {
+        return versions.computeIfAbsent(coupleId, id -> new AtomicLong(epoch));
+    }
+}
@@ -1,27 +1,57 @@
 package com.couple.anniversary.domain.media.controller;
 
+import com.couple.anniversary.common.config.BinaryFormats;
 import com.couple.anniversary.common.dto.ApiResponse;
+import com.couple.anniversary.domain.couple.service.CoupleVersionService;
+import com.couple.anniversary.domain.media.dto.BatchUploadResponse;
+import com.couple.anniversary.domain.media.dto.BulkUpdateMediaRequest;
+import com.couple.anniversary.domain.media.dto.DeleteMediaRequest;
+import com.couple.anniversary.domain.media.dto.MediaCursorPageResponse;
 import com.couple.anniversary.domain.media.dto.MediaFileResponse;
+import com.couple.anniversary.domain.media.dto.MediaPeriodStatResponse;
+import com.couple.anniversary.domain.media.dto.MediaQueryRequest;
+import com.couple.anniversary.domain.media.dto.MediaQueryResponse;
+import com.couple.anniversary.domain.media.dto.MediaSearchResponse;
+import com.couple.anniversary.domain.media.dto.MediaUploadJobResponse;
+import com.couple.anniversary.domain.media.dto.UpdateMediaRequest;
 import com.couple.anniversary.domain.media.entity.MediaFile;
 import com.couple.anniversary.domain.media.service.MediaService;
+import com.couple.anniversary.domain.media.service.MediaUploadJobService;
 import com.couple.anniversary.domain.user.entity.User;
 import com.couple.anniversary.domain.user.service.UserService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -31,8 +61,17 @@ import java.util.List;
 @SecurityRequirement(name = "bearerAuth")
 public class MediaController {
 
+        public static final String MEDIA_ID_HEADER = "X-Media-Id";
+        private static final int LIST_FLUSH_EVERY = 64;
+        // Trình duyệt được giữ bản sao nhưng phải hỏi lại (If-None-Match) trước khi dùng
+        private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
         private final MediaService mediaService;
+        private final MediaUploadJobService mediaUploadJobService;
         private final UserService userService;
+        private final ObjectMapper objectMapper;
+        private final CoupleVersionService coupleVersionService;
+        private final BinaryFormats binaryFormats;
 
         @Operation(summary = "Upload a media file", description = "Upload a new media file (image, video, etc.)")
         @ApiResponses(value = {
@@ -51,38 +90,205 @@ public class MediaController {
                 return ResponseEntity.ok(ApiResponse.success("File uploaded successfully", response));
         }
 
-        @Operation(summary = "List media files", description = "Get list of media files for the authenticated user")
+        @Operation(summary = "Upload multiple media files", description = "Upload many files in one request; files are pushed to storage in parallel and the result is reported per file")
         @ApiResponses(value = {
-                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Files retrieved successfully"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Batch processed"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "No files or too many files"),
                         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
         })
-        @GetMapping
-        public ResponseEntity<ApiResponse<List<MediaFileResponse>>> list(
-                        @Parameter(description = "Filter by file type (image, video, etc.)") @RequestParam(name = "type", required = false) String type,
+        @PostMapping(value = "/upload/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+        public ResponseEntity<ApiResponse<BatchUploadResponse>> uploadBatch(
+                        @Parameter(description = "Files to upload") @RequestParam("files") List<MultipartFile> files,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User owner = userService.findByUsername(userDetails.getUsername());
+                BatchUploadResponse response = mediaService.uploadFiles(files, owner);
+
+                return ResponseEntity.ok(ApiResponse.success(
+                                response.getSucceeded() + "/" + response.getTotal() + " files uploaded", response));
+        }
+
+        @Operation(summary = "Upload a media file asynchronously", description = "Spool the file and return a job id immediately; the file is pushed to storage in the background")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "202", description = "Upload accepted"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid file"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "503", description = "Upload queue is full")
+        })
+        @PostMapping(value = "/upload/async", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+        public ResponseEntity<ApiResponse<MediaUploadJobResponse>> uploadAsync(
+                        @Parameter(description = "File to upload") @RequestParam("file") MultipartFile file,
                         @AuthenticationPrincipal UserDetails userDetails) {
 
                 User owner = userService.findByUsername(userDetails.getUsername());
-                List<MediaFileResponse> files = mediaService.getMediaFiles(owner, type);
+                MediaUploadJobResponse job = mediaUploadJobService.submit(file, owner);
 
-                return ResponseEntity.ok(ApiResponse.success(files));
+                return ResponseEntity.accepted()
+                                .location(URI.create("/api/media/jobs/" + job.getJobId()))
+                                .body(ApiResponse.success("Upload accepted", job));
         }
 
-        @Operation(summary = "Download a media file", description = "Download a specific media file by ID (public access)")
+        @Operation(summary = "Get upload job status", description = "Get progress and result of an asynchronous upload")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Job retrieved successfully"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Job not found")
+        })
+        @GetMapping("/jobs/{id}")
+        public ResponseEntity<ApiResponse<MediaUploadJobResponse>> getUploadJob(
+                        @Parameter(description = "Upload job ID") @PathVariable String id,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                return ResponseEntity.ok(ApiResponse.success(mediaUploadJobService.getJob(id, user)));
+        }
+
+        @Operation(summary = "Check media by content hash", description = "Cheap pre-check: 200 with X-Media-Id if the couple already has a file with this SHA-256, 404 otherwise")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Media with this hash exists"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "No media with this hash")
+        })
+        @RequestMapping(value = "/by-hash/{sha256}", method = RequestMethod.HEAD)
+        public ResponseEntity<Void> headByHash(
+                        @Parameter(description = "SHA-256 hex of the file content") @PathVariable String sha256,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                return mediaService.findByContentHash(user.getCoupleId(), sha256)
+                                .map(mediaFile -> ResponseEntity.ok()
+                                                .header(MEDIA_ID_HEADER, String.valueOf(mediaFile.getId()))
+                                                .<Void>build())
+                                .orElseGet(() -> ResponseEntity.notFound().build());
+        }
+
+        @Operation(summary = "List media files", description = "Get all media files of the couple. The list is streamed from the database as it is read, whatever the album size. Accept: application/cbor or application/x-jackson-smile returns the same document in that binary format")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Files retrieved successfully"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
+        })
+        // JSON đứng đầu: Accept */* hay không có Accept vẫn vào JSON chứ không vào CBOR / Smile
+        @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+                        BinaryFormats.APPLICATION_SMILE_VALUE })
+        public ResponseEntity<StreamingResponseBody> list(
+                        @Parameter(description = "Filter by file type (PHOTO, VIDEO)") @RequestParam(name = "type", required = false) String type,
+                        @Parameter(description = "Comma-separated fields to return, e.g. id,downloadUrl,type,mediaDate (default: all)") @RequestParam(required = false) String fields,
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                Long coupleId = userService.findByUsername(userDetails.getUsername()).getCoupleId();
+                MediaType format = BinaryFormats.select(acceptHeader());
+                ObjectMapper mapper = format != null ? binaryFormats.mapperFor(format) : objectMapper;
+                String etag = coupleId != null ? etag(coupleId, "list", type, fields) : null;
+                if (etag != null && CoupleVersionService.matches(ifNoneMatch, etag)) {
+                        return notModified(etag);
+                }
+                // Cùng dạng với ApiResponse, chỉ khác là mảng data được ghi dần
+                StreamingResponseBody body = out -> {
+                        try (JsonGenerator generator = mapper.createGenerator(out)) {
+                                generator.writeStartObject();
+                                generator.writeBooleanField("success", true);
+                                generator.writeStringField("message", "Success");
+                                generator.writeArrayFieldStart("data");
+                                writeMedia(generator, coupleId, type, fields, format == null, false);
+                                generator.writeEndArray();
+                                generator.writeFieldName("timestamp");
+                                generator.writeObject(Instant.now());
+                                generator.writeEndObject();
+                        }
+                };
+                return versioned(etag).contentType(format != null ? format : MediaType.APPLICATION_JSON).body(body);
+        }
+
+        @Operation(summary = "List media files as NDJSON", description = "Same as the JSON listing, one media object per line (Accept: application/x-ndjson)")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Files retrieved successfully"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
+        })
+        @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public ResponseEntity<StreamingResponseBody> listNdjson(
+                        @Parameter(description = "Filter by file type (PHOTO, VIDEO)") @RequestParam(name = "type", required = false) String type,
+                        @Parameter(description = "Comma-separated fields to return, e.g. id,downloadUrl,type,mediaDate (default: all)") @RequestParam(required = false) String fields,
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                Long coupleId = userService.findByUsername(userDetails.getUsername()).getCoupleId();
+                String etag = coupleId != null ? coupleVersionService.etag(coupleId, "ndjson", type, fields) : null;
+                if (etag != null && CoupleVersionService.matches(ifNoneMatch, etag)) {
+                        return notModified(etag);
+                }
+                StreamingResponseBody body = out -> {
+                        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+                                generator.setRootValueSeparator(null);
+                                writeMedia(generator, coupleId, type, fields, true, true);
+                        }
+                };
+                return versioned(etag).contentType(MediaType.APPLICATION_NDJSON).body(body);
+        }
+
+        @Operation(summary = "Download a media file", description = "Download a specific media file by ID (public access). Supports Range, If-None-Match and If-Modified-Since")
         @ApiResponses(value = {
                         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "File downloaded successfully"),
-                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "File not found")
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "206", description = "Partial content for the requested range"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "304", description = "Not modified"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "File not found"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "416", description = "Range not satisfiable")
         })
         @GetMapping("/{id}/download")
-        public ResponseEntity<Resource> download(
-                        @Parameter(description = "Media file ID") @PathVariable Long id) {
+        public ResponseEntity<StreamingResponseBody> download(
+                        @Parameter(description = "Media file ID") @PathVariable Long id,
+                        @RequestHeader HttpHeaders requestHeaders) {
                 MediaFile mediaFile = mediaService.getMediaFile(id);
-                Resource resource = mediaService.loadFileAsResource(id);
+                long size = mediaFile.getSize();
+                String etag = "\"" + (mediaFile.getContentHash() != null ? mediaFile.getContentHash()
+                                : mediaFile.getFileName().hashCode() + "-" + size) + "\"";
+                Instant lastModified = mediaFile.getCreatedAt().truncatedTo(ChronoUnit.SECONDS);
+
+                if (isNotModified(requestHeaders, etag, lastModified)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                        .eTag(etag)
+                                        .lastModified(lastModified)
+                                        .build();
+                }
+
+                long start = 0;
+                long length = size;
+                boolean partial = false;
+                List<HttpRange> ranges = parseRanges(requestHeaders);
+                // Chỉ hỗ trợ một range (đủ cho video seek); If-Range lệch thì trả cả file
+                if (ranges.size() == 1 && ifRangeMatches(requestHeaders, etag, lastModified)) {
+                        HttpRange range = ranges.get(0);
+                        if (size == 0 || range.getRangeStart(size) >= size) {
+                                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                                                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                                                .build();
+                        }
+                        start = range.getRangeStart(size);
+                        length = range.getRangeEnd(size) - start + 1;
+                        partial = true;
+                }
+
+                long rangeStart = start;
+                long rangeLength = length;
+                // Copy bất đồng bộ, không giữ thread của Tomcat trong lúc stream
+                StreamingResponseBody body = out -> mediaService.writeContent(mediaFile, rangeStart, rangeLength, out);
 
-                return ResponseEntity.ok()
-                                .contentType(MediaType.parseMediaType(mediaFile.getContentType()))
-                                .header(HttpHeaders.CONTENT_DISPOSITION,
-                                                "attachment; filename=\"" + mediaFile.getOriginalName() + "\"")
-                                .body(resource);
+                ResponseEntity.BodyBuilder builder = ResponseEntity.status(partial ? HttpStatus.PARTIAL_CONTENT : HttpStatus.OK)
+                                .contentType(MediaType.parseMediaType(mediaFile.getContentType() != null
+                                                ? mediaFile.getContentType()
+                                                : MediaType.APPLICATION_OCTET_STREAM_VALUE))
+                                .contentLength(length)
+                                .eTag(etag)
+                                .lastModified(lastModified)
+                                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                                                .filename(mediaFile.getOriginalName(), StandardCharsets.UTF_8)
+                                                .build().toString());
+                if (partial) {
+                        builder.header(HttpHeaders.CONTENT_RANGE,
+                                        "bytes " + start + "-" + (start + length - 1) + "/" + size);
+                }
+                return builder.body(body);
         }
 
         @Operation(summary = "Delete a media file", description = "Delete a specific media file by ID")
@@ -103,25 +309,169 @@ public class MediaController {
                 return ResponseEntity.ok(ApiResponse.success("File deleted successfully"));
         }
 
+        @Operation(summary = "Update media", description = "Update caption, tags or media date. Null fields are left unchanged")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Media updated successfully"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid request"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Forbidden - not owner"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "File not found")
+        })
+        @PatchMapping("/{id}")
+        public ResponseEntity<ApiResponse<MediaFileResponse>> update(
+                        @Parameter(description = "Media file ID") @PathVariable Long id,
+                        @Valid @RequestBody UpdateMediaRequest request,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                MediaFileResponse updated = mediaService.updateMedia(id, request, user);
+
+                return ResponseEntity.ok(ApiResponse.success("Media updated successfully", updated));
+        }
+
+        @Operation(summary = "Update media files in bulk", description = "Set caption, tags or media date on up to 500 media files of the couple in one transaction. Null fields are left unchanged; if one item fails, nothing is saved")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Media updated successfully"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid request"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Forbidden - not owner"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "File not found"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "A file was modified concurrently")
+        })
+        @PatchMapping
+        public ResponseEntity<ApiResponse<List<MediaFileResponse>>> updateBulk(
+                        @Valid @RequestBody BulkUpdateMediaRequest request,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                List<MediaFileResponse> updated = mediaService.updateMediaBatch(request.getItems(), user);
+
+                return ResponseEntity.ok(ApiResponse.success("Media updated successfully", updated));
+        }
+
+        @Operation(summary = "Delete media files in bulk", description = "Delete up to 500 media files of the couple in one request. Storage objects are purged in the background")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Files deleted successfully"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid request"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "403", description = "Forbidden - not owner")
+        })
+        @DeleteMapping
+        public ResponseEntity<ApiResponse<Integer>> deleteBulk(
+                        @Valid @RequestBody DeleteMediaRequest request,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User owner = userService.findByUsername(userDetails.getUsername());
+                int deleted = mediaService.deleteFiles(request.getIds(), owner);
+
+                return ResponseEntity.ok(ApiResponse.success("Files deleted successfully", deleted));
+        }
+
         @Operation(summary = "Get media with pagination", description = "Get media files for couple with pagination support")
         @ApiResponses(value = {
                         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Media retrieved successfully"),
                         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
         })
         @GetMapping("/paginated")
-        public ResponseEntity<ApiResponse<Page<MediaFileResponse>>> getMediaPaginated(
+        public ResponseEntity<ApiResponse<Page<?>>> getMediaPaginated(
                         @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
                         @Parameter(description = "Page size") @RequestParam(defaultValue = "20") int size,
                         @Parameter(description = "Filter by type") @RequestParam(required = false) String type,
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
                         @AuthenticationPrincipal UserDetails userDetails) {
 
                 User user = userService.findByUsername(userDetails.getUsername());
                 if (user.getCoupleId() == null) {
                         return ResponseEntity.ok(ApiResponse.success("Not in a couple", Page.empty()));
                 }
-                Page<MediaFileResponse> mediaPage = mediaService.getMediaByCoupleId(user.getCoupleId(), type, page,
-                                size);
-                return ResponseEntity.ok(ApiResponse.success(mediaPage));
+                String etag = etag(user.getCoupleId(), "paginated", page, size, type);
+                if (CoupleVersionService.matches(ifNoneMatch, etag)) {
+                        return notModified(etag);
+                }
+                Page<?> mediaPage = mediaService.getMediaByCoupleId(user.getCoupleId(), type, page,
+                                size, rawJson());
+                return versioned(etag).body(ApiResponse.success(mediaPage));
+        }
+
+        @Operation(summary = "Get media with cursor pagination", description = "Seek-based pagination on (mediaDate, id). Pass nextCursor of the previous page as 'after'; cost does not grow with depth")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Media retrieved successfully"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid cursor"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
+        })
+        @GetMapping("/cursor")
+        public ResponseEntity<ApiResponse<MediaCursorPageResponse<?>>> getMediaByCursor(
+                        @Parameter(description = "Opaque cursor from the previous page (omit for the first page)") @RequestParam(required = false) String after,
+                        @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size,
+                        @Parameter(description = "Filter by type") @RequestParam(required = false) String type,
+                        @Parameter(description = "Include the (cached) total count") @RequestParam(defaultValue = "false") boolean includeTotal,
+                        @Parameter(description = "Comma-separated fields to return, e.g. id,downloadUrl,type,mediaDate (default: all)") @RequestParam(required = false) String fields,
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                if (user.getCoupleId() == null) {
+                        return ResponseEntity.ok(ApiResponse.success("Not in a couple",
+                                        MediaCursorPageResponse.builder().content(List.of()).build()));
+                }
+                String etag = etag(user.getCoupleId(), "cursor", after, size, type, includeTotal,
+                                fields);
+                if (CoupleVersionService.matches(ifNoneMatch, etag)) {
+                        return notModified(etag);
+                }
+                return versioned(etag).body(ApiResponse.success(
+                                mediaService.getMediaAfter(user.getCoupleId(), type, after, size, includeTotal, fields,
+                                                rawJson())));
+        }
+
+        @Operation(summary = "Filter media", description = "Combine date range, type, uploader and has-caption filters. The first page also returns per-chip facet counts computed in one grouped query")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Media retrieved successfully"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid cursor or date range"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
+        })
+        @GetMapping("/query")
+        public ResponseEntity<ApiResponse<MediaQueryResponse>> queryMedia(
+                        @ParameterObject MediaQueryRequest request,
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                if (user.getCoupleId() == null) {
+                        return ResponseEntity.ok(ApiResponse.success("Not in a couple",
+                                        MediaQueryResponse.builder().content(List.of()).build()));
+                }
+                String etag = etag(user.getCoupleId(), "query", request);
+                if (CoupleVersionService.matches(ifNoneMatch, etag)) {
+                        return notModified(etag);
+                }
+                return versioned(etag).body(ApiResponse.success(mediaService.queryMedia(user.getCoupleId(), request,
+                                rawJson())));
+        }
+
+        @Operation(summary = "Timeline statistics", description = "Media count and cover photo per year, month or day (in the couple's time zone)")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Timeline retrieved successfully"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid granularity"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
+        })
+        @GetMapping("/timeline")
+        public ResponseEntity<ApiResponse<List<MediaPeriodStatResponse>>> getTimeline(
+                        @Parameter(description = "year, month or day") @RequestParam(defaultValue = "month") String granularity,
+                        @Parameter(description = "Only periods of this year (month/day granularity)") @RequestParam(required = false) Integer year,
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                if (user.getCoupleId() == null) {
+                        return ResponseEntity.ok(ApiResponse.success("Not in a couple", List.of()));
+                }
+                String etag = etag(user.getCoupleId(), "timeline", granularity, year);
+                if (CoupleVersionService.matches(ifNoneMatch, etag)) {
+                        return notModified(etag);
+                }
+                return versioned(etag).body(ApiResponse.success(
+                                mediaService.getTimeline(user.getCoupleId(), granularity, year)));
         }
 
         @Operation(summary = "On this day", description = "Get media files from previous years on the same day")
@@ -131,13 +481,143 @@ public class MediaController {
         })
         @GetMapping("/on-this-day")
         public ResponseEntity<ApiResponse<List<MediaFileResponse>>> getOnThisDay(
+                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
                         @AuthenticationPrincipal UserDetails userDetails) {
 
                 User user = userService.findByUsername(userDetails.getUsername());
                 if (user.getCoupleId() == null) {
                         return ResponseEntity.ok(ApiResponse.success("Not in a couple", List.of()));
                 }
+                // Qua nửa đêm (giờ couple) là sang danh sách khác dù album không đổi
+                String etag = etag(user.getCoupleId(), "on-this-day",
+                                mediaService.getLocalDate(user.getCoupleId()));
+                if (CoupleVersionService.matches(ifNoneMatch, etag)) {
+                        return notModified(etag);
+                }
                 List<MediaFileResponse> files = mediaService.getOnThisDay(user.getCoupleId());
-                return ResponseEntity.ok(ApiResponse.success(files));
+                return versioned(etag).body(ApiResponse.success(files));
+        }
+
+        @Operation(summary = "Search media", description = "Search captions and tags: words are ANDed, OR separates alternatives, #tag matches a whole tag, the last word is matched as a prefix")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Search completed"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Query too long or too many terms"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
+        })
+        @GetMapping("/search")
+        public ResponseEntity<ApiResponse<MediaSearchResponse>> search(
+                        @Parameter(description = "Search query, e.g. \"da lat OR #bien\"") @RequestParam String q,
+                        @Parameter(description = "Opaque cursor from the previous page (omit for the first page)") @RequestParam(required = false) String after,
+                        @Parameter(description = "Page size (1-200)") @RequestParam(defaultValue = "50") int limit,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                if (user.getCoupleId() == null) {
+                        return ResponseEntity.ok(ApiResponse.success("Not in a couple",
+                                        MediaSearchResponse.builder().query(q).total(0).content(List.of()).build()));
+                }
+                return ResponseEntity.ok(ApiResponse.success(mediaService.search(user.getCoupleId(), q, after, limit)));
+        }
+
+        @Operation(summary = "Search suggestions", description = "Autocomplete caption words and tags (prefix with # for tags only), most used first")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Suggestions retrieved"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
+        })
+        @GetMapping("/search/suggest")
+        public ResponseEntity<ApiResponse<List<String>>> suggest(
+                        @Parameter(description = "Typed prefix") @RequestParam String prefix,
+                        @Parameter(description = "Max suggestions (1-20)") @RequestParam(defaultValue = "10") int limit,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                if (user.getCoupleId() == null) {
+                        return ResponseEntity.ok(ApiResponse.success("Not in a couple", List.of()));
+                }
+                return ResponseEntity.ok(ApiResponse.success(mediaService.suggest(user.getCoupleId(), prefix, limit)));
+        }
+
+        // Cùng dữ liệu nhưng bản JSON, CBOR và Smile khác nhau, nên ETag gắn thêm định dạng client chọn
+        private String etag(Long coupleId, Object... variant) {
+                Object[] keyed = Arrays.copyOf(variant, variant.length + 1);
+                keyed[variant.length] = BinaryFormats.select(acceptHeader());
+                return coupleVersionService.etag(coupleId, keyed);
+        }
+
+        // Chỉ response JSON mới ghép được fragment byte thô; CBOR / Smile nhận object
+        private static boolean rawJson() {
+                return BinaryFormats.select(acceptHeader()) == null;
+        }
+
+        private static String acceptHeader() {
+                return ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest()
+                                .getHeader(HttpHeaders.ACCEPT);
+        }
+
+        // etag null (chưa có couple) thì trả như cũ, không gắn ETag
+        private static ResponseEntity.BodyBuilder versioned(String etag) {
+                ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+                return etag != null ? builder.eTag(etag).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT) : builder;
+        }
+
+        private static <T> ResponseEntity<T> notModified(String etag) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(etag)
+                                .cacheControl(REVALIDATE)
+                                .varyBy(HttpHeaders.ACCEPT)
+                                .build();
+        }
+
+        private void writeMedia(JsonGenerator generator, Long coupleId, String type, String fields,
+                        boolean rawJson, boolean lineDelimited) {
+                int[] written = { 0 };
+                mediaService.forEachMedia(coupleId, type, fields, rawJson, media -> {
+                        try {
+                                generator.writeObject(media);
+                                if (lineDelimited) {
+                                        generator.writeRaw('\n');
+                                }
+                                // Đẩy phần tử đầu tiên đi ngay, sau đó theo lô, để client nhận dữ liệu trong lúc các chunk sau còn đang đọc
+                                if (written[0]++ % LIST_FLUSH_EVERY == 0) {
+                                        generator.flush();
+                                }
+                        } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                        }
+                });
+        }
+
+        private static boolean isNotModified(HttpHeaders requestHeaders, String etag, Instant lastModified) {
+                List<String> ifNoneMatch = requestHeaders.getIfNoneMatch();
+                if (!ifNoneMatch.isEmpty()) {
+                        return ifNoneMatch.stream().anyMatch(value -> value.equals("*") || value.equals(etag)
+                                        || value.equals("W/" + etag));
+                }
+                long ifModifiedSince = requestHeaders.getIfModifiedSince();
+                return ifModifiedSince >= 0 && lastModified.toEpochMilli() <= ifModifiedSince;
+        }
+
+        private static boolean ifRangeMatches(HttpHeaders requestHeaders, String etag, Instant lastModified) {
+                String ifRange = requestHeaders.getFirst(HttpHeaders.IF_RANGE);
+                if (ifRange == null) {
+                        return true;
+                }
+                if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                        return ifRange.equals(etag);
+                }
+                try {
+                        return lastModified.toEpochMilli() <= requestHeaders.getFirstDate(HttpHeaders.IF_RANGE);
+                } catch (IllegalArgumentException e) {
+                        return false;
+                }
+        }
+
+        private static List<HttpRange> parseRanges(HttpHeaders requestHeaders) {
+                try {
+                        return requestHeaders.getRange();
+                } catch (IllegalArgumentException e) {
+                        // Range sai cú pháp thì bỏ qua, trả cả file như RFC 9110 cho phép
+                        return List.of();
+                }
         }
 }
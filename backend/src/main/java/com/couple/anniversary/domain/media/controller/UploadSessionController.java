@@ -0,0 +1,130 @@
+package com.couple.anniversary.domain.media.controller;
+
+import com.couple.anniversary.common.dto.ApiResponse;
+import com.couple.anniversary.domain.media.dto.CreateUploadSessionRequest;
+import com.couple.anniversary.domain.media.dto.MediaFileResponse;
+import com.couple.anniversary.domain.media.dto.UploadSessionResponse;
+import com.couple.anniversary.domain.media.service.UploadSessionService;
+import com.couple.anniversary.domain.user.entity.User;
+import com.couple.anniversary.domain.user.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/media/uploads")
+@RequiredArgsConstructor
+@Tag(name = "Resumable Upload", description = "Resumable chunked upload sessions for large media files")
+@SecurityRequirement(name = "bearerAuth")
+public class UploadSessionController {
+
+        public static final String UPLOAD_OFFSET_HEADER = "Upload-Offset";
+        public static final String UPLOAD_LENGTH_HEADER = "Upload-Length";
+        public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+        private final UploadSessionService uploadSessionService;
+        private final UserService userService;
+
+        @Operation(summary = "Create upload session", description = "Start a resumable upload for a file of known size")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "201", description = "Session created"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid request"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized")
+        })
+        @PostMapping
+        public ResponseEntity<ApiResponse<UploadSessionResponse>> createSession(
+                        @Valid @RequestBody CreateUploadSessionRequest request,
+                        @Parameter(description = "Client key to reuse an existing session on retry") @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User owner = userService.findByUsername(userDetails.getUsername());
+                UploadSessionResponse session = uploadSessionService.createSession(request, idempotencyKey, owner);
+
+                return ResponseEntity.created(URI.create("/api/media/uploads/" + session.getId()))
+                                .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.getOffset()))
+                                .body(ApiResponse.success("Upload session created", session));
+        }
+
+        @Operation(summary = "Get upload offset", description = "Return the number of bytes received so far in the Upload-Offset header")
+        @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+        public ResponseEntity<Void> getOffset(
+                        @Parameter(description = "Upload session ID") @PathVariable String id,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                UploadSessionResponse session = uploadSessionService.getSession(id, user);
+
+                return ResponseEntity.ok()
+                                .cacheControl(CacheControl.noStore())
+                                .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.getOffset()))
+                                .header(UPLOAD_LENGTH_HEADER, String.valueOf(session.getSize()))
+                                .build();
+        }
+
+        @Operation(summary = "Get upload session", description = "Get the state of a resumable upload")
+        @GetMapping("/{id}")
+        public ResponseEntity<ApiResponse<UploadSessionResponse>> getSession(
+                        @Parameter(description = "Upload session ID") @PathVariable String id,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                return ResponseEntity.ok()
+                                .cacheControl(CacheControl.noStore())
+                                .body(ApiResponse.success(uploadSessionService.getSession(id, user)));
+        }
+
+        @Operation(summary = "Upload a chunk", description = "Write the raw request body at the given Upload-Offset")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Chunk stored"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Chunk exceeds declared size"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Session not found"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Offset mismatch or session completed")
+        })
+        @PutMapping("/{id}")
+        public ResponseEntity<ApiResponse<UploadSessionResponse>> uploadChunk(
+                        @Parameter(description = "Upload session ID") @PathVariable String id,
+                        @Parameter(description = "Byte offset of this chunk") @RequestHeader(UPLOAD_OFFSET_HEADER) long offset,
+                        HttpServletRequest request,
+                        @AuthenticationPrincipal UserDetails userDetails) throws IOException {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                UploadSessionResponse session = uploadSessionService.appendChunk(id, offset,
+                                request.getContentLengthLong(), request.getInputStream(), user);
+
+                return ResponseEntity.ok()
+                                .header(UPLOAD_OFFSET_HEADER, String.valueOf(session.getOffset()))
+                                .body(ApiResponse.success(session));
+        }
+
+        @Operation(summary = "Finalize upload", description = "Push the completed file to storage and create the media item; safe to retry")
+        @ApiResponses(value = {
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Media created"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Upload incomplete"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Session not found"),
+                        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Idempotency key mismatch")
+        })
+        @PostMapping("/{id}/finalize")
+        public ResponseEntity<ApiResponse<MediaFileResponse>> finalizeSession(
+                        @Parameter(description = "Upload session ID") @PathVariable String id,
+                        @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+                        @AuthenticationPrincipal UserDetails userDetails) {
+
+                User user = userService.findByUsername(userDetails.getUsername());
+                MediaFileResponse response = uploadSessionService.finalizeSession(id, idempotencyKey, user);
+
+                return ResponseEntity.ok(ApiResponse.success("File uploaded successfully", response));
+        }
+}
@@ -0,0 +1,37 @@
+package com.couple.anniversary.domain.media.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadItemResult {
+
+    private int index; // vị trí của file trong request
+    private String originalName;
+    private boolean success;
+    private MediaFileResponse media;
+    private String error;
+
+    public static BatchUploadItemResult success(int index, String originalName, MediaFileResponse media) {
+        return BatchUploadItemResult.builder()
+                .index(index)
+                .originalName(originalName)
+                .success(true)
+                .media(media)
+                .build();
+    }
+
+    public static BatchUploadItemResult failure(int index, String originalName, String error) {
+        return BatchUploadItemResult.builder()
+                .index(index)
+                .originalName(originalName)
+                .success(false)
+                .error(error)
+                .build();
+    }
+}
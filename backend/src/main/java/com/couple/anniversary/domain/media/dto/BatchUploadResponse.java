@@ -0,0 +1,30 @@
+package com.couple.anniversary.domain.media.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchUploadResponse {
+
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<BatchUploadItemResult> results;
+
+    public static BatchUploadResponse of(List<BatchUploadItemResult> results) {
+        int succeeded = (int) results.stream().filter(BatchUploadItemResult::isSuccess).count();
+        return BatchUploadResponse.builder()
+                .total(results.size())
+                .succeeded(succeeded)
+                .failed(results.size() - succeeded)
+                .results(results)
+                .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.couple.anniversary.domain.media.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * Sửa nhiều media một lần; mỗi phần tử giống body của PATCH /api/media/{id} kèm id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkUpdateMediaRequest {
+
+    @NotEmpty(message = "Media updates are required")
+    @Size(max = 500, message = "At most 500 media files can be updated at once")
+    private List<@Valid @NotNull Item> items;
+
+    @Data
+    @NoArgsConstructor
+    @EqualsAndHashCode(callSuper = true)
+    @ToString(callSuper = true)
+    public static class Item extends UpdateMediaRequest {
+
+        @NotNull(message = "Media id is required")
+        private Long id;
+    }
+}
@@ -0,0 +1,19 @@
+package com.couple.anniversary.domain.media.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeleteMediaRequest {
+
+    @NotEmpty(message = "Media ids are required")
+    @Size(max = 500, message = "At most 500 media files can be deleted at once")
+    private List<Long> ids;
+}
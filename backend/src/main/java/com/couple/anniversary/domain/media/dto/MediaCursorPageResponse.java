@@ -0,0 +1,21 @@
+package com.couple.anniversary.domain.media.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaCursorPageResponse<T> {
+
+    private List<T> content; // JSON MediaFileResponse lấy từ cache fragment, hoặc map chỉ gồm các trường trong fields=
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // null khi đã hết
+    private Long totalElements; // chỉ có khi client yêu cầu includeTotal
+}
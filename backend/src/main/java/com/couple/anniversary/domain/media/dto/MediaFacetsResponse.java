@@ -0,0 +1,24 @@
+package com.couple.anniversary.domain.media.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Số media cho từng chip. Mỗi nhóm chip đếm theo các bộ lọc còn lại (không tính chính nó),
+ * nên chip chưa chọn cho biết sẽ có bao nhiêu kết quả nếu chuyển sang nó.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaFacetsResponse {
+
+    private Map<String, Long> types; // PHOTO / VIDEO
+    private Map<Long, Long> owners; // theo id người upload
+    private long withCaption;
+    private long withoutCaption;
+}
@@ -26,4 +26,10 @@ public class MediaFileResponse {
     private String caption;
     private String tags;        // hoặc List<String> tags
     private Instant mediaDate;
+    private String contentHash; // SHA-256 hex, client có thể so trước khi upload
+    private String placeholder;   // BlurHash, null khi chưa tính xong
+    private String dominantColor; // #rrggbb
+    private Integer width;
+    private Integer height;
+    private Integer orientation;  // EXIF 1..8, 5-8 nghĩa là phải đổi width/height khi hiển thị
 }
@@ -0,0 +1,21 @@
+package com.couple.anniversary.domain.media.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaPeriodStatResponse {
+
+    private int year;
+    private Integer month; // null ở cấp năm
+    private Integer day; // null ở cấp năm/tháng
+    private int count;
+    private Long coverMediaId;
+    private String coverUrl;
+    private String coverPlaceholder;
+}
@@ -0,0 +1,41 @@
+package com.couple.anniversary.domain.media.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/**
+ * Bộ lọc của thanh FilterChips; trường nào null thì không lọc theo trường đó.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaQueryRequest {
+
+    @Schema(description = "First day (inclusive), in the couple's time zone")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate from;
+
+    @Schema(description = "Last day (inclusive), in the couple's time zone")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate to;
+
+    @Schema(description = "PHOTO, VIDEO or ALL")
+    private String type;
+
+    @Schema(description = "Uploader user id")
+    private Long ownerId;
+
+    @Schema(description = "true: only media with a caption, false: only media without one")
+    private Boolean hasCaption;
+
+    @Schema(description = "nextCursor of the previous page; facets are only computed for the first page")
+    private String after;
+
+    @Schema(description = "Page size (1-100)")
+    private Integer size;
+}
@@ -0,0 +1,22 @@
+package com.couple.anniversary.domain.media.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaQueryResponse {
+
+    private List<?> content; // JSON của từng MediaFileResponse ghép từ cache fragment (CBOR / Smile: chính các object)
+    private int size;
+    private boolean hasNext;
+    private String nextCursor; // null khi đã hết
+    private Long totalElements; // số media khớp mọi bộ lọc, chỉ có ở trang đầu
+    private MediaFacetsResponse facets; // chỉ có ở trang đầu
+}
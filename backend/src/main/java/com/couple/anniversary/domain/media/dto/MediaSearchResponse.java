@@ -0,0 +1,21 @@
+package com.couple.anniversary.domain.media.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaSearchResponse {
+
+    private String query;
+    private int total; // tổng số media khớp, content chỉ gồm một trang
+    private List<MediaFileResponse> content;
+    private boolean hasNext;
+    private String nextCursor; // truyền vào after để lấy trang sau, null khi đã hết
+}
@@ -0,0 +1,26 @@
+package com.couple.anniversary.domain.media.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaUploadJobResponse {
+
+    private String jobId;
+    private String status; // QUEUED, UPLOADING, COMPLETED, FAILED
+    private String originalName;
+    private Long totalBytes;
+    private Long uploadedBytes;
+    private Integer progress; // phần trăm 0-100
+    private MediaFileResponse media;
+    private String error;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
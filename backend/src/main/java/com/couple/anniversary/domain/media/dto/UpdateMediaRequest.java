@@ -0,0 +1,27 @@
+package com.couple.anniversary.domain.media.dto;
+
+import jakarta.validation.constraints.PastOrPresent;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Sửa thông tin media; trường nào null thì giữ nguyên.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UpdateMediaRequest {
+
+    @Size(max = 1000, message = "Caption must be at most 1000 characters")
+    private String caption;
+
+    @Size(max = 255, message = "Tags must be at most 255 characters")
+    private String tags;
+
+    @PastOrPresent(message = "Media date cannot be in the future")
+    private Instant mediaDate;
+}
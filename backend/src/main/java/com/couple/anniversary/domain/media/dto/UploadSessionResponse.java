@@ -0,0 +1,25 @@
+package com.couple.anniversary.domain.media.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadSessionResponse {
+
+    private String id;
+    private String originalName;
+    private String contentType;
+    private Long size;
+    private Long offset; // số byte server đã nhận
+    private String status; // ACTIVE, COMPLETED
+    private Long mediaFileId;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
@@ -1,5 +1,6 @@
 package com.couple.anniversary.domain.media.entity;
 
+import com.couple.anniversary.common.constant.AppConstants;
 import com.couple.anniversary.domain.user.entity.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
@@ -14,7 +15,12 @@ import java.time.Instant;
 @Entity
 @Table(name = "media_files", indexes = {
         @Index(name = "idx_media_owner", columnList = "owner_id"),
-        @Index(name = "idx_media_type", columnList = "type")
+        @Index(name = "idx_media_couple_hash", columnList = "couple_id, content_hash"),
+        @Index(name = "idx_media_status_created", columnList = "status, created_at"),
+        @Index(name = "idx_media_couple_status_date", columnList = "couple_id, status, media_date, id"),
+        @Index(name = "idx_media_couple_type_status_date", columnList = "couple_id, type, status, media_date, id"),
+        @Index(name = "idx_media_couple_owner_status_date", columnList = "couple_id, owner_id, status, media_date, id"),
+        @Index(name = "idx_media_couple_month_day", columnList = "couple_id, month_day, status, media_date")
 })
 @Getter
 @Setter
@@ -27,6 +33,11 @@ public class MediaFile {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Tăng mỗi lần bản ghi đổi (kể cả các câu UPDATE hàng loạt), là một phần key của cache JSON fragment
+    @Version
+    @Column(name = "row_version", nullable = false)
+    private Long version;
+
     @Column(nullable = false)
     private String fileName;
 
@@ -37,9 +48,28 @@ public class MediaFile {
 
     private Long size;
 
+    @Column(name = "content_hash", length = 64)
+    private String contentHash; // SHA-256 hex của nội dung, dùng để chống upload trùng
+
+    @Column(length = 64)
+    private String placeholder; // BlurHash, tính nền sau khi upload
+
+    @Column(name = "dominant_color", length = 7)
+    private String dominantColor; // #rrggbb
+
+    private Integer width;  // pixel như lưu trong file, chưa xoay
+
+    private Integer height;
+
+    private Integer orientation; // EXIF Orientation 1..8
+
     @Column(nullable = false)
     private String type; // PHOTO or VIDEO
 
+    @Builder.Default
+    @Column(nullable = false, length = 16)
+    private String status = AppConstants.MEDIA_STATUS_READY; // PENDING or READY
+
     @Column(length = 1000)
     private String caption;
 
@@ -49,6 +79,9 @@ public class MediaFile {
     @Column(name = "media_date")
     private Instant mediaDate; // ngày chụp/quay, cho phép chỉnh tay
 
+    @Column(name = "month_day")
+    private Integer monthDay; // tháng * 100 + ngày của mediaDate theo múi giờ couple, cho "ngày này năm xưa"
+
     @Column(name = "couple_id")
     private Long coupleId;
 
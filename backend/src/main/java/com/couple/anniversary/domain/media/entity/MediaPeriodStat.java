@@ -0,0 +1,52 @@
+package com.couple.anniversary.domain.media.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Số media của couple theo năm / tháng / ngày (theo múi giờ couple), cập nhật cùng transaction với upload, xóa, sửa ngày.
+ * Một bảng cho cả 3 cấp: month = 0 là dòng tổng của năm, day = 0 là dòng tổng của tháng.
+ */
+@Entity
+@Table(name = "media_period_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_media_period", columnNames = { "couple_id", "period_year", "period_month",
+                "period_day" })
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaPeriodStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "couple_id", nullable = false)
+    private Long coupleId;
+
+    @Column(name = "period_year", nullable = false)
+    private int year;
+
+    @Column(name = "period_month", nullable = false)
+    private int month;
+
+    @Column(name = "period_day", nullable = false)
+    private int day;
+
+    @Column(name = "media_count", nullable = false)
+    private int mediaCount;
+
+    @Column(name = "cover_media_id")
+    private Long coverMediaId; // ảnh mới nhất trong kỳ theo (media_date, id), null nếu kỳ chỉ có video
+
+    @Column(name = "cover_media_date")
+    private Instant coverMediaDate; // media_date của ảnh bìa, để so ảnh mới thêm vào kỳ mà không cần join
+}
@@ -0,0 +1,37 @@
+package com.couple.anniversary.domain.media.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Tag đã chuẩn hóa (chữ thường, bỏ dấu) của media, mỗi tag một dòng; MediaFile.tags giữ nguyên chuỗi gốc để hiển thị.
+ */
+@Entity
+@Table(name = "media_tags", indexes = {
+        @Index(name = "idx_media_tag_couple_tag", columnList = "couple_id, tag"),
+        @Index(name = "idx_media_tag_media", columnList = "media_id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MediaTag {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "media_id", nullable = false)
+    private Long mediaId;
+
+    @Column(name = "couple_id", nullable = false)
+    private Long coupleId;
+
+    @Column(nullable = false, length = 100)
+    private String tag;
+}
@@ -0,0 +1,128 @@
+package com.couple.anniversary.domain.media.image;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Mã hóa ảnh thành chuỗi BlurHash (https://blurha.sh) để client vẽ placeholder mờ
+ * trước khi tải ảnh thật. Ảnh đầu vào nên được thu nhỏ trước, vài chục pixel là đủ.
+ */
+public final class BlurHashEncoder {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private BlurHashEncoder() {
+    }
+
+    public static String encode(BufferedImage image, int componentsX, int componentsY) {
+        if (componentsX < 1 || componentsX > 9 || componentsY < 1 || componentsY > 9) {
+            throw new IllegalArgumentException("Số thành phần BlurHash phải trong khoảng 1..9");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        // Chuyển sang không gian tuyến tính một lần, dùng lại cho mọi thành phần
+        double[] linear = new double[pixels.length * 3];
+        for (int i = 0; i < pixels.length; i++) {
+            int rgb = pixels[i];
+            linear[i * 3] = srgbToLinear((rgb >> 16) & 0xFF);
+            linear[i * 3 + 1] = srgbToLinear((rgb >> 8) & 0xFF);
+            linear[i * 3 + 2] = srgbToLinear(rgb & 0xFF);
+        }
+
+        double[][] factors = new double[componentsX * componentsY][];
+        for (int j = 0; j < componentsY; j++) {
+            for (int i = 0; i < componentsX; i++) {
+                factors[j * componentsX + i] = basis(linear, width, height, i, j);
+            }
+        }
+
+        StringBuilder hash = new StringBuilder(4 + 2 * factors.length);
+        appendBase83(hash, (componentsX - 1) + (componentsY - 1) * 9, 1);
+
+        double maximum = 1;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double value : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(value));
+                }
+            }
+            int quantised = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximum = (quantised + 1) / 166.0;
+            appendBase83(hash, quantised, 1);
+        } else {
+            appendBase83(hash, 0, 1);
+        }
+
+        appendBase83(hash, encodeDc(factors[0]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            appendBase83(hash, encodeAc(factors[k], maximum), 2);
+        }
+        return hash.toString();
+    }
+
+    private static double[] basis(double[] linear, int width, int height, int i, int j) {
+        double r = 0;
+        double g = 0;
+        double b = 0;
+        double normalisation = (i == 0 && j == 0) ? 1 : 2;
+        for (int y = 0; y < height; y++) {
+            double cosY = Math.cos(Math.PI * j * y / height);
+            for (int x = 0; x < width; x++) {
+                double factor = normalisation * Math.cos(Math.PI * i * x / width) * cosY;
+                int offset = (y * width + x) * 3;
+                r += factor * linear[offset];
+                g += factor * linear[offset + 1];
+                b += factor * linear[offset + 2];
+            }
+        }
+        double scale = 1.0 / (width * height);
+        return new double[] { r * scale, g * scale, b * scale };
+    }
+
+    private static int encodeDc(double[] value) {
+        return (linearToSrgb(value[0]) << 16) + (linearToSrgb(value[1]) << 8) + linearToSrgb(value[2]);
+    }
+
+    private static int encodeAc(double[] value, double maximum) {
+        int r = quantiseAc(value[0], maximum);
+        int g = quantiseAc(value[1], maximum);
+        int b = quantiseAc(value[2], maximum);
+        return r * 19 * 19 + g * 19 + b;
+    }
+
+    private static int quantiseAc(double value, double maximum) {
+        double normalised = value / maximum;
+        double signPow = Math.copySign(Math.pow(Math.abs(normalised), 0.5), normalised);
+        return (int) Math.max(0, Math.min(18, Math.floor(signPow * 9 + 9.5)));
+    }
+
+    private static double srgbToLinear(int value) {
+        double v = value / 255.0;
+        return v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4);
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+                ? (int) (v * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void appendBase83(StringBuilder out, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (value / pow83(length - i)) % 83;
+            out.append(BASE83.charAt(digit));
+        }
+    }
+
+    private static int pow83(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 83;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package com.couple.anniversary.domain.media.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * Tính placeholder (BlurHash + màu chủ đạo) cho ảnh. Ảnh được giải mã với subsampling
+ * nên chỉ khoảng SAMPLE_SIZE pixel mỗi chiều nằm trong bộ nhớ, kể cả ảnh gốc hàng chục MB.
+ */
+public final class ImagePlaceholders {
+
+    private static final int SAMPLE_SIZE = 64;
+
+    public record Placeholder(String blurHash, String dominantColor) {
+    }
+
+    private ImagePlaceholders() {
+    }
+
+    /**
+     * Trả về rỗng nếu định dạng không được ImageIO hỗ trợ (HEIC, WebP...).
+     * orientation là tag EXIF đã lưu khi upload: ImageIO trả pixel theo chiều cảm biến,
+     * nên mẫu được xoay về chiều hiển thị trước khi chọn số thành phần và mã hóa.
+     */
+    public static Optional<Placeholder> compute(InputStream in, Integer orientation) throws IOException {
+        BufferedImage decoded = readSubsampled(in);
+        if (decoded == null) {
+            return Optional.empty();
+        }
+        BufferedImage sample = orient(decoded, orientation);
+        boolean portrait = sample.getHeight() > sample.getWidth();
+        String blurHash = BlurHashEncoder.encode(sample, portrait ? 3 : 4, portrait ? 4 : 3);
+        return Optional.of(new Placeholder(blurHash, dominantColor(sample)));
+    }
+
+    private static BufferedImage readSubsampled(InputStream in) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int step = Math.max(1, Math.max(reader.getWidth(0), reader.getHeight(0)) / SAMPLE_SIZE);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Áp tag EXIF Orientation (2..8: lật, xoay 180, hoán vị trục...) lên ảnh mẫu nhỏ.
+     * Với 5..8 hai chiều đổi chỗ cho nhau.
+     */
+    static BufferedImage orient(BufferedImage image, Integer orientation) {
+        if (orientation == null || orientation < 2 || orientation > 8) {
+            return image;
+        }
+        int w = image.getWidth();
+        int h = image.getHeight();
+        boolean transposed = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(transposed ? h : w, transposed ? w : h,
+                BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < oriented.getHeight(); y++) {
+            for (int x = 0; x < oriented.getWidth(); x++) {
+                int rgb = switch (orientation) {
+                    case 2 -> image.getRGB(w - 1 - x, y);
+                    case 3 -> image.getRGB(w - 1 - x, h - 1 - y);
+                    case 4 -> image.getRGB(x, h - 1 - y);
+                    case 5 -> image.getRGB(y, x);
+                    case 6 -> image.getRGB(y, h - 1 - x);
+                    case 7 -> image.getRGB(w - 1 - y, h - 1 - x);
+                    default -> image.getRGB(w - 1 - y, x);
+                };
+                oriented.setRGB(x, y, rgb);
+            }
+        }
+        return oriented;
+    }
+
+    /**
+     * Gom pixel vào 4096 ô màu (4 bit mỗi kênh), lấy trung bình của ô đông nhất.
+     */
+    private static String dominantColor(BufferedImage image) {
+        int[] pixels = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        int[] counts = new int[4096];
+        long[][] sums = new long[4096][3];
+        for (int rgb : pixels) {
+            int r = (rgb >> 16) & 0xFF;
+            int g = (rgb >> 8) & 0xFF;
+            int b = rgb & 0xFF;
+            int bucket = ((r >> 4) << 8) | ((g >> 4) << 4) | (b >> 4);
+            counts[bucket]++;
+            sums[bucket][0] += r;
+            sums[bucket][1] += g;
+            sums[bucket][2] += b;
+        }
+        int best = 0;
+        for (int i = 1; i < counts.length; i++) {
+            if (counts[i] > counts[best]) {
+                best = i;
+            }
+        }
+        int count = Math.max(1, counts[best]);
+        return String.format("#%02x%02x%02x", sums[best][0] / count, sums[best][1] / count, sums[best][2] / count);
+    }
+}
@@ -0,0 +1,72 @@
+package com.couple.anniversary.domain.media.job;
+
+import com.couple.anniversary.domain.media.dto.MediaFileResponse;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Trạng thái của một lần upload bất đồng bộ.
+ * Job được giữ trong bộ nhớ, worker cập nhật tiến độ trong lúc đẩy file lên storage.
+ */
+@Getter
+public class MediaUploadJob {
+
+    public enum Status {
+        QUEUED, UPLOADING, COMPLETED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long coupleId;
+    private final Long ownerId;
+    private final String originalName;
+    private final String contentType;
+    private final long totalBytes;
+    private final Path spoolFile;
+    private final Instant createdAt = Instant.now();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile long uploadedBytes;
+    private volatile MediaFileResponse result;
+    private volatile String error;
+    private volatile Instant updatedAt = createdAt;
+
+    public MediaUploadJob(Long coupleId, Long ownerId, String originalName, String contentType, long totalBytes,
+            Path spoolFile) {
+        this.coupleId = coupleId;
+        this.ownerId = ownerId;
+        this.originalName = originalName;
+        this.contentType = contentType;
+        this.totalBytes = totalBytes;
+        this.spoolFile = spoolFile;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public void markUploading() {
+        status = Status.UPLOADING;
+        updatedAt = Instant.now();
+    }
+
+    public void updateProgress(long bytesUploaded) {
+        uploadedBytes = Math.min(bytesUploaded, totalBytes);
+        updatedAt = Instant.now();
+    }
+
+    public void complete(MediaFileResponse response) {
+        result = response;
+        uploadedBytes = totalBytes;
+        status = Status.COMPLETED;
+        updatedAt = Instant.now();
+    }
+
+    public void fail(String message) {
+        error = message;
+        status = Status.FAILED;
+        updatedAt = Instant.now();
+    }
+}
@@ -0,0 +1,175 @@
+package com.couple.anniversary.domain.media.metadata;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Đọc vài tag cần thiết từ khối EXIF (cấu trúc TIFF) đã nằm sẵn trong bộ nhớ.
+ */
+final class ExifParser {
+
+    private static final int TAG_ORIENTATION = 0x0112;
+    private static final int TAG_DATE_TIME = 0x0132;
+    private static final int TAG_EXIF_IFD = 0x8769;
+    private static final int TAG_DATE_TIME_ORIGINAL = 0x9003;
+    private static final int TAG_DATE_TIME_DIGITIZED = 0x9004;
+    private static final int TAG_OFFSET_TIME_ORIGINAL = 0x9011;
+    private static final int TAG_PIXEL_X = 0xA002;
+    private static final int TAG_PIXEL_Y = 0xA003;
+
+    private static final int TYPE_SHORT = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int MAX_IFD_ENTRIES = 512;
+
+    private static final DateTimeFormatter EXIF_DATE = DateTimeFormatter.ofPattern("yyyy:MM:dd HH:mm:ss");
+
+    private final byte[] data;
+    private final int base;
+    private final boolean littleEndian;
+
+    private Integer orientation;
+    private Integer width;
+    private Integer height;
+    private String dateTime;
+    private String dateTimeOriginal;
+    private String dateTimeDigitized;
+    private String offsetTimeOriginal;
+
+    private ExifParser(byte[] data, int base) {
+        this.data = data;
+        this.base = base;
+        this.littleEndian = data[base] == 'I' && data[base + 1] == 'I';
+    }
+
+    /**
+     * @param base vị trí bắt đầu header TIFF ("II*\0" hoặc "MM\0*") trong data
+     */
+    static MediaMetadata parse(byte[] data, int base) {
+        if (base < 0 || base + 8 > data.length) {
+            return MediaMetadata.EMPTY;
+        }
+        boolean validOrder = (data[base] == 'I' && data[base + 1] == 'I') || (data[base] == 'M' && data[base + 1] == 'M');
+        if (!validOrder) {
+            return MediaMetadata.EMPTY;
+        }
+        ExifParser parser = new ExifParser(data, base);
+        try {
+            if (parser.u16(base + 2) != 42) {
+                return MediaMetadata.EMPTY;
+            }
+            long exifIfd = parser.readIfd(parser.u32(base + 4), true);
+            if (exifIfd > 0) {
+                parser.readIfd(exifIfd, false);
+            }
+        } catch (IndexOutOfBoundsException e) {
+            // EXIF bị cắt cụt: dùng những gì đã đọc được
+        }
+        LocalDateTime local = parser.localTakenAt();
+        ZoneOffset offset = local != null ? parser.offset() : null;
+        return new MediaMetadata(offset != null ? local.toInstant(offset) : null, offset == null ? local : null,
+                parser.width, parser.height, parser.orientation);
+    }
+
+    /**
+     * Đọc một IFD, trả về offset của Exif sub-IFD nếu đang đọc IFD0.
+     */
+    private long readIfd(long offset, boolean ifd0) {
+        int start = base + (int) offset;
+        int count = Math.min(u16(start), MAX_IFD_ENTRIES);
+        long exifIfd = 0;
+        for (int i = 0; i < count; i++) {
+            int entry = start + 2 + i * 12;
+            int tag = u16(entry);
+            int type = u16(entry + 2);
+            long components = u32(entry + 4);
+            switch (tag) {
+                case TAG_ORIENTATION -> {
+                    if (ifd0) {
+                        orientation = integerValue(entry, type);
+                    }
+                }
+                case TAG_DATE_TIME -> dateTime = ascii(entry, components);
+                case TAG_EXIF_IFD -> exifIfd = ifd0 ? u32(entry + 8) : 0;
+                case TAG_DATE_TIME_ORIGINAL -> dateTimeOriginal = ascii(entry, components);
+                case TAG_DATE_TIME_DIGITIZED -> dateTimeDigitized = ascii(entry, components);
+                case TAG_OFFSET_TIME_ORIGINAL -> offsetTimeOriginal = ascii(entry, components);
+                case TAG_PIXEL_X -> width = integerValue(entry, type);
+                case TAG_PIXEL_Y -> height = integerValue(entry, type);
+                default -> {
+                }
+            }
+        }
+        return exifIfd;
+    }
+
+    /**
+     * Giờ chụp địa phương như EXIF ghi; múi giờ không nằm trong chuỗi này.
+     */
+    private LocalDateTime localTakenAt() {
+        String value = dateTimeOriginal != null ? dateTimeOriginal
+                : dateTimeDigitized != null ? dateTimeDigitized : dateTime;
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim(), EXIF_DATE);
+        } catch (DateTimeParseException e) {
+            // Máy ảnh chưa đặt giờ thường ghi "0000:00:00 00:00:00"
+            return null;
+        }
+    }
+
+    /**
+     * OffsetTimeOriginal (EXIF 2.31), null nếu không có hoặc sai định dạng:
+     * khi đó caller tự hiểu giờ địa phương theo múi giờ của couple.
+     */
+    private ZoneOffset offset() {
+        if (offsetTimeOriginal == null) {
+            return null;
+        }
+        try {
+            return ZoneOffset.of(offsetTimeOriginal.trim());
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private Integer integerValue(int entry, int type) {
+        if (type == TYPE_SHORT) {
+            return u16(entry + 8);
+        }
+        if (type == TYPE_LONG) {
+            return (int) u32(entry + 8);
+        }
+        return null;
+    }
+
+    private String ascii(int entry, long components) {
+        if (components <= 0 || components > 64) {
+            return null;
+        }
+        int length = (int) components;
+        int offset = length <= 4 ? entry + 8 : base + (int) u32(entry + 8);
+        int end = offset;
+        while (end < offset + length && data[end] != 0) {
+            end++;
+        }
+        return new String(data, offset, end - offset, StandardCharsets.US_ASCII);
+    }
+
+    private int u16(int offset) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private long u32(int offset) {
+        long high = u16(offset);
+        long low = u16(offset + 2);
+        return littleEndian ? (low << 16) | high : (high << 16) | low;
+    }
+}
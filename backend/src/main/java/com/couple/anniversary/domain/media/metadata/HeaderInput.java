@@ -0,0 +1,84 @@
+package com.couple.anniversary.domain.media.metadata;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Đọc big-endian từ stream với giới hạn số byte được đọc thật. Skip không tính vào giới hạn
+ * vì với file trên đĩa, skip chỉ là seek.
+ */
+class HeaderInput {
+
+    static class BudgetExceededException extends IOException {
+        BudgetExceededException() {
+            super("Header vượt quá giới hạn đọc");
+        }
+    }
+
+    private final InputStream in;
+    private long remainingBudget;
+    private long position;
+
+    HeaderInput(InputStream in, long readBudget) {
+        this.in = in;
+        this.remainingBudget = readBudget;
+    }
+
+    long position() {
+        return position;
+    }
+
+    int readU8() throws IOException {
+        consume(1);
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException();
+        }
+        position++;
+        return b;
+    }
+
+    int readU16() throws IOException {
+        return (readU8() << 8) | readU8();
+    }
+
+    long readU32() throws IOException {
+        return ((long) readU16() << 16) | readU16();
+    }
+
+    long readU64() throws IOException {
+        return (readU32() << 32) | readU32();
+    }
+
+    String readType() throws IOException {
+        byte[] type = readBytes(4);
+        return new String(type, StandardCharsets.ISO_8859_1);
+    }
+
+    byte[] readBytes(int length) throws IOException {
+        consume(length);
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            throw new EOFException();
+        }
+        position += length;
+        return bytes;
+    }
+
+    void skip(long length) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        in.skipNBytes(length);
+        position += length;
+    }
+
+    private void consume(long length) throws IOException {
+        if (length > remainingBudget) {
+            throw new BudgetExceededException();
+        }
+        remainingBudget -= length;
+    }
+}
@@ -0,0 +1,35 @@
+package com.couple.anniversary.domain.media.metadata;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Metadata đọc từ header của file. Các trường null khi file không có thông tin đó.
+ *
+ * @param takenAt      thời điểm chụp/quay khi file ghi đủ múi giờ (EXIF có OffsetTime, mvhd của video)
+ * @param localTakenAt giờ chụp địa phương khi EXIF không ghi offset (nhiều điện thoại không ghi)
+ * @param width        chiều rộng pixel như lưu trong file (chưa xoay)
+ * @param height       chiều cao pixel như lưu trong file (chưa xoay)
+ * @param orientation  giá trị Orientation theo chuẩn EXIF (1..8), video quy đổi từ góc xoay
+ */
+public record MediaMetadata(Instant takenAt, LocalDateTime localTakenAt, Integer width, Integer height,
+        Integer orientation) {
+
+    public static final MediaMetadata EMPTY = new MediaMetadata(null, null, null, null, null);
+
+    /**
+     * Thời điểm chụp/quay; giờ địa phương không kèm offset được hiểu theo zone (múi giờ của couple),
+     * không phải múi giờ của server.
+     */
+    public Instant takenAt(ZoneId zone) {
+        if (takenAt != null) {
+            return takenAt;
+        }
+        return localTakenAt != null ? localTakenAt.atZone(zone).toInstant() : null;
+    }
+
+    boolean hasCaptureTime() {
+        return takenAt != null || localTakenAt != null;
+    }
+}
@@ -0,0 +1,343 @@
+package com.couple.anniversary.domain.media.metadata;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Đọc ngày chụp, kích thước và hướng xoay chỉ từ phần header của file:
+ * segment APP1/EXIF của JPEG, box {@code meta} (Exif + ispe) của HEIC, box {@code mvhd}/{@code tkhd} của MP4/MOV.
+ * Không giải mã ảnh/video; số byte đọc thật bị chặn bởi READ_BUDGET nên chi phí không phụ thuộc kích thước file.
+ */
+@Slf4j
+public final class MediaMetadataReader {
+
+    private static final long READ_BUDGET = 256 * 1024;
+    private static final int MAX_EXIF_SIZE = 64 * 1024;
+    private static final int MAX_BOX_DEPTH = 6;
+
+    // Mốc thời gian của QuickTime/MP4: số giây tính từ 1904-01-01 UTC
+    private static final long MP4_EPOCH_OFFSET = LocalDate.of(1904, 1, 1).atStartOfDay(ZoneOffset.UTC)
+            .toEpochSecond();
+
+    private MediaMetadataReader() {
+    }
+
+    /**
+     * Không bao giờ ném lỗi: file hỏng hoặc định dạng lạ thì trả về {@link MediaMetadata#EMPTY}.
+     */
+    public static MediaMetadata read(InputStream in) {
+        HeaderInput input = new HeaderInput(in, READ_BUDGET);
+        try {
+            int first = input.readU16();
+            if (first == 0xFFD8) {
+                return readJpeg(input);
+            }
+            // ISO-BMFF (MP4, MOV, HEIC): 4 byte size rồi 4 byte type của box đầu tiên
+            int sizeLow = input.readU16();
+            String type = input.readType();
+            if ("ftyp".equals(type) || "moov".equals(type) || "wide".equals(type) || "mdat".equals(type)
+                    || "free".equals(type)) {
+                long size = ((long) first << 16) | sizeLow;
+                return readBmff(input, size, type);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Không đọc được metadata: {}", e.getMessage());
+        }
+        return MediaMetadata.EMPTY;
+    }
+
+    private static MediaMetadata readJpeg(HeaderInput input) throws IOException {
+        MediaMetadata exif = MediaMetadata.EMPTY;
+        Integer width = null;
+        Integer height = null;
+        while (true) {
+            int marker = input.readU8();
+            if (marker != 0xFF) {
+                break;
+            }
+            int code = input.readU8();
+            while (code == 0xFF) {
+                code = input.readU8();
+            }
+            if (code == 0xD9 || code == 0xDA) {
+                // EOI hoặc bắt đầu dữ liệu ảnh: header đã hết
+                break;
+            }
+            if (code == 0x01 || (code >= 0xD0 && code <= 0xD7)) {
+                continue;
+            }
+            int payload = input.readU16() - 2;
+            if (code == 0xE1 && exif == MediaMetadata.EMPTY && payload > 14) {
+                byte[] segment = input.readBytes(payload);
+                if (segment[0] == 'E' && segment[1] == 'x' && segment[2] == 'i' && segment[3] == 'f'
+                        && segment[4] == 0 && segment[5] == 0) {
+                    exif = ExifParser.parse(segment, 6);
+                }
+            } else if (isStartOfFrame(code) && payload >= 5) {
+                input.readU8(); // precision
+                height = input.readU16();
+                width = input.readU16();
+                input.skip(payload - 5);
+                break;
+            } else {
+                input.skip(payload);
+            }
+        }
+        // SOF là kích thước thật của ảnh, EXIF đôi khi ghi kích thước của ảnh trước khi crop
+        return new MediaMetadata(exif.takenAt(), exif.localTakenAt(),
+                width != null ? width : exif.width(),
+                height != null ? height : exif.height(),
+                exif.orientation());
+    }
+
+    private static boolean isStartOfFrame(int code) {
+        return code >= 0xC0 && code <= 0xCF && code != 0xC4 && code != 0xC8 && code != 0xCC;
+    }
+
+    private static MediaMetadata readBmff(HeaderInput input, long firstSize, String firstType) throws IOException {
+        BmffState state = new BmffState();
+        long size = firstSize;
+        String type = firstType;
+        long headerSize = 8;
+        while (true) {
+            if (size == 1) {
+                size = input.readU64();
+                headerSize = 16;
+            }
+            long start = input.position() - headerSize;
+            switch (type) {
+                case "moov" -> {
+                    readContainer(input, size - headerSize, state, 1);
+                    return state.toMetadata();
+                }
+                case "meta" -> {
+                    input.skip(4); // version + flags
+                    readContainer(input, size - headerSize - 4, state, 1);
+                    if (state.exifItemId != null) {
+                        state.readExifItem(input);
+                    }
+                    return state.toMetadata();
+                }
+                default -> {
+                    if (size == 0) {
+                        // box kéo dài đến hết file
+                        return state.toMetadata();
+                    }
+                    input.skip(start + size - input.position());
+                }
+            }
+            size = input.readU32();
+            type = input.readType();
+            headerSize = 8;
+        }
+    }
+
+    private static void readContainer(HeaderInput input, long length, BmffState state, int depth)
+            throws IOException {
+        long end = input.position() + length;
+        while (input.position() + 8 <= end) {
+            long start = input.position();
+            long size = input.readU32();
+            String type = input.readType();
+            if (size == 1) {
+                size = input.readU64();
+            } else if (size == 0) {
+                size = end - start;
+            }
+            long bodyEnd = start + size;
+            if (size < 8 || bodyEnd > end) {
+                return;
+            }
+            if (depth < MAX_BOX_DEPTH) {
+                switch (type) {
+                    case "trak", "iprp", "ipco" -> readContainer(input, bodyEnd - input.position(), state, depth + 1);
+                    case "mvhd" -> state.readMvhd(input);
+                    case "tkhd" -> state.readTkhd(input);
+                    case "iinf" -> state.readIinf(input, bodyEnd);
+                    case "iloc" -> state.readIloc(input);
+                    case "ispe" -> state.readIspe(input);
+                    case "irot" -> state.readIrot(input);
+                    default -> {
+                    }
+                }
+            }
+            input.skip(bodyEnd - input.position());
+        }
+    }
+
+    /**
+     * Thông tin gom được khi duyệt cây box.
+     */
+    private static final class BmffState {
+        private Instant takenAt;
+        private Integer width;
+        private Integer height;
+        private Integer orientation;
+        private Integer exifOrientation;
+        private MediaMetadata exifTime = MediaMetadata.EMPTY;
+        private Long exifItemId;
+        private final Map<Long, long[]> itemLocations = new HashMap<>();
+
+        void readMvhd(HeaderInput input) throws IOException {
+            int version = input.readU8();
+            input.skip(3);
+            long created = version == 1 ? input.readU64() : input.readU32();
+            if (created > 0) {
+                takenAt = Instant.ofEpochSecond(created + MP4_EPOCH_OFFSET);
+            }
+        }
+
+        void readTkhd(HeaderInput input) throws IOException {
+            int version = input.readU8();
+            input.skip(3);
+            // creation, modification, track_ID, reserved, duration
+            input.skip(version == 1 ? 8 + 8 + 4 + 4 + 8 : 4 + 4 + 4 + 4 + 4);
+            input.skip(8 + 2 + 2 + 2 + 2); // reserved, layer, alternate_group, volume, reserved
+            int a = (int) input.readU32();
+            int b = (int) input.readU32();
+            input.skip(4 * 7);
+            long trackWidth = input.readU32() >> 16;
+            long trackHeight = input.readU32() >> 16;
+            // Chỉ track hình có kích thước; track âm thanh là 0x0
+            if (trackWidth > 0 && trackHeight > 0 && width == null) {
+                width = (int) trackWidth;
+                height = (int) trackHeight;
+                orientation = orientationFromMatrix(a, b);
+            }
+        }
+
+        void readIinf(HeaderInput input, long end) throws IOException {
+            int version = input.readU8();
+            input.skip(3);
+            long count = version == 0 ? input.readU16() : input.readU32();
+            for (long i = 0; i < count && input.position() + 8 <= end; i++) {
+                long start = input.position();
+                long size = input.readU32();
+                String type = input.readType();
+                if (size < 8 || start + size > end) {
+                    return;
+                }
+                if ("infe".equals(type)) {
+                    int infeVersion = input.readU8();
+                    input.skip(3);
+                    if (infeVersion >= 2) {
+                        long itemId = infeVersion == 2 ? input.readU16() : input.readU32();
+                        input.skip(2); // protection index
+                        if ("Exif".equals(input.readType())) {
+                            exifItemId = itemId;
+                        }
+                    }
+                }
+                input.skip(start + size - input.position());
+            }
+        }
+
+        void readIloc(HeaderInput input) throws IOException {
+            int version = input.readU8();
+            input.skip(3);
+            int sizes = input.readU16();
+            int offsetSize = (sizes >> 12) & 0xF;
+            int lengthSize = (sizes >> 8) & 0xF;
+            int baseOffsetSize = (sizes >> 4) & 0xF;
+            int indexSize = version >= 1 ? sizes & 0xF : 0;
+            long count = version < 2 ? input.readU16() : input.readU32();
+            for (long i = 0; i < count; i++) {
+                long itemId = version < 2 ? input.readU16() : input.readU32();
+                int constructionMethod = version >= 1 ? input.readU16() & 0xF : 0;
+                input.skip(2); // data_reference_index
+                long baseOffset = readSized(input, baseOffsetSize);
+                int extents = input.readU16();
+                long firstOffset = -1;
+                long firstLength = 0;
+                for (int e = 0; e < extents; e++) {
+                    readSized(input, indexSize);
+                    long offset = readSized(input, offsetSize);
+                    long length = readSized(input, lengthSize);
+                    if (e == 0) {
+                        firstOffset = offset;
+                        firstLength = length;
+                    }
+                }
+                // Chỉ hỗ trợ item nằm trong file (construction_method 0), đủ cho Exif của HEIC
+                if (constructionMethod == 0 && firstOffset >= 0) {
+                    itemLocations.put(itemId, new long[] { baseOffset + firstOffset, firstLength });
+                }
+            }
+        }
+
+        void readIspe(HeaderInput input) throws IOException {
+            input.skip(4);
+            int w = (int) input.readU32();
+            int h = (int) input.readU32();
+            // HEIC có ispe cho từng tile và cho ảnh lưới; ảnh chính là cái lớn nhất
+            if (width == null || (long) w * h > (long) width * height) {
+                width = w;
+                height = h;
+            }
+        }
+
+        void readIrot(HeaderInput input) throws IOException {
+            orientation = switch (input.readU8() & 0x3) {
+                case 1 -> 8; // xoay 90° ngược chiều kim đồng hồ
+                case 2 -> 3;
+                case 3 -> 6;
+                default -> 1;
+            };
+        }
+
+        /**
+         * Exif item của HEIC thường nằm ngay đầu mdat, sau box meta; chỉ đọc khi còn phía trước.
+         */
+        void readExifItem(HeaderInput input) throws IOException {
+            long[] location = itemLocations.get(exifItemId);
+            if (location == null || location[1] < 10 || location[1] > MAX_EXIF_SIZE
+                    || location[0] < input.position()) {
+                return;
+            }
+            input.skip(location[0] - input.position());
+            byte[] item = input.readBytes((int) location[1]);
+            int tiffOffset = 4 + (int) (((item[0] & 0xFFL) << 24) | ((item[1] & 0xFF) << 16)
+                    | ((item[2] & 0xFF) << 8) | (item[3] & 0xFF));
+            MediaMetadata exif = ExifParser.parse(item, tiffOffset);
+            exifTime = exif;
+            exifOrientation = exif.orientation();
+        }
+
+        MediaMetadata toMetadata() {
+            // Giờ chụp trong Exif (kể cả chỉ có giờ địa phương) ưu tiên hơn mvhd
+            boolean fromExif = exifTime.hasCaptureTime();
+            return new MediaMetadata(fromExif ? exifTime.takenAt() : takenAt, exifTime.localTakenAt(), width, height,
+                    exifOrientation != null ? exifOrientation : orientation);
+        }
+
+        private static long readSized(HeaderInput input, int size) throws IOException {
+            return switch (size) {
+                case 0 -> 0;
+                case 4 -> input.readU32();
+                case 8 -> input.readU64();
+                default -> throw new IOException("Kích thước trường iloc không hợp lệ: " + size);
+            };
+        }
+
+        private static Integer orientationFromMatrix(int a, int b) {
+            // Ma trận 16.16: [a b; c d], 0x10000 = 1.0
+            if (a == 0 && b == 0x10000) {
+                return 6;
+            }
+            if (a == 0 && b == -0x10000) {
+                return 8;
+            }
+            if (a == -0x10000 && b == 0) {
+                return 3;
+            }
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.domain.media.entity.MediaDeletion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface MediaDeletionRepository extends JpaRepository<MediaDeletion, Long> {
+
+    List<MediaDeletion> findByNextAttemptAtLessThanEqualOrderByIdAsc(Instant now, Pageable pageable);
+}
@@ -0,0 +1,18 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Đếm media cho các chip lọc bằng một câu GROUP BY (type, owner_id),
+ * mỗi nhóm kèm số media có caption, thay cho một câu COUNT mỗi chip.
+ */
+public interface MediaFileFacetRepository {
+
+    record FacetCount(String type, Long ownerId, long count, long captioned) {
+    }
+
+    List<FacetCount> countFacets(Specification<MediaFile> scope);
+}
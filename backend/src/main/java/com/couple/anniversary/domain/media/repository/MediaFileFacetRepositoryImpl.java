@@ -0,0 +1,46 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+class MediaFileFacetRepositoryImpl implements MediaFileFacetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FacetCount> countFacets(Specification<MediaFile> scope) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<MediaFile> media = query.from(MediaFile.class);
+        Path<String> type = media.get("type");
+        Path<Long> ownerId = media.get("owner").get("id");
+        // Caption đếm bằng SUM(CASE ...) trong cùng nhóm, khỏi phải GROUP BY theo biểu thức
+        Expression<Integer> captioned = cb.<Integer>selectCase()
+                .when(MediaFileSpecifications.captioned(cb, media.get("caption")), 1)
+                .otherwise(0);
+
+        query.multiselect(type, ownerId, cb.count(media), cb.sum(captioned))
+                .groupBy(type, ownerId);
+        Predicate filter = scope.toPredicate(media, query, cb);
+        if (filter != null) {
+            query.where(filter);
+        }
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new FacetCount(row.get(0, String.class), row.get(1, Long.class),
+                        ((Number) row.get(2)).longValue(),
+                        row.get(3) != null ? ((Number) row.get(3)).longValue() : 0))
+                .toList();
+    }
+}
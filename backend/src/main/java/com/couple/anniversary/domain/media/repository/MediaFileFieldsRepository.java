@@ -0,0 +1,19 @@
+package com.couple.anniversary.domain.media.repository;
+
+import jakarta.persistence.Tuple;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Đọc media READY của couple nhưng chỉ select các cột được yêu cầu (sparse fieldset),
+ * kết quả là Tuple vô hướng: không tạo entity, không đi qua persistence context.
+ * Mỗi phần tử của Tuple có alias trùng tên thuộc tính entity.
+ */
+public interface MediaFileFieldsRepository {
+
+    // Keyset như findPageAfter: sau vị trí (mediaDate, id), tối đa limit dòng
+    List<Tuple> findFieldsAfter(Long coupleId, String type, Instant mediaDate, long id, int limit,
+            Collection<String> attributes);
+}
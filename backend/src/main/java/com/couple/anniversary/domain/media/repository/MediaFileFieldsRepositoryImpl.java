@@ -0,0 +1,58 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.common.constant.AppConstants;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+class MediaFileFieldsRepositoryImpl implements MediaFileFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findFieldsAfter(Long coupleId, String type, Instant mediaDate, long id, int limit,
+            Collection<String> attributes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<MediaFile> media = query.from(MediaFile.class);
+        List<Predicate> filter = baseFilter(cb, media, coupleId, type);
+        filter.add(cb.lessThanOrEqualTo(media.get("mediaDate"), mediaDate));
+        filter.add(cb.or(cb.lessThan(media.get("mediaDate"), mediaDate), cb.lessThan(media.get("id"), id)));
+        select(cb, query, media, attributes, filter);
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private static List<Predicate> baseFilter(CriteriaBuilder cb, Root<MediaFile> media, Long coupleId,
+            String type) {
+        List<Predicate> filter = new ArrayList<>();
+        filter.add(cb.equal(media.get("coupleId"), coupleId));
+        if (type != null) {
+            filter.add(cb.equal(media.get("type"), type));
+        }
+        filter.add(cb.equal(media.get("status"), AppConstants.MEDIA_STATUS_READY));
+        return filter;
+    }
+
+    private static void select(CriteriaBuilder cb, CriteriaQuery<Tuple> query, Root<MediaFile> media,
+            Collection<String> attributes, List<Predicate> filter) {
+        List<Selection<?>> selections = new ArrayList<>();
+        attributes.forEach(attribute -> selections.add(media.get(attribute).alias(attribute)));
+        query.multiselect(selections)
+                .where(filter.toArray(Predicate[]::new))
+                .orderBy(cb.desc(media.get("mediaDate")), cb.desc(media.get("id")));
+    }
+}
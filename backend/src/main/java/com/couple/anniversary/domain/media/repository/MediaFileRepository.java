@@ -5,15 +5,21 @@ import com.couple.anniversary.domain.user.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface MediaFileRepository extends JpaRepository<MediaFile, Long> {
+public interface MediaFileRepository extends JpaRepository<MediaFile, Long>, JpaSpecificationExecutor<MediaFile>,
+        MediaFileFieldsRepository, MediaFileFacetRepository {
 
     List<MediaFile> findByOwner(User owner);
 
@@ -25,22 +31,103 @@ public interface MediaFileRepository extends JpaRepository<MediaFile, Long> {
 
     Optional<MediaFile> findByIdAndOwner(Long id, User owner);
 
+    Optional<MediaFile> findByIdAndStatus(Long id, String status);
+
+    Optional<MediaFile> findFirstByCoupleIdAndContentHashAndStatus(Long coupleId, String contentHash, String status);
+
+    List<MediaFile> findByStatusAndCreatedAtBefore(String status, Instant createdAt, Pageable pageable);
+
+    List<MediaFile> findByIdInAndStatus(Collection<Long> ids, String status);
+
+    // Key nào trong lô vẫn còn media trỏ tới (storage local dùng chung object theo hash)
+    @Query("SELECT DISTINCT m.fileName FROM MediaFile m WHERE m.fileName IN :fileNames")
+    List<String> findReferencedFileNames(@Param("fileNames") Collection<String> fileNames);
+
+    // Bước 2 của upload: chỉ chuyển PENDING -> READY, trả về 0 nếu bản ghi đã bị sweeper dọn
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaFile m SET m.fileName = :fileName, m.path = :path, m.status = 'READY', " +
+            "m.version = m.version + 1 " +
+            "WHERE m.id = :id AND m.status = 'PENDING'")
+    int markReady(@Param("id") Long id, @Param("fileName") String fileName, @Param("path") String path);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaFile m SET m.placeholder = :placeholder, m.dominantColor = :dominantColor, " +
+            "m.version = m.version + 1 WHERE m.id = :id")
+    int updatePlaceholder(@Param("id") Long id,
+            @Param("placeholder") String placeholder,
+            @Param("dominantColor") String dominantColor);
+
+    // Lượt quét placeholder: ảnh READY chưa có placeholder trong khoảng id (afterId, toId].
+    // Dòng cũ không lưu size thì không đọc theo Range được nên bỏ qua
+    @Query("SELECT m FROM MediaFile m WHERE m.id > :afterId AND m.id <= :toId AND m.type = 'PHOTO' " +
+            "AND m.status = 'READY' AND m.placeholder IS NULL AND m.size IS NOT NULL " +
+            "AND m.createdAt < :createdBefore ORDER BY m.id")
+    List<MediaFile> findMissingPlaceholders(@Param("afterId") long afterId,
+            @Param("toId") long toId,
+            @Param("createdBefore") Instant createdBefore,
+            Pageable limit);
+
+    @Query("SELECT MAX(m.id) FROM MediaFile m")
+    Long findMaxId();
+
     // Pagination support
-    Page<MediaFile> findByCoupleIdOrderByMediaDateDesc(Long coupleId, Pageable pageable);
-
-    Page<MediaFile> findByCoupleIdAndTypeOrderByMediaDateDesc(Long coupleId, String type, Pageable pageable);
-
-    // On this day: find media with same month and day from previous years
-    @Query(value = "SELECT * FROM media_files WHERE couple_id = :coupleId " +
-            "AND MONTH(media_date) = :month AND DAY(media_date) = :day " +
-            "AND YEAR(media_date) < :currentYear " +
-            "ORDER BY media_date DESC", nativeQuery = true)
-    List<MediaFile> findOnThisDay(@Param("coupleId") Long coupleId,
-            @Param("month") int month,
-            @Param("day") int day,
-            @Param("currentYear") int currentYear);
-
-    // group by month/year (native query)
-    @Query(value = "SELECT YEAR(media_date) as year, MONTH(media_date) as month, COUNT(*) as count FROM media_files WHERE couple_id = :coupleId GROUP BY YEAR(media_date), MONTH(media_date) ORDER BY year DESC, month DESC", nativeQuery = true)
-    List<Object[]> countMediaByMonthAndYear(Long coupleId);
+    Page<MediaFile> findByCoupleIdAndStatusOrderByMediaDateDesc(Long coupleId, String status, Pageable pageable);
+
+    Page<MediaFile> findByCoupleIdAndTypeAndStatusOrderByMediaDateDesc(Long coupleId, String type, String status,
+            Pageable pageable);
+
+    // Keyset pagination: seek theo (media_date, id) giảm dần, không OFFSET, không COUNT
+    @Query("SELECT m FROM MediaFile m WHERE m.coupleId = :coupleId AND m.status = 'READY' " +
+            "AND m.mediaDate <= :mediaDate AND (m.mediaDate < :mediaDate OR m.id < :id) " +
+            "ORDER BY m.mediaDate DESC, m.id DESC")
+    List<MediaFile> findPageAfter(@Param("coupleId") Long coupleId,
+            @Param("mediaDate") Instant mediaDate,
+            @Param("id") Long id,
+            Pageable limit);
+
+    @Query("SELECT m FROM MediaFile m WHERE m.coupleId = :coupleId AND m.type = :type AND m.status = 'READY' " +
+            "AND m.mediaDate <= :mediaDate AND (m.mediaDate < :mediaDate OR m.id < :id) " +
+            "ORDER BY m.mediaDate DESC, m.id DESC")
+    List<MediaFile> findPageAfterByType(@Param("coupleId") Long coupleId,
+            @Param("type") String type,
+            @Param("mediaDate") Instant mediaDate,
+            @Param("id") Long id,
+            Pageable limit);
+
+    long countByCoupleIdAndStatus(Long coupleId, String status);
+
+    long countByCoupleIdAndTypeAndStatus(Long coupleId, String type, String status);
+
+    // On this day: cùng tháng/ngày (month_day đã tính theo múi giờ couple), từ các năm trước
+    List<MediaFile> findByCoupleIdAndMonthDayAndStatusAndMediaDateBeforeOrderByMediaDateDesc(Long coupleId,
+            Integer monthDay, String status, Instant before);
+
+    // [id, mediaDate, monthDay]
+    @Query("SELECT m.id, m.mediaDate, m.monthDay FROM MediaFile m WHERE m.coupleId = :coupleId " +
+            "AND m.mediaDate IS NOT NULL")
+    List<Object[]> findIdAndMediaDateByCoupleId(@Param("coupleId") Long coupleId);
+
+    @Modifying
+    @Query("UPDATE MediaFile m SET m.monthDay = :monthDay, m.version = m.version + 1 WHERE m.id IN :ids")
+    int updateMonthDay(@Param("ids") Collection<Long> ids, @Param("monthDay") Integer monthDay);
+
+    List<MediaFile> findByCoupleIdAndStatus(Long coupleId, String status);
+
+    // Dựng chỉ mục tìm kiếm: [id, mediaDate, caption] của media READY
+    @Query("SELECT m.id, m.mediaDate, m.caption FROM MediaFile m WHERE m.coupleId = :coupleId " +
+            "AND m.status = 'READY'")
+    List<Object[]> findSearchFieldsByCoupleId(@Param("coupleId") Long coupleId);
+
+    // Ảnh bìa mới của một kỳ timeline: ảnh READY mới nhất theo (media_date, id) trong [from, to),
+    // trừ các media đang bị gỡ; đọc ngược index (couple_id, type, status, media_date, id), dừng ở dòng đầu
+    @Query("SELECT m FROM MediaFile m WHERE m.coupleId = :coupleId AND m.type = 'PHOTO' " +
+            "AND m.status = 'READY' AND m.mediaDate >= :from AND m.mediaDate < :to AND m.id NOT IN :excluded " +
+            "ORDER BY m.mediaDate DESC, m.id DESC")
+    List<MediaFile> findLatestPhotos(@Param("coupleId") Long coupleId,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            @Param("excluded") Collection<Long> excluded,
+            Pageable limit);
 }
@@ -0,0 +1,61 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.common.constant.AppConstants;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+
+/**
+ * Các điều kiện lọc media ghép được với nhau. Tham số null trả về Specification null,
+ * Specification.and(...) bỏ qua nên không cần if/else ở chỗ gọi.
+ */
+public final class MediaFileSpecifications {
+
+    private MediaFileSpecifications() {
+    }
+
+    public static Specification<MediaFile> readyInCouple(Long coupleId) {
+        return (media, query, cb) -> cb.and(cb.equal(media.get("coupleId"), coupleId),
+                cb.equal(media.get("status"), AppConstants.MEDIA_STATUS_READY));
+    }
+
+    // [from, to): mốc đã quy đổi sang Instant theo múi giờ của couple
+    public static Specification<MediaFile> mediaDateFrom(Instant from) {
+        return from == null ? null : (media, query, cb) -> cb.greaterThanOrEqualTo(media.get("mediaDate"), from);
+    }
+
+    public static Specification<MediaFile> mediaDateBefore(Instant to) {
+        return to == null ? null : (media, query, cb) -> cb.lessThan(media.get("mediaDate"), to);
+    }
+
+    public static Specification<MediaFile> ofType(String type) {
+        return type == null ? null : (media, query, cb) -> cb.equal(media.get("type"), type);
+    }
+
+    public static Specification<MediaFile> ownedBy(Long ownerId) {
+        return ownerId == null ? null : (media, query, cb) -> cb.equal(media.get("owner").get("id"), ownerId);
+    }
+
+    public static Specification<MediaFile> hasCaption(Boolean hasCaption) {
+        if (hasCaption == null) {
+            return null;
+        }
+        return (media, query, cb) -> hasCaption
+                ? captioned(cb, media.get("caption"))
+                : cb.not(captioned(cb, media.get("caption")));
+    }
+
+    // Keyset giống findPageAfter: sau vị trí (mediaDate, id) theo thứ tự mới nhất trước
+    public static Specification<MediaFile> after(Instant mediaDate, long id) {
+        return (media, query, cb) -> cb.and(cb.lessThanOrEqualTo(media.get("mediaDate"), mediaDate),
+                cb.or(cb.lessThan(media.get("mediaDate"), mediaDate), cb.lessThan(media.get("id"), id)));
+    }
+
+    static Predicate captioned(CriteriaBuilder cb, Path<String> caption) {
+        return cb.and(cb.isNotNull(caption), cb.notEqual(caption, ""));
+    }
+}
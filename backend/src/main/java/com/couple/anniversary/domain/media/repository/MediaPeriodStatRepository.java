@@ -0,0 +1,90 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.domain.media.entity.MediaPeriodStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MediaPeriodStatRepository extends JpaRepository<MediaPeriodStat, Long> {
+
+    // Cộng dồn vào kỳ; dòng mới tạo thì ảnh bìa là ảnh của lần cộng này, dòng đã có thì do raiseCover quyết định
+    @Modifying
+    @Query(value = "INSERT INTO media_period_stats (couple_id, period_year, period_month, period_day, media_count, " +
+            "cover_media_id, cover_media_date) VALUES (:coupleId, :year, :month, :day, :count, :coverId, :coverDate) " +
+            "ON DUPLICATE KEY UPDATE media_count = media_count + :count", nativeQuery = true)
+    int upsert(@Param("coupleId") Long coupleId,
+            @Param("year") int year,
+            @Param("month") int month,
+            @Param("day") int day,
+            @Param("count") int count,
+            @Param("coverId") Long coverId,
+            @Param("coverDate") Instant coverDate);
+
+    // Đổi ảnh bìa nếu ảnh mới đứng sau ảnh bìa hiện tại theo (media_date, id). So sánh nằm ở WHERE nên được tính
+    // một lần trên giá trị cũ và quyết định cả hai cột, không phụ thuộc thứ tự gán trong SET
+    @Modifying
+    @Query("UPDATE MediaPeriodStat s SET s.coverMediaId = :coverId, s.coverMediaDate = :coverDate " +
+            "WHERE s.coupleId = :coupleId AND s.year = :year AND s.month = :month AND s.day = :day " +
+            "AND (s.coverMediaId IS NULL OR s.coverMediaDate IS NULL OR s.coverMediaDate < :coverDate " +
+            "OR (s.coverMediaDate = :coverDate AND s.coverMediaId < :coverId))")
+    int raiseCover(@Param("coupleId") Long coupleId,
+            @Param("year") int year,
+            @Param("month") int month,
+            @Param("day") int day,
+            @Param("coverId") Long coverId,
+            @Param("coverDate") Instant coverDate);
+
+    @Modifying
+    @Query("UPDATE MediaPeriodStat s SET s.mediaCount = s.mediaCount - :count WHERE s.coupleId = :coupleId " +
+            "AND s.year = :year AND s.month = :month AND s.day = :day")
+    int decrement(@Param("coupleId") Long coupleId,
+            @Param("year") int year,
+            @Param("month") int month,
+            @Param("day") int day,
+            @Param("count") int count);
+
+    @Query("SELECT s.coverMediaId FROM MediaPeriodStat s WHERE s.coupleId = :coupleId " +
+            "AND s.year = :year AND s.month = :month AND s.day = :day")
+    Optional<Long> findCoverMediaId(@Param("coupleId") Long coupleId,
+            @Param("year") int year,
+            @Param("month") int month,
+            @Param("day") int day);
+
+    @Modifying
+    @Query("UPDATE MediaPeriodStat s SET s.coverMediaId = :coverId, s.coverMediaDate = :coverDate " +
+            "WHERE s.coupleId = :coupleId AND s.year = :year AND s.month = :month AND s.day = :day")
+    int updateCover(@Param("coupleId") Long coupleId,
+            @Param("year") int year,
+            @Param("month") int month,
+            @Param("day") int day,
+            @Param("coverId") Long coverId,
+            @Param("coverDate") Instant coverDate);
+
+    @Modifying
+    @Query("DELETE FROM MediaPeriodStat s WHERE s.coupleId = :coupleId AND s.mediaCount <= 0")
+    int deleteEmpty(@Param("coupleId") Long coupleId);
+
+    @Modifying
+    @Query("DELETE FROM MediaPeriodStat s WHERE s.coupleId = :coupleId")
+    int deleteByCoupleId(@Param("coupleId") Long coupleId);
+
+    // Theo cấp: năm (month = 0), tháng (month > 0, day = 0), ngày (day > 0); mới nhất trước
+    @Query("SELECT s FROM MediaPeriodStat s WHERE s.coupleId = :coupleId AND s.month = 0 " +
+            "ORDER BY s.year DESC")
+    List<MediaPeriodStat> findYears(@Param("coupleId") Long coupleId);
+
+    @Query("SELECT s FROM MediaPeriodStat s WHERE s.coupleId = :coupleId AND s.month > 0 AND s.day = 0 " +
+            "AND (:year IS NULL OR s.year = :year) ORDER BY s.year DESC, s.month DESC")
+    List<MediaPeriodStat> findMonths(@Param("coupleId") Long coupleId, @Param("year") Integer year);
+
+    @Query("SELECT s FROM MediaPeriodStat s WHERE s.coupleId = :coupleId AND s.day > 0 " +
+            "AND (:year IS NULL OR s.year = :year) ORDER BY s.year DESC, s.month DESC, s.day DESC")
+    List<MediaPeriodStat> findDays(@Param("coupleId") Long coupleId, @Param("year") Integer year);
+}
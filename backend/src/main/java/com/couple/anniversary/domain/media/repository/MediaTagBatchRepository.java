@@ -0,0 +1,14 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.domain.media.entity.MediaTag;
+
+import java.util.Collection;
+
+/**
+ * Insert nhiều dòng media_tags bằng một JDBC batch trên connection của transaction hiện tại.
+ * Id là AUTO_INCREMENT nên saveAll của Hibernate phải insert từng dòng để lấy id về.
+ */
+public interface MediaTagBatchRepository {
+
+    void insertAll(Collection<MediaTag> tags);
+}
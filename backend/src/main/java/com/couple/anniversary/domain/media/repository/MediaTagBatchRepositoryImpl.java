@@ -0,0 +1,44 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.domain.media.entity.MediaTag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+
+class MediaTagBatchRepositoryImpl implements MediaTagBatchRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(Collection<MediaTag> tags) {
+        if (tags.isEmpty()) {
+            return;
+        }
+        // Không cần id sinh ra: không ai giữ entity MediaTag sau khi insert
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO media_tags (media_id, couple_id, tag) VALUES (?, ?, ?)")) {
+                int pending = 0;
+                for (MediaTag tag : tags) {
+                    insert.setLong(1, tag.getMediaId());
+                    insert.setLong(2, tag.getCoupleId());
+                    insert.setString(3, tag.getTag());
+                    insert.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    insert.executeBatch();
+                }
+            }
+        });
+    }
+}
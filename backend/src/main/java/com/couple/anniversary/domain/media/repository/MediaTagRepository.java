@@ -0,0 +1,21 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.domain.media.entity.MediaTag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MediaTagRepository extends JpaRepository<MediaTag, Long>, MediaTagBatchRepository {
+
+    List<MediaTag> findByCoupleId(Long coupleId);
+
+    @Modifying
+    @Query("DELETE FROM MediaTag t WHERE t.mediaId IN :mediaIds")
+    int deleteByMediaIdIn(@Param("mediaIds") Collection<Long> mediaIds);
+}
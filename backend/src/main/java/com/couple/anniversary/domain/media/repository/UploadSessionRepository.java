@@ -0,0 +1,19 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.domain.media.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    Optional<UploadSession> findByIdAndCoupleId(String id, Long coupleId);
+
+    Optional<UploadSession> findFirstByCoupleIdAndIdempotencyKey(Long coupleId, String idempotencyKey);
+
+    List<UploadSession> findByStatusAndUpdatedAtBefore(String status, Instant updatedAt);
+}
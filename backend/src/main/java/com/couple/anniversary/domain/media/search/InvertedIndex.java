@@ -0,0 +1,140 @@
+package com.couple.anniversary.domain.media.search;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Chỉ mục đảo ngược của một couple: term -> tập media id.
+ * Term là từ (trong caption hoặc tag) hoặc "#" + cả tag. TreeMap cho phép tra tiền tố bằng một subMap.
+ */
+public final class InvertedIndex {
+
+    public static final String TAG_PREFIX = "#";
+
+    /**
+     * Một điều kiện tìm kiếm: khớp đúng term, hoặc mọi term bắt đầu bằng key khi prefix = true.
+     */
+    public record Term(String key, boolean prefix) {
+    }
+
+    /**
+     * Một media khớp cùng mediaDate dùng để sắp xếp và làm cursor trang sau.
+     */
+    public record Hit(long id, Instant mediaDate) {
+    }
+
+    /**
+     * Một trang kết quả; total là tổng số media khớp, không chỉ trong trang.
+     */
+    public record Hits(List<Hit> hits, int total) {
+
+        public static final Hits EMPTY = new Hits(List.of(), 0);
+    }
+
+    // Mới nhất trước: (mediaDate, id) giảm dần, cùng thứ tự với gallery
+    private static final Comparator<Hit> NEWEST_FIRST = Comparator.comparing(Hit::mediaDate)
+            .thenComparingLong(Hit::id)
+            .reversed();
+
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+    private final Map<Long, Set<String>> termsByMedia = new HashMap<>();
+    private final Map<Long, Instant> mediaDates = new HashMap<>();
+
+    public static Set<String> terms(String caption, Collection<String> tags) {
+        Set<String> terms = new HashSet<>(SearchText.words(caption));
+        for (String tag : tags) {
+            terms.add(TAG_PREFIX + tag);
+            terms.addAll(SearchText.words(tag));
+        }
+        return terms;
+    }
+
+    public synchronized void put(long mediaId, Instant mediaDate, Set<String> terms) {
+        remove(mediaId);
+        if (terms.isEmpty()) {
+            return;
+        }
+        termsByMedia.put(mediaId, Set.copyOf(terms));
+        mediaDates.put(mediaId, mediaDate != null ? mediaDate : Instant.EPOCH);
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> new HashSet<>()).add(mediaId);
+        }
+    }
+
+    public synchronized void remove(long mediaId) {
+        Set<String> terms = termsByMedia.remove(mediaId);
+        mediaDates.remove(mediaId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Set<Long> ids = postings.get(term);
+            if (ids != null && ids.remove(mediaId) && ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * groups là các nhóm OR, mỗi nhóm là AND của các term. Trả tối đa limit media đứng sau
+     * (beforeDate, beforeId) theo thứ tự mới nhất trước, nên trang sau chỉ cần hit cuối của trang trước.
+     */
+    public synchronized Hits search(List<List<Term>> groups, Instant beforeDate, long beforeId, int limit) {
+        Set<Long> matched = new HashSet<>();
+        for (List<Term> group : groups) {
+            Set<Long> groupMatch = null;
+            for (Term term : group) {
+                Set<Long> ids = match(term);
+                if (groupMatch == null) {
+                    groupMatch = new HashSet<>(ids);
+                } else {
+                    groupMatch.retainAll(ids);
+                }
+                if (groupMatch.isEmpty()) {
+                    break;
+                }
+            }
+            if (groupMatch != null) {
+                matched.addAll(groupMatch);
+            }
+        }
+        Hit cursor = new Hit(beforeId, beforeDate);
+        List<Hit> page = matched.stream()
+                .map(id -> new Hit(id, mediaDates.get(id)))
+                .filter(hit -> NEWEST_FIRST.compare(hit, cursor) > 0)
+                .sorted(NEWEST_FIRST)
+                .limit(limit)
+                .toList();
+        return new Hits(page, matched.size());
+    }
+
+    /**
+     * Các term bắt đầu bằng prefix, term gắn với nhiều media hơn đứng trước.
+     */
+    public synchronized List<String> suggest(String prefix, int limit) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<String, Set<Long>> e) -> e.getValue().size()).reversed()
+                        .thenComparing(Map.Entry::getKey))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Set<Long> match(Term term) {
+        if (!term.prefix()) {
+            return postings.getOrDefault(term.key(), Set.of());
+        }
+        Set<Long> ids = new HashSet<>();
+        postings.subMap(term.key(), true, term.key() + Character.MAX_VALUE, false).values().forEach(ids::addAll);
+        return ids;
+    }
+}
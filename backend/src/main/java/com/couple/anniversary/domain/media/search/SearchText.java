@@ -0,0 +1,59 @@
+package com.couple.anniversary.domain.media.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Chuẩn hóa chữ cho tìm kiếm: chữ thường, bỏ dấu tiếng Việt ("Đà Lạt" -> "da lat"),
+ * tách từ theo mọi ký tự không phải chữ/số.
+ */
+public final class SearchText {
+
+    public static final int MAX_TAG_LENGTH = 100;
+    private static final int MAX_WORD_LENGTH = 50;
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private SearchText() {
+    }
+
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD);
+        return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public static Set<String> words(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        for (String word : SEPARATORS.split(fold(text))) {
+            if (!word.isEmpty()) {
+                words.add(word.length() > MAX_WORD_LENGTH ? word.substring(0, MAX_WORD_LENGTH) : word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Tách chuỗi tags "Biển, #đà lạt ,biển" thành các tag đã chuẩn hóa, không trùng: [bien, da lat].
+     */
+    public static List<String> parseTags(String tags) {
+        Set<String> parsed = new LinkedHashSet<>();
+        if (tags != null) {
+            for (String raw : tags.split(",")) {
+                String tag = SPACES.matcher(fold(raw).replace("#", " ")).replaceAll(" ").trim();
+                if (!tag.isEmpty()) {
+                    parsed.add(tag.length() > MAX_TAG_LENGTH ? tag.substring(0, MAX_TAG_LENGTH).trim() : tag);
+                }
+            }
+        }
+        return new ArrayList<>(parsed);
+    }
+}
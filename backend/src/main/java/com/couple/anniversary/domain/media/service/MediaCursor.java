@@ -0,0 +1,39 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Vị trí trong gallery (media_date, id) của phần tử cuối trang trước, mã hóa thành chuỗi mờ cho client.
+ * Client chỉ gửi lại nguyên chuỗi, không tự tạo.
+ */
+record MediaCursor(Instant mediaDate, long id) {
+
+    // Trang đầu: đứng trước mọi media thật
+    static final MediaCursor START = new MediaCursor(Instant.parse("9999-12-31T23:59:59Z"), Long.MAX_VALUE);
+
+    String encode() {
+        String raw = mediaDate.getEpochSecond() + "." + mediaDate.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static MediaCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int dot = raw.indexOf('.');
+            int colon = raw.indexOf(':');
+            long seconds = Long.parseLong(raw.substring(0, dot));
+            int nanos = Integer.parseInt(raw.substring(dot + 1, colon));
+            long id = Long.parseLong(raw.substring(colon + 1));
+            return new MediaCursor(Instant.ofEpochSecond(seconds, nanos), id);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor không hợp lệ!");
+        }
+    }
+}
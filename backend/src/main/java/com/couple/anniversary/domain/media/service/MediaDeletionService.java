@@ -0,0 +1,185 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.domain.media.entity.MediaDeletion;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.couple.anniversary.domain.media.repository.MediaDeletionRepository;
+import com.couple.anniversary.domain.media.repository.MediaFileRepository;
+import com.couple.anniversary.domain.media.storage.MediaBlobCache;
+import com.couple.anniversary.domain.media.storage.StorageProvider;
+import com.couple.anniversary.domain.user.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Xóa object trên storage qua outbox: request chỉ xóa bản ghi và ghi outbox trong cùng transaction,
+ * worker nền gom các key đến hạn và xóa theo lô (Cloudinary: 100 key mỗi lần gọi), lỗi thì lùi thời gian thử lại.
+ */
+@Slf4j
+@Service
+public class MediaDeletionService {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final MediaDeletionRepository mediaDeletionRepository;
+    private final MediaFileRepository mediaFileRepository;
+    private final UserRepository userRepository;
+    private final StorageProvider storageProvider;
+    private final MediaBlobCache blobCache;
+    private final int drainLimit;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+
+    public MediaDeletionService(MediaDeletionRepository mediaDeletionRepository,
+            MediaFileRepository mediaFileRepository,
+            UserRepository userRepository,
+            StorageProvider storageProvider,
+            MediaBlobCache blobCache,
+            @Value("${app.media.deletion.drain-limit:1000}") int drainLimit,
+            @Value("${app.media.deletion.initial-backoff:PT30S}") Duration initialBackoff,
+            @Value("${app.media.deletion.max-backoff:PT6H}") Duration maxBackoff) {
+        this.mediaDeletionRepository = mediaDeletionRepository;
+        this.mediaFileRepository = mediaFileRepository;
+        this.userRepository = userRepository;
+        this.storageProvider = storageProvider;
+        this.blobCache = blobCache;
+        this.drainLimit = drainLimit;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    /**
+     * Ghi outbox cho các media vừa xóa. Phải gọi trong transaction đang xóa bản ghi.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(Collection<MediaFile> mediaFiles) {
+        Instant now = Instant.now();
+        List<MediaDeletion> deletions = mediaFiles.stream()
+                .map(mediaFile -> MediaDeletion.builder()
+                        .storageKey(mediaFile.getFileName())
+                        .mediaType(mediaFile.getType())
+                        .createdAt(now)
+                        .nextAttemptAt(now)
+                        .build())
+                .toList();
+        mediaDeletionRepository.saveAll(deletions);
+    }
+
+    /**
+     * Mỗi lượt lấy các bản ghi outbox đến hạn, chia theo loại media rồi theo lô tối đa của provider.
+     * Không chạy trong transaction: mỗi lô xóa xong mới cập nhật outbox, không giữ connection trong lúc gọi mạng.
+     */
+    @Scheduled(fixedDelayString = "${app.media.deletion.drain-interval:PT10S}")
+    public void drain() {
+        List<MediaDeletion> due = mediaDeletionRepository
+                .findByNextAttemptAtLessThanEqualOrderByIdAsc(Instant.now(), PageRequest.of(0, drainLimit));
+        if (due.isEmpty()) {
+            return;
+        }
+        // Kiểm tra tham chiếu và xóa trong cùng một khóa với store: upload trùng nội dung không lọt vào giữa
+        storageProvider.runExclusive(() -> purgeUnreferenced(due));
+    }
+
+    private void purgeUnreferenced(List<MediaDeletion> due) {
+        // Storage local dùng chung object theo hash: key còn media khác (hay avatar) trỏ tới thì chỉ bỏ outbox
+        Set<String> referenced = referencedKeys(due.stream().map(MediaDeletion::getStorageKey)
+                .collect(Collectors.toSet()));
+        List<MediaDeletion> stillReferenced = new ArrayList<>();
+        List<MediaDeletion> toPurge = new ArrayList<>();
+        for (MediaDeletion deletion : due) {
+            if (referenced.contains(deletion.getStorageKey())) {
+                stillReferenced.add(deletion);
+            } else {
+                toPurge.add(deletion);
+            }
+        }
+        mediaDeletionRepository.deleteAllInBatch(stillReferenced);
+
+        Map<String, List<MediaDeletion>> byType = toPurge.stream()
+                .collect(Collectors.groupingBy(MediaDeletion::getMediaType));
+        int batchSize = storageProvider.maxDeleteBatchSize();
+        int purged = 0;
+        for (Map.Entry<String, List<MediaDeletion>> entry : byType.entrySet()) {
+            List<MediaDeletion> deletions = entry.getValue();
+            for (int from = 0; from < deletions.size(); from += batchSize) {
+                List<MediaDeletion> batch = deletions.subList(from, Math.min(from + batchSize, deletions.size()));
+                if (purgeBatch(entry.getKey(), batch)) {
+                    purged += batch.size();
+                }
+            }
+        }
+        if (!toPurge.isEmpty()) {
+            log.info("Đã xóa {}/{} object trên storage từ outbox", purged, toPurge.size());
+        }
+    }
+
+    private Set<String> referencedKeys(Set<String> keys) {
+        Set<String> referenced = new HashSet<>(mediaFileRepository.findReferencedFileNames(keys));
+        // Avatar lưu URL chứ không lưu key
+        Map<String, String> keyByUrl = new HashMap<>();
+        for (String key : keys) {
+            String url = storageProvider.urlOf(key);
+            if (url != null) {
+                keyByUrl.put(url, key);
+            }
+        }
+        if (!keyByUrl.isEmpty()) {
+            userRepository.findAvatarUrlsIn(keyByUrl.keySet()).forEach(url -> referenced.add(keyByUrl.get(url)));
+        }
+        return referenced;
+    }
+
+    private boolean purgeBatch(String mediaType, List<MediaDeletion> batch) {
+        List<String> keys = batch.stream().map(MediaDeletion::getStorageKey).distinct().toList();
+        try {
+            storageProvider.deleteAll(keys, mediaType);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Lỗi khi xóa {} object trên storage, sẽ thử lại: {}", keys.size(), e.getMessage());
+            scheduleRetry(batch, e);
+            return false;
+        }
+        keys.forEach(blobCache::evict);
+        mediaDeletionRepository.deleteAllInBatch(batch);
+        return true;
+    }
+
+    private void scheduleRetry(List<MediaDeletion> batch, Exception error) {
+        Instant now = Instant.now();
+        String message = String.valueOf(error.getMessage());
+        if (message.length() > MAX_ERROR_LENGTH) {
+            message = message.substring(0, MAX_ERROR_LENGTH);
+        }
+        for (MediaDeletion deletion : batch) {
+            int attempts = deletion.getAttempts() + 1;
+            deletion.setAttempts(attempts);
+            deletion.setNextAttemptAt(now.plus(backoff(attempts)));
+            deletion.setLastError(message);
+        }
+        mediaDeletionRepository.saveAll(batch);
+    }
+
+    /**
+     * Lùi theo cấp số nhân: initial, 2x, 4x... tối đa maxBackoff.
+     */
+    private Duration backoff(int attempts) {
+        int shift = Math.min(attempts - 1, 20);
+        Duration delay = initialBackoff.multipliedBy(1L << shift);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -0,0 +1,89 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.exception.BadRequestException;
+import jakarta.persistence.Tuple;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tham số fields= của các endpoint danh sách media, ví dụ fields=id,downloadUrl,type,mediaDate.
+ * Tên trường theo MediaFileResponse; chỉ các cột tương ứng được select và serialize.
+ */
+final class MediaFields {
+
+    // Tên trường trong response -> thuộc tính entity MediaFile
+    private static final Map<String, String> ATTRIBUTES = new LinkedHashMap<>();
+
+    static {
+        ATTRIBUTES.put("id", "id");
+        ATTRIBUTES.put("fileName", "fileName");
+        ATTRIBUTES.put("originalName", "originalName");
+        ATTRIBUTES.put("contentType", "contentType");
+        ATTRIBUTES.put("size", "size");
+        ATTRIBUTES.put("type", "type");
+        ATTRIBUTES.put("createdAt", "createdAt");
+        ATTRIBUTES.put("downloadUrl", "path");
+        ATTRIBUTES.put("caption", "caption");
+        ATTRIBUTES.put("tags", "tags");
+        ATTRIBUTES.put("mediaDate", "mediaDate");
+        ATTRIBUTES.put("contentHash", "contentHash");
+        ATTRIBUTES.put("placeholder", "placeholder");
+        ATTRIBUTES.put("dominantColor", "dominantColor");
+        ATTRIBUTES.put("width", "width");
+        ATTRIBUTES.put("height", "height");
+        ATTRIBUTES.put("orientation", "orientation");
+    }
+
+    private final Set<String> fields;
+
+    private MediaFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * null khi client không truyền fields (trả đầy đủ như cũ).
+     */
+    static MediaFields parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> requested = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!ATTRIBUTES.containsKey(name)) {
+                throw new BadRequestException("Trường không hợp lệ: " + name);
+            }
+            requested.add(name);
+        }
+        if (requested.isEmpty()) {
+            return null;
+        }
+        return new MediaFields(requested);
+    }
+
+    /**
+     * Thuộc tính cần select; luôn có id và mediaDate để dựng cursor trang sau.
+     */
+    List<String> attributes() {
+        Set<String> attributes = new LinkedHashSet<>();
+        fields.forEach(field -> attributes.add(ATTRIBUTES.get(field)));
+        attributes.add("id");
+        attributes.add("mediaDate");
+        return List.copyOf(attributes);
+    }
+
+    Map<String, Object> toMap(Tuple row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : fields) {
+            values.put(field, row.get(ATTRIBUTES.get(field)));
+        }
+        return values;
+    }
+}
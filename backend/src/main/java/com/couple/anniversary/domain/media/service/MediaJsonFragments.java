@@ -0,0 +1,66 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.domain.media.dto.MediaFileResponse;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+
+/**
+ * Cache JSON đã serialize của từng MediaFileResponse, key là (id, row_version).
+ * Trang gallery được ghép từ các fragment này (RawValue) vào ApiResponse, nên media không đổi
+ * không phải map qua toResponse và chạy Jackson lại ở mỗi request. Sửa bản ghi làm tăng row_version,
+ * fragment cũ không còn được tra tới và tự bị loại theo LRU.
+ */
+@Component
+public class MediaJsonFragments {
+
+    private record Key(long id, long version) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Cache<Key, JsonFragment> cache;
+
+    public MediaJsonFragments(ObjectMapper objectMapper,
+            @Value("${app.media.json-fragment-cache.max-size:32MB}") DataSize maxSize,
+            MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, JsonFragment fragment) -> fragment.length())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "media.json.fragments");
+    }
+
+    /**
+     * JSON của media dưới dạng giá trị thô, Jackson ghi nguyên byte khi serialize response JSON.
+     * Chỉ dùng cho response JSON: CBOR / Smile phải đọc lại fragment mới ghi được, chậm hơn serialize object.
+     */
+    public RawValue fragment(MediaFile mediaFile, Function<MediaFile, MediaFileResponse> mapper) {
+        JsonFragment fragment = mediaFile.getVersion() == null
+                ? serialize(mapper.apply(mediaFile))
+                : cache.get(new Key(mediaFile.getId(), mediaFile.getVersion()),
+                        key -> serialize(mapper.apply(mediaFile)));
+        return new RawValue((JsonSerializable) fragment);
+    }
+
+    private JsonFragment serialize(MediaFileResponse response) {
+        try {
+            return new JsonFragment(objectMapper.writeValueAsBytes(response));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
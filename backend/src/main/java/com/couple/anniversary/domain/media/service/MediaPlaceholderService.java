@@ -0,0 +1,134 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.constant.AppConstants;
+import com.couple.anniversary.domain.couple.service.CoupleVersionService;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.couple.anniversary.domain.media.image.ImagePlaceholders;
+import com.couple.anniversary.domain.media.repository.MediaFileRepository;
+import com.couple.anniversary.domain.media.storage.StorageProvider;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Tính placeholder cho ảnh mới upload trên pool riêng, sau khi transaction lưu ảnh đã commit.
+ * Response upload không phải chờ; gallery nhận placeholder ở lần load sau.
+ * Task bị pool từ chối (hàng đợi đầy) hoặc lỗi tạm thời được lượt quét định kỳ tính lại.
+ */
+@Slf4j
+@Service
+public class MediaPlaceholderService {
+
+    private final MediaFileRepository mediaFileRepository;
+    private final StorageProvider storageProvider;
+    private final OnThisDayService onThisDayService;
+    private final CoupleVersionService coupleVersionService;
+    private final Executor mediaImageExecutor;
+
+    // Mỗi lượt quét xét một khoảng id cố định nên số dòng đọc được giới hạn, bảng lớn cũng vậy
+    private static final long SWEEP_ID_WINDOW = 10_000;
+    private static final int SWEEP_BATCH_SIZE = 100;
+    // Ảnh mới hơn mức này có thể vẫn đang chờ trong hàng đợi
+    private static final Duration SWEEP_MIN_AGE = Duration.ofMinutes(10);
+
+    // Ảnh ImageIO không đọc được (HEIC...): nhớ lại để lượt quét không tải lại mỗi vòng
+    private final Cache<Long, Boolean> undecodable = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+
+    // Chỉ thread scheduler đọc/ghi
+    private long sweepAfterId;
+
+    public MediaPlaceholderService(MediaFileRepository mediaFileRepository,
+            StorageProvider storageProvider,
+            OnThisDayService onThisDayService,
+            CoupleVersionService coupleVersionService,
+            @Qualifier("mediaImageExecutor") Executor mediaImageExecutor) {
+        this.mediaFileRepository = mediaFileRepository;
+        this.storageProvider = storageProvider;
+        this.onThisDayService = onThisDayService;
+        this.coupleVersionService = coupleVersionService;
+        this.mediaImageExecutor = mediaImageExecutor;
+    }
+
+    /**
+     * Xếp ảnh vào hàng đợi tính placeholder. Nếu đang trong transaction thì chờ commit
+     * để worker chắc chắn thấy bản ghi.
+     */
+    public void schedule(MediaFile mediaFile) {
+        if (!AppConstants.MEDIA_TYPE_PHOTO.equals(mediaFile.getType()) || mediaFile.getPlaceholder() != null
+                || mediaFile.getSize() == null) {
+            return;
+        }
+        Long id = mediaFile.getId();
+        Long coupleId = mediaFile.getCoupleId();
+        String key = mediaFile.getFileName();
+        String url = mediaFile.getPath();
+        long size = mediaFile.getSize();
+        Integer orientation = mediaFile.getOrientation();
+
+        Runnable task = () -> mediaImageExecutor.execute(() -> compute(id, coupleId, key, url, size, orientation));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * Tìm ảnh READY chưa có placeholder và xếp lại vào hàng đợi: bù cho task bị bỏ khi pool đầy,
+     * lỗi storage tạm thời, và ảnh upload trước khi có placeholder. Mỗi lượt xét SWEEP_ID_WINDOW id
+     * kể từ con trỏ, hết bảng thì quay về đầu.
+     */
+    @Scheduled(fixedDelayString = "${app.media.image.placeholder-sweep-interval:PT1M}")
+    public void sweepMissingPlaceholders() {
+        long toId = sweepAfterId + SWEEP_ID_WINDOW;
+        List<MediaFile> missing = mediaFileRepository.findMissingPlaceholders(sweepAfterId, toId,
+                Instant.now().minus(SWEEP_MIN_AGE), PageRequest.of(0, SWEEP_BATCH_SIZE));
+        missing.stream()
+                .filter(mediaFile -> undecodable.getIfPresent(mediaFile.getId()) == null)
+                .forEach(this::schedule);
+        if (missing.size() == SWEEP_BATCH_SIZE) {
+            sweepAfterId = missing.get(missing.size() - 1).getId();
+        } else {
+            Long maxId = mediaFileRepository.findMaxId();
+            sweepAfterId = maxId == null || toId >= maxId ? 0 : toId;
+        }
+    }
+
+    private void compute(Long id, Long coupleId, String key, String url, long size, Integer orientation) {
+        try (InputStream in = storageProvider.open(key, url, 0, size)) {
+            ImagePlaceholders.compute(in, orientation).ifPresentOrElse(
+                    placeholder -> {
+                        mediaFileRepository.updatePlaceholder(id, placeholder.blurHash(),
+                                placeholder.dominantColor());
+                        // Ảnh cũ (EXIF đúng ngày này) có thể đã nằm trong "ngày này năm xưa" hôm nay
+                        onThisDayService.invalidateIfContains(coupleId, id);
+                        coupleVersionService.bump(coupleId);
+                    },
+                    () -> {
+                        undecodable.put(id, Boolean.TRUE);
+                        log.debug("Không giải mã được ảnh {}, bỏ qua placeholder", key);
+                    });
+        } catch (Exception e) {
+            log.warn("Lỗi khi tính placeholder cho media {}: {}", id, e.getMessage());
+        }
+    }
+}
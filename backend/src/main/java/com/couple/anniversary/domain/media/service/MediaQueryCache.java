@@ -0,0 +1,61 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.domain.couple.service.CoupleVersionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache kết quả các truy vấn đọc của album (gallery, timeline), giới hạn số entry và TTL.
+ * Hai người cùng mở album một lúc chỉ tốn một lần query: Caffeine cho các lần miss cùng key chờ chung một lần nạp.
+ * Key gồm phiên bản dữ liệu của couple, nên mọi thay đổi đã commit đều làm các entry cũ không còn được dùng;
+ * invalidate() chỉ để trả lại bộ nhớ sớm. Số liệu hit/miss/thời gian nạp ở metric cache.* với tag cache=media.query.
+ */
+@Component
+public class MediaQueryCache {
+
+    private record Key(Long coupleId, long version, String query, List<Object> args) {
+    }
+
+    private final CoupleVersionService coupleVersionService;
+    private final Cache<Key, Object> cache;
+
+    public MediaQueryCache(CoupleVersionService coupleVersionService,
+            @Value("${app.media.query-cache.max-size:2000}") long maxSize,
+            @Value("${app.media.query-cache.ttl:PT10M}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.coupleVersionService = coupleVersionService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "media.query");
+    }
+
+    /**
+     * Kết quả của query với các tham số cho trước; loader chạy trên thread gọi, trong transaction của nó.
+     * Loader phải đọc thẳng từ DB: nếu nó lấy từ một cache khác không theo phiên bản này,
+     * entry có thể lưu dữ liệu cũ dưới phiên bản mới.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Long coupleId, String query, Supplier<T> loader, Object... args) {
+        // Lấy phiên bản trước khi nạp: thay đổi commit giữa chừng chỉ làm entry này bị bỏ qua ở lần đọc sau
+        Key key = new Key(coupleId, coupleVersionService.current(coupleId), query, Arrays.asList(args));
+        return (T) cache.get(key, k -> loader.get());
+    }
+
+    public void invalidate(Long coupleId) {
+        if (coupleId != null) {
+            cache.asMap().keySet().removeIf(key -> key.coupleId().equals(coupleId));
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.exception.BadRequestException;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.couple.anniversary.domain.media.entity.MediaTag;
+import com.couple.anniversary.domain.media.repository.MediaFileRepository;
+import com.couple.anniversary.domain.media.repository.MediaTagRepository;
+import com.couple.anniversary.domain.media.search.InvertedIndex;
+import com.couple.anniversary.domain.media.search.SearchText;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Tìm media theo caption và tag bằng chỉ mục đảo ngược trong bộ nhớ, mỗi couple một chỉ mục,
+ * dựng lần đầu từ media_files + media_tags rồi được cập nhật sau mỗi lần sửa / xóa đã commit.
+ * Cú pháp: các từ cách nhau bằng khoảng trắng là AND, "OR" tách các nhóm, "#tag" chỉ khớp cả tag;
+ * từ cuối (đang gõ dở) được khớp theo tiền tố.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class MediaSearchService {
+
+    private static final int MAX_QUERY_LENGTH = 200;
+    private static final int MAX_TERMS = 10;
+    private static final String OR = "OR";
+
+    private final MediaFileRepository mediaFileRepository;
+    private final MediaTagRepository mediaTagRepository;
+    private final Map<Long, InvertedIndex> indexes = new ConcurrentHashMap<>();
+    // Chỉ mục đang dựng: thay đổi commit trong lúc đọc DB được ghi lại rồi áp lên trước khi đưa chỉ mục vào dùng.
+    // indexes (khi thêm) và pending chỉ đổi dưới lock, nên mỗi thay đổi hoặc vào chỉ mục, hoặc vào log
+    private final Map<Long, PendingBuild> pending = new HashMap<>();
+    private final Object lock = new Object();
+
+    // Các request cùng dựng chỉ mục cho một couple dùng chung một log
+    private static final class PendingBuild {
+        int builders;
+        final List<Consumer<InvertedIndex>> changes = new ArrayList<>();
+    }
+
+    public MediaSearchService(MediaFileRepository mediaFileRepository, MediaTagRepository mediaTagRepository) {
+        this.mediaFileRepository = mediaFileRepository;
+        this.mediaTagRepository = mediaTagRepository;
+    }
+
+    /**
+     * Các media khớp, mới nhất trước, bắt đầu ngay sau (beforeDate, beforeId).
+     */
+    public InvertedIndex.Hits search(Long coupleId, String query, Instant beforeDate, long beforeId, int limit) {
+        List<List<InvertedIndex.Term>> groups = parse(query);
+        if (groups.isEmpty()) {
+            return InvertedIndex.Hits.EMPTY;
+        }
+        return indexOf(coupleId).search(groups, beforeDate, beforeId, limit);
+    }
+
+    /**
+     * Gợi ý term cho ô tìm kiếm; "#" ở đầu để chỉ gợi ý tag.
+     */
+    public List<String> suggest(Long coupleId, String prefix, int limit) {
+        if (prefix == null || prefix.isBlank()) {
+            return List.of();
+        }
+        String trimmed = prefix.trim();
+        String key = trimmed.startsWith(InvertedIndex.TAG_PREFIX)
+                ? InvertedIndex.TAG_PREFIX + SearchText.fold(trimmed.substring(1))
+                : SearchText.fold(trimmed);
+        return indexOf(coupleId).suggest(key, limit);
+    }
+
+    /**
+     * Tags của media vừa đổi: ghi lại media_tags trong transaction hiện tại, chỉ mục cập nhật sau khi commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTagsChanged(MediaFile mediaFile) {
+        onTagsChanged(List.of(mediaFile));
+    }
+
+    /**
+     * Như trên cho cả lô: một câu DELETE, các dòng tag mới được insert chung JDBC batch.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onTagsChanged(Collection<MediaFile> mediaFiles) {
+        if (mediaFiles.isEmpty()) {
+            return;
+        }
+        mediaTagRepository.deleteByMediaIdIn(mediaFiles.stream().map(MediaFile::getId).toList());
+        mediaTagRepository.insertAll(mediaFiles.stream()
+                .flatMap(mediaFile -> SearchText.parseTags(mediaFile.getTags()).stream()
+                        .map(tag -> MediaTag.builder()
+                                .mediaId(mediaFile.getId())
+                                .coupleId(mediaFile.getCoupleId())
+                                .tag(tag)
+                                .build()))
+                .toList());
+        mediaFiles.forEach(this::onMediaChanged);
+    }
+
+    /**
+     * Caption / ngày của media vừa đổi.
+     */
+    public void onMediaChanged(MediaFile mediaFile) {
+        long id = mediaFile.getId();
+        Long coupleId = mediaFile.getCoupleId();
+        Instant mediaDate = mediaFile.getMediaDate();
+        Set<String> terms = InvertedIndex.terms(mediaFile.getCaption(), SearchText.parseTags(mediaFile.getTags()));
+        afterCommit(() -> apply(coupleId, index -> index.put(id, mediaDate, terms)));
+    }
+
+    /**
+     * Media đã xóa (media_tags đi theo nhờ ON DELETE CASCADE).
+     */
+    public void onMediaRemoved(Long coupleId, Collection<Long> mediaIds) {
+        List<Long> ids = List.copyOf(mediaIds);
+        afterCommit(() -> apply(coupleId, index -> ids.forEach(index::remove)));
+    }
+
+    /**
+     * Áp thay đổi đã commit: vào chỉ mục nếu đã có, vào log nếu đang dựng, bỏ qua nếu chưa ai dựng
+     * (lần dựng sau đọc từ DB đã có thay đổi này). put/remove ghi đè nên áp lại lần nữa cũng không sao.
+     */
+    private void apply(Long coupleId, Consumer<InvertedIndex> change) {
+        if (coupleId == null) {
+            return;
+        }
+        synchronized (lock) {
+            InvertedIndex index = indexes.get(coupleId);
+            if (index != null) {
+                change.accept(index);
+                return;
+            }
+            PendingBuild build = pending.get(coupleId);
+            if (build != null) {
+                build.changes.add(change);
+            }
+        }
+    }
+
+    private InvertedIndex indexOf(Long coupleId) {
+        InvertedIndex index = indexes.get(coupleId);
+        if (index != null) {
+            return index;
+        }
+        // Đăng ký log trước khi đọc DB: thay đổi commit sau thời điểm này chắc chắn được ghi lại
+        PendingBuild build;
+        synchronized (lock) {
+            index = indexes.get(coupleId);
+            if (index != null) {
+                return index;
+            }
+            build = pending.computeIfAbsent(coupleId, id -> new PendingBuild());
+            build.builders++;
+        }
+        InvertedIndex built;
+        try {
+            built = build(coupleId);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                if (--build.builders == 0) {
+                    pending.remove(coupleId, build);
+                }
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            InvertedIndex existing = indexes.get(coupleId);
+            if (existing != null) {
+                return existing;
+            }
+            build.changes.forEach(change -> change.accept(built));
+            pending.remove(coupleId, build);
+            indexes.put(coupleId, built);
+            return built;
+        }
+    }
+
+    private InvertedIndex build(Long coupleId) {
+        long started = System.nanoTime();
+        Map<Long, List<String>> tagsByMedia = mediaTagRepository.findByCoupleId(coupleId).stream()
+                .collect(Collectors.groupingBy(MediaTag::getMediaId,
+                        Collectors.mapping(MediaTag::getTag, Collectors.toList())));
+        InvertedIndex index = new InvertedIndex();
+        int indexed = 0;
+        for (Object[] row : mediaFileRepository.findSearchFieldsByCoupleId(coupleId)) {
+            Long id = (Long) row[0];
+            Set<String> terms = InvertedIndex.terms((String) row[2], tagsByMedia.getOrDefault(id, List.of()));
+            if (!terms.isEmpty()) {
+                index.put(id, (Instant) row[1], terms);
+                indexed++;
+            }
+        }
+        log.info("Đã dựng chỉ mục tìm kiếm cho couple {}: {} media, {} ms", coupleId, indexed,
+                (System.nanoTime() - started) / 1_000_000);
+        return index;
+    }
+
+    private static List<List<InvertedIndex.Term>> parse(String query) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        if (query.length() > MAX_QUERY_LENGTH) {
+            throw new BadRequestException("Từ khóa dài quá rồi bé ơi!");
+        }
+        // Còn đang gõ từ cuối nếu query không kết thúc bằng khoảng trắng
+        boolean typing = !Character.isWhitespace(query.charAt(query.length() - 1));
+        String[] tokens = query.trim().split("\\s+");
+
+        List<List<InvertedIndex.Term>> groups = new ArrayList<>();
+        List<InvertedIndex.Term> group = new ArrayList<>();
+        int termCount = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (token.equals(OR)) {
+                if (!group.isEmpty()) {
+                    groups.add(group);
+                    group = new ArrayList<>();
+                }
+                continue;
+            }
+            boolean prefix = typing && i == tokens.length - 1;
+            if (token.startsWith(InvertedIndex.TAG_PREFIX)) {
+                for (String tag : SearchText.parseTags(token.substring(1))) {
+                    group.add(new InvertedIndex.Term(InvertedIndex.TAG_PREFIX + tag, prefix));
+                    termCount++;
+                }
+            } else {
+                List<String> words = new ArrayList<>(SearchText.words(token));
+                for (int w = 0; w < words.size(); w++) {
+                    group.add(new InvertedIndex.Term(words.get(w), prefix && w == words.size() - 1));
+                    termCount++;
+                }
+            }
+        }
+        if (!group.isEmpty()) {
+            groups.add(group);
+        }
+        if (termCount > MAX_TERMS) {
+            throw new BadRequestException("Tối đa " + MAX_TERMS + " từ khóa thôi nhé!");
+        }
+        return groups;
+    }
+
+    private static void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+}
@@ -1,132 +1,612 @@
 package com.couple.anniversary.domain.media.service;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
 import com.couple.anniversary.common.constant.AppConstants;
 import com.couple.anniversary.common.exception.BadRequestException;
 import com.couple.anniversary.common.exception.ForbiddenException;
 import com.couple.anniversary.common.exception.ResourceNotFoundException;
+import com.couple.anniversary.domain.couple.service.CoupleVersionService;
+import com.couple.anniversary.domain.media.dto.BatchUploadItemResult;
+import com.couple.anniversary.domain.media.dto.BatchUploadResponse;
+import com.couple.anniversary.domain.media.dto.BulkUpdateMediaRequest;
+import com.couple.anniversary.domain.media.dto.MediaCursorPageResponse;
 import com.couple.anniversary.domain.media.dto.MediaFileResponse;
+import com.couple.anniversary.domain.media.dto.MediaFacetsResponse;
+import com.couple.anniversary.domain.media.dto.MediaPeriodStatResponse;
+import com.couple.anniversary.domain.media.dto.MediaQueryRequest;
+import com.couple.anniversary.domain.media.dto.MediaQueryResponse;
+import com.couple.anniversary.domain.media.dto.MediaSearchResponse;
+import com.couple.anniversary.domain.media.dto.UpdateMediaRequest;
 import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.couple.anniversary.domain.media.metadata.MediaMetadata;
+import com.couple.anniversary.domain.media.metadata.MediaMetadataReader;
+import com.couple.anniversary.domain.media.repository.MediaFileFacetRepository;
 import com.couple.anniversary.domain.media.repository.MediaFileRepository;
+import com.couple.anniversary.domain.media.search.InvertedIndex;
+import com.couple.anniversary.domain.media.repository.MediaFileSpecifications;
+import com.couple.anniversary.domain.media.storage.MediaBlobCache;
+import com.couple.anniversary.domain.media.storage.StorageProvider;
+import com.couple.anniversary.domain.media.storage.StorageRequest;
+import com.couple.anniversary.domain.media.storage.StoredObject;
+import com.couple.anniversary.domain.media.storage.UploadProgressListener;
 import com.couple.anniversary.domain.user.entity.User;
-import lombok.RequiredArgsConstructor;
+import jakarta.persistence.Tuple;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class MediaService {
 
+    private static final String MEDIA_FOLDER = "anniversary/media";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+    private static final int DOWNLOAD_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern SHA256_HEX = Pattern.compile("^[0-9a-fA-F]{64}$");
+    private static final String PENDING_KEY_PREFIX = "pending/";
+    private static final int SWEEP_BATCH_SIZE = 500;
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    // Số dòng mỗi câu query khi duyệt cả album cho list/NDJSON
+    private static final int LIST_CHUNK_SIZE = 500;
+    private static final int DEFAULT_QUERY_PAGE_SIZE = 30;
+    private static final Sort GALLERY_ORDER = Sort.by(Sort.Order.desc("mediaDate"), Sort.Order.desc("id"));
+    private static final int MAX_SEARCH_RESULTS = 200;
+    private static final int MAX_SUGGESTIONS = 20;
+
     private final MediaFileRepository mediaFileRepository;
-    private final Cloudinary cloudinary;
+    private final StorageProvider storageProvider;
+    private final MediaBlobCache blobCache;
+    private final MediaPlaceholderService placeholderService;
+    private final MediaDeletionService mediaDeletionService;
+    private final OnThisDayService onThisDayService;
+    private final MediaTimelineService timelineService;
+    private final MediaSearchService searchService;
+    private final CoupleVersionService coupleVersionService;
+    private final MediaQueryCache queryCache;
+    private final MediaJsonFragments jsonFragments;
+    private final Executor mediaBatchExecutor;
+    private final int batchConcurrency;
+    private final int batchMaxFiles;
+    private final Duration pendingTtl;
+    private final TransactionTemplate transactionTemplate;
+
+    // Kết quả áp một lần sửa lên entity; before là vị trí cũ trên timeline, null nếu ngày không đổi
+    private record MediaEdit(MediaFile mediaFile, boolean captionChanged, boolean tagsChanged, MediaFile before) {
+
+        boolean dateChanged() {
+            return before != null;
+        }
+    }
+
+    public MediaService(MediaFileRepository mediaFileRepository,
+            StorageProvider storageProvider,
+            MediaBlobCache blobCache,
+            MediaPlaceholderService placeholderService,
+            MediaDeletionService mediaDeletionService,
+            OnThisDayService onThisDayService,
+            MediaTimelineService timelineService,
+            MediaSearchService searchService,
+            CoupleVersionService coupleVersionService,
+            MediaQueryCache queryCache,
+            MediaJsonFragments jsonFragments,
+            @Qualifier("mediaBatchExecutor") Executor mediaBatchExecutor,
+            @Value("${app.media.upload.batch-concurrency:6}") int batchConcurrency,
+            @Value("${app.media.upload.batch-max-files:50}") int batchMaxFiles,
+            @Value("${app.media.upload.pending-ttl:PT6H}") Duration pendingTtl,
+            PlatformTransactionManager transactionManager) {
+        this.mediaFileRepository = mediaFileRepository;
+        this.storageProvider = storageProvider;
+        this.blobCache = blobCache;
+        this.placeholderService = placeholderService;
+        this.mediaDeletionService = mediaDeletionService;
+        this.onThisDayService = onThisDayService;
+        this.timelineService = timelineService;
+        this.searchService = searchService;
+        this.coupleVersionService = coupleVersionService;
+        this.queryCache = queryCache;
+        this.jsonFragments = jsonFragments;
+        this.mediaBatchExecutor = mediaBatchExecutor;
+        this.batchConcurrency = batchConcurrency;
+        this.batchMaxFiles = batchMaxFiles;
+        this.pendingTtl = pendingTtl;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
 
     /**
      * Tải file lên Cloudinary và lưu thông tin vào Database
      * Media sẽ được lưu theo coupleId để cả 2 người trong couple cùng xem được
      */
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public MediaFileResponse uploadFile(MultipartFile file, User owner) {
         validateFile(file);
+        requireCouple(owner);
 
-        if (owner.getCoupleId() == null) {
-            throw new BadRequestException("Bạn cần ghép đôi trước khi upload media!");
+        try {
+            return storeAndSave(file, file.getOriginalFilename(), file.getContentType(), file.getSize(), owner, null);
+        } catch (IOException e) {
+            log.error("Lỗi upload Cloudinary: ", e);
+            throw new RuntimeException("Hệ thống không tải file lên được!");
+        }
+    }
+
+    /**
+     * Đẩy file đã spool xuống đĩa lên storage rồi lưu vào Database.
+     * Dùng cho worker của pipeline upload bất đồng bộ.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public MediaFileResponse uploadSpooledFile(Path spoolFile, String originalName, String contentType,
+            User owner, UploadProgressListener progressListener) throws IOException {
+        requireCouple(owner);
+
+        return storeAndSave(new FileSystemResource(spoolFile), originalName, contentType, Files.size(spoolFile),
+                owner, progressListener);
+    }
+
+    /**
+     * Upload nhiều file trong một request: insert PENDING cho cả lô trong một transaction,
+     * đẩy lên Cloudinary song song (có giới hạn) khi không giữ connection nào,
+     * rồi chuyển cả lô sang READY trong một transaction ngắn. Kết quả báo riêng cho từng file.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchUploadResponse uploadFiles(List<MultipartFile> files, User owner) {
+        requireCouple(owner);
+        if (files == null || files.isEmpty()) {
+            throw new BadRequestException("Bé chưa chọn file nào!");
+        }
+        if (files.size() > batchMaxFiles) {
+            throw new BadRequestException("Mỗi lần chỉ upload tối đa " + batchMaxFiles + " file thôi nhé!");
+        }
+
+        BatchUploadItemResult[] results = new BatchUploadItemResult[files.size()];
+        MediaFile[] pending = new MediaFile[files.size()];
+        StorageRequest[] requests = new StorageRequest[files.size()];
+        StoredObject[] stored = new StoredObject[files.size()];
+        // Cùng một ảnh chọn 2 lần trong batch thì chỉ đẩy lên storage một lần
+        Map<String, Integer> firstIndexByHash = new ConcurrentHashMap<>();
+        int[] duplicateOf = new int[files.size()];
+        Arrays.fill(duplicateOf, -1);
+
+        List<Integer> valid = new ArrayList<>();
+        for (int i = 0; i < files.size(); i++) {
+            MultipartFile file = files.get(i);
+            try {
+                validateFile(file);
+                valid.add(i);
+            } catch (BadRequestException e) {
+                results[i] = BatchUploadItemResult.failure(i, file.getOriginalFilename(), e.getMessage());
+            }
+        }
+
+        // Băm + đọc metadata song song, chỉ đọc file tạm trên đĩa
+        forEachBounded(valid, index -> {
+            MultipartFile file = files.get(index);
+            try {
+                String contentHash = sha256(file);
+                Integer first = firstIndexByHash.putIfAbsent(contentHash, index);
+                if (first != null) {
+                    duplicateOf[index] = first;
+                    return;
+                }
+                MediaFile existing = mediaFileRepository.findFirstByCoupleIdAndContentHashAndStatus(
+                        owner.getCoupleId(), contentHash, AppConstants.MEDIA_STATUS_READY).orElse(null);
+                if (existing != null) {
+                    results[index] = BatchUploadItemResult.success(index, file.getOriginalFilename(),
+                            toResponse(existing));
+                    return;
+                }
+                requests[index] = storageRequest(file.getOriginalFilename(), file.getContentType(), file.getSize(),
+                        contentHash, owner.getCoupleId());
+                pending[index] = buildMediaFile(requests[index], readMetadata(file), owner);
+            } catch (Exception e) {
+                log.error("Lỗi đọc file {}: ", file.getOriginalFilename(), e);
+                results[index] = BatchUploadItemResult.failure(index, file.getOriginalFilename(),
+                        "Hệ thống không tải file lên được!");
+            }
+        });
+
+        // Bước 1: insert PENDING cho cả lô, Hibernate gom thành JDBC batch
+        List<MediaFile> toSave = Arrays.stream(pending).filter(Objects::nonNull).toList();
+        mediaFileRepository.saveAll(toSave);
+
+        List<Integer> toPush = new ArrayList<>();
+        for (int i = 0; i < pending.length; i++) {
+            if (pending[i] != null) {
+                toPush.add(i);
+            }
+        }
+        forEachBounded(toPush, index -> {
+            MultipartFile file = files.get(index);
+            try (InputStream in = file.getInputStream()) {
+                stored[index] = storageProvider.store(in, requests[index], null);
+            } catch (Exception e) {
+                log.error("Lỗi upload storage cho file {}: ", file.getOriginalFilename(), e);
+                results[index] = BatchUploadItemResult.failure(index, file.getOriginalFilename(),
+                        "Hệ thống không tải file lên được!");
+            }
+        });
+
+        // Bước 2: một transaction ngắn chuyển các file đã lên storage sang READY, bỏ các bản ghi lỗi
+        List<MediaFile> ready = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<MediaFile> failed = new ArrayList<>();
+            List<MediaFile> orphaned = new ArrayList<>();
+            for (int index : toPush) {
+                MediaFile mediaFile = pending[index];
+                if (stored[index] == null) {
+                    failed.add(mediaFile);
+                } else if (markReady(mediaFile, stored[index])) {
+                    ready.add(mediaFile);
+                    results[index] = BatchUploadItemResult.success(index, mediaFile.getOriginalName(),
+                            toResponse(mediaFile));
+                } else {
+                    orphaned.add(mediaFile);
+                    results[index] = BatchUploadItemResult.failure(index, mediaFile.getOriginalName(),
+                            "Upload quá lâu, bé thử lại nhé!");
+                }
+            }
+            mediaFileRepository.deleteAllInBatch(failed);
+            mediaDeletionService.enqueue(orphaned);
+            timelineService.recordAdded(ready);
+        });
+        ready.forEach(placeholderService::schedule);
+        if (!ready.isEmpty()) {
+            onAlbumChanged(owner.getCoupleId());
+        }
+
+        for (int i = 0; i < duplicateOf.length; i++) {
+            if (duplicateOf[i] >= 0) {
+                BatchUploadItemResult original = results[duplicateOf[i]];
+                results[i] = original.isSuccess()
+                        ? BatchUploadItemResult.success(i, files.get(i).getOriginalFilename(), original.getMedia())
+                        : BatchUploadItemResult.failure(i, files.get(i).getOriginalFilename(), original.getError());
+            }
+        }
+
+        log.info("Đã upload batch {}/{} file cho couple: {}", ready.size(), files.size(), owner.getCoupleId());
+        return BatchUploadResponse.of(Arrays.asList(results));
+    }
+
+    /**
+     * Chạy task cho từng index trên pool batch, tối đa batchConcurrency task cùng lúc, chờ tất cả xong.
+     * Task tự bắt lỗi của mình.
+     */
+    private void forEachBounded(List<Integer> indexes, IntConsumer task) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        Semaphore permits = new Semaphore(batchConcurrency);
+        for (int index : indexes) {
+            permits.acquireUninterruptibly();
+            futures.add(CompletableFuture.runAsync(() -> {
+                try {
+                    task.accept(index);
+                } finally {
+                    permits.release();
+                }
+            }, mediaBatchExecutor));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+
+    /**
+     * Upload hai bước để không giữ connection DB trong lúc gọi storage:
+     * transaction ngắn insert bản ghi PENDING, đẩy byte lên storage (không transaction),
+     * rồi transaction ngắn chuyển sang READY. Nếu couple đã có file y hệt (so SHA-256)
+     * thì trả về media cũ và bỏ qua việc đẩy lên storage.
+     */
+    private MediaFileResponse storeAndSave(InputStreamSource source, String originalName, String contentType,
+            long size, User owner, UploadProgressListener progressListener) throws IOException {
+        String contentHash = sha256(source);
+        // Mọi truy cập DB ở đây đều trong transaction riêng: gọi repository ngoài transaction sẽ gắn
+        // EntityManager (và connection của nó) vào scope NOT_SUPPORTED cho tới hết lượt upload
+        MediaFile existing = transactionTemplate.execute(status -> mediaFileRepository
+                .findFirstByCoupleIdAndContentHashAndStatus(owner.getCoupleId(), contentHash,
+                        AppConstants.MEDIA_STATUS_READY)
+                .orElse(null));
+        if (existing != null) {
+            log.info("File {} đã có trong album của couple: {}, bỏ qua upload", existing.getFileName(),
+                    owner.getCoupleId());
+            return toResponse(existing);
+        }
+
+        StorageRequest request = storageRequest(originalName, contentType, size, contentHash, owner.getCoupleId());
+        MediaMetadata metadata = readMetadata(source);
+        MediaFile mediaFile = transactionTemplate.execute(status ->
+                mediaFileRepository.save(buildMediaFile(request, metadata, owner)));
+
+        StoredObject stored;
+        try (InputStream in = source.getInputStream()) {
+            stored = storageProvider.store(in, request, progressListener);
+        } catch (IOException | RuntimeException e) {
+            discardPending(mediaFile);
+            throw e;
+        }
+
+        boolean ready = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (markReady(mediaFile, stored)) {
+                timelineService.recordAdded(List.of(mediaFile));
+                return true;
+            }
+            mediaDeletionService.enqueue(List.of(mediaFile));
+            return false;
+        }));
+        if (!ready) {
+            throw new IOException("Bản ghi PENDING của " + stored.key() + " đã bị dọn trước khi upload xong");
         }
+        log.info("Đã upload thành công file: {} cho couple: {}", stored.key(), owner.getCoupleId());
+        onAlbumChanged(owner.getCoupleId());
+        placeholderService.schedule(mediaFile);
 
+        return toResponse(mediaFile);
+    }
+
+    /**
+     * Chuyển PENDING -> READY với key/url thật từ storage. Trả về false nếu sweeper đã dọn bản ghi.
+     */
+    private boolean markReady(MediaFile mediaFile, StoredObject stored) {
+        mediaFile.setFileName(stored.key());
+        mediaFile.setPath(stored.url());
+        if (mediaFileRepository.markReady(mediaFile.getId(), stored.key(), stored.url()) == 0) {
+            return false;
+        }
+        mediaFile.setStatus(AppConstants.MEDIA_STATUS_READY);
+        return true;
+    }
+
+    private void discardPending(MediaFile mediaFile) {
         try {
-            String contentType = file.getContentType();
-            String type = determineMediaType(contentType);
-
-            // 1. Upload lên Cloudinary
-            // Anh dùng "auto" để Cloudinary tự lo phần định dạng video/image nhé
-            Map<?, ?> uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap(
-                    "resource_type", "auto",
-                    "folder", "anniversary/media"));
-
-            String url = (String) uploadResult.get("secure_url");
-            String publicId = (String) uploadResult.get("public_id");
-
-            // 2. Lưu thông tin vào DB - lưu coupleId để share giữa 2 người
-            MediaFile mediaFile = MediaFile.builder()
-                    .fileName(publicId) // Lưu publicId để sau này còn tìm mà xóa bé nhé
-                    .originalName(StringUtils.cleanPath(file.getOriginalFilename()))
-                    .contentType(contentType)
-                    .size(file.getSize())
-                    .type(type)
-                    .path(url)
-                    .createdAt(Instant.now())
-                    .mediaDate(Instant.now()) // Mặc định là ngày upload
-                    .owner(owner)
-                    .coupleId(owner.getCoupleId()) // Gán coupleId để share album
-                    .build();
+            mediaFileRepository.deleteById(mediaFile.getId());
+        } catch (RuntimeException e) {
+            // Sweeper sẽ dọn sau
+            log.warn("Không xóa được bản ghi PENDING {}: {}", mediaFile.getId(), e.getMessage());
+        }
+    }
 
-            mediaFile = mediaFileRepository.save(mediaFile);
-            log.info("Đã upload thành công file: {} cho couple: {}", publicId, owner.getCoupleId());
+    /**
+     * Đặt trước public id để biết key trên storage ngay từ bước PENDING;
+     * nhờ vậy sweeper dọn được cả object lỡ đẩy lên mà chưa kịp READY.
+     */
+    private StorageRequest storageRequest(String originalName, String contentType, long size, String contentHash,
+            Long coupleId) {
+        return StorageRequest.builder()
+                .folder(MEDIA_FOLDER)
+                .coupleId(coupleId)
+                .originalName(originalName)
+                .contentType(contentType)
+                .size(size)
+                .contentHash(contentHash)
+                .publicId(UUID.randomUUID().toString())
+                .build();
+    }
 
-            return toResponse(mediaFile);
-        } catch (IOException e) {
-            log.error("Lỗi upload Cloudinary: ", e);
-            throw new RuntimeException("Hệ thống không tải file lên được!");
+    /**
+     * Chỉ đọc header của file (EXIF, mvhd...), vài KB bất kể file lớn cỡ nào.
+     */
+    private MediaMetadata readMetadata(InputStreamSource source) throws IOException {
+        try (InputStream in = source.getInputStream()) {
+            return MediaMetadataReader.read(in);
         }
     }
 
+    private MediaFile buildMediaFile(StorageRequest request, MediaMetadata metadata, User owner) {
+        Instant now = Instant.now();
+        ZoneId zone = onThisDayService.zoneOf(owner.getCoupleId());
+        // Ngày chụp/quay trong header (giờ địa phương không kèm offset hiểu theo múi giờ couple);
+        // không có (hoặc đồng hồ máy ảnh lệch sang tương lai) thì lấy ngày upload
+        Instant takenAt = metadata.takenAt(zone);
+        Instant mediaDate = takenAt != null && takenAt.isBefore(now) ? takenAt : now;
+        String plannedKey = storageProvider.keyFor(request);
+        // Lưu coupleId để share giữa 2 người
+        return MediaFile.builder()
+                // Lưu key trên storage để sau này còn tìm mà xóa bé nhé
+                .fileName(plannedKey != null ? plannedKey : PENDING_KEY_PREFIX + request.getPublicId())
+                .originalName(StringUtils.cleanPath(request.getOriginalName()))
+                .contentType(request.getContentType())
+                .size(request.getSize())
+                .contentHash(request.getContentHash())
+                .type(determineMediaType(request.getContentType()))
+                .status(AppConstants.MEDIA_STATUS_PENDING)
+                .path("") // URL chỉ có sau khi storage lưu xong
+                .width(metadata.width())
+                .height(metadata.height())
+                .orientation(metadata.orientation())
+                .createdAt(now)
+                .mediaDate(mediaDate)
+                .monthDay(OnThisDayService.monthDay(mediaDate, zone))
+                .owner(owner)
+                .coupleId(owner.getCoupleId()) // Gán coupleId để share album
+                .build();
+    }
+
     /**
-     * Lấy tất cả media của couple (shared album)
+     * Dọn các upload bỏ dở: bản ghi PENDING quá pending-ttl bị xóa, key dự kiến của chúng
+     * đi vào outbox để object lỡ đẩy lên storage (nếu có) cũng được xóa.
      */
-    public List<MediaFileResponse> getMediaFiles(User owner, String type) {
-        if (owner.getCoupleId() == null) {
-            return List.of();
+    @Scheduled(fixedDelayString = "${app.media.upload.pending-sweep-interval:PT15M}")
+    @Transactional
+    public void sweepAbandonedUploads() {
+        Instant cutoff = Instant.now().minus(pendingTtl);
+        List<MediaFile> abandoned = mediaFileRepository.findByStatusAndCreatedAtBefore(
+                AppConstants.MEDIA_STATUS_PENDING, cutoff, PageRequest.of(0, SWEEP_BATCH_SIZE));
+        if (abandoned.isEmpty()) {
+            return;
         }
+        mediaFileRepository.deleteAllInBatch(abandoned);
+        mediaDeletionService.enqueue(abandoned.stream()
+                .filter(mediaFile -> !mediaFile.getFileName().startsWith(PENDING_KEY_PREFIX))
+                .toList());
+        log.info("Đã dọn {} upload bỏ dở", abandoned.size());
+    }
 
-        // Query theo coupleId thay vì owner để lấy media của cả 2 người
-        Page<MediaFile> mediaPage;
-        Pageable pageable = PageRequest.of(0, 1000); // Lấy tất cả
-        if (type == null || type.equalsIgnoreCase(AppConstants.MEDIA_TYPE_ALL)) {
-            mediaPage = mediaFileRepository.findByCoupleIdOrderByMediaDateDesc(owner.getCoupleId(), pageable);
-        } else {
-            mediaPage = mediaFileRepository.findByCoupleIdAndTypeOrderByMediaDateDesc(owner.getCoupleId(),
-                    type.toUpperCase(), pageable);
+    static String sha256(InputStreamSource source) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream in = source.getInputStream()) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
 
-        return mediaPage.getContent().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+    /**
+     * Duyệt tất cả media của couple (shared album) theo thứ tự gallery, đưa từng phần tử cho consumer.
+     * Đọc theo từng chunk keyset (media_date, id) bằng các câu query ngắn, không chạy trong transaction:
+     * connection trả về pool sau mỗi chunk nên client đọc chậm không giữ connection, bộ nhớ chỉ cỡ một chunk.
+     * Có fields thì chỉ select các cột đó và phần tử là map.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void forEachMedia(Long coupleId, String type, String fields, boolean rawJson, Consumer<Object> consumer) {
+        if (coupleId == null) {
+            return;
+        }
+        String normalizedType = normalizeType(type);
+        MediaFields sparse = MediaFields.parse(fields);
+        if (sparse != null) {
+            forEachChunk(cursor -> mediaFileRepository.findFieldsAfter(coupleId, normalizedType, cursor.mediaDate(),
+                            cursor.id(), LIST_CHUNK_SIZE, sparse.attributes()),
+                    row -> new MediaCursor(row.get("mediaDate", Instant.class), row.get("id", Long.class)),
+                    row -> consumer.accept(sparse.toMap(row)));
+            return;
+        }
+        // Query theo coupleId thay vì owner để lấy media của cả 2 người
+        Pageable chunk = PageRequest.of(0, LIST_CHUNK_SIZE);
+        forEachChunk(cursor -> normalizedType == null
+                        ? mediaFileRepository.findPageAfter(coupleId, cursor.mediaDate(), cursor.id(), chunk)
+                        : mediaFileRepository.findPageAfterByType(coupleId, normalizedType, cursor.mediaDate(),
+                                cursor.id(), chunk),
+                row -> new MediaCursor(row.getMediaDate(), row.getId()),
+                row -> consumer.accept(toItem(row, rawJson)));
+    }
+
+    // Chunk chưa đầy là chunk cuối
+    private static <R> void forEachChunk(Function<MediaCursor, List<R>> query, Function<R, MediaCursor> position,
+            Consumer<R> consumer) {
+        MediaCursor cursor = MediaCursor.START;
+        List<R> rows;
+        do {
+            rows = query.apply(cursor);
+            rows.forEach(consumer);
+            if (!rows.isEmpty()) {
+                cursor = position.apply(rows.get(rows.size() - 1));
+            }
+        } while (rows.size() == LIST_CHUNK_SIZE);
     }
 
     public MediaFile getMediaFile(Long id) {
-        return mediaFileRepository.findById(id)
+        return mediaFileRepository.findByIdAndStatus(id, AppConstants.MEDIA_STATUS_READY)
                 .orElseThrow(() -> new ResourceNotFoundException("Media file", "id", id));
     }
 
-    public org.springframework.core.io.Resource loadFileAsResource(Long id) {
-        MediaFile mediaFile = getMediaFile(id);
-        try {
-            // Nếu path là URL Cloudinary thì trả về resource từ URL
-            java.net.URL url = new java.net.URL(mediaFile.getPath());
-            return new org.springframework.core.io.UrlResource(url);
-        } catch (Exception ex) {
-            throw new ResourceNotFoundException("File not found: " + mediaFile.getFileName());
+    /**
+     * Kiểm tra nhanh couple đã có file với hash này chưa, client dùng để khỏi gửi byte lên.
+     */
+    public Optional<MediaFile> findByContentHash(Long coupleId, String contentHash) {
+        if (coupleId == null || !SHA256_HEX.matcher(contentHash).matches()) {
+            return Optional.empty();
         }
+        return mediaFileRepository.findFirstByCoupleIdAndContentHashAndStatus(coupleId, contentHash.toLowerCase(),
+                AppConstants.MEDIA_STATUS_READY);
+    }
+
+    public MediaFileResponse getMediaFileResponse(Long id) {
+        return toResponse(getMediaFile(id));
     }
 
     /**
-     * Xóa file trên Cloudinary và trong Database
+     * Ghi đoạn [start, start + length) của media ra out.
+     * Blob nhỏ ở storage remote đi qua cache trên ổ đĩa và được copy bằng transferTo;
+     * blob lớn (video) chỉ kéo đúng range cần đọc từ storage.
+     */
+    public void writeContent(MediaFile mediaFile, long start, long length, OutputStream out) throws IOException {
+        String key = mediaFile.getFileName();
+        if (storageProvider.isRemote() && blobCache.accepts(mediaFile.getSize())) {
+            try (FileChannel channel = blobCache.open(key,
+                    () -> storageProvider.open(key, mediaFile.getPath(), 0, mediaFile.getSize()))) {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = start;
+                long end = Math.min(start + length, channel.size());
+                while (position < end) {
+                    long transferred = channel.transferTo(position, end - position, target);
+                    if (transferred <= 0) {
+                        break;
+                    }
+                    position += transferred;
+                }
+            }
+            return;
+        }
+
+        try (InputStream in = storageProvider.open(key, mediaFile.getPath(), start, length)) {
+            byte[] buffer = new byte[DOWNLOAD_BUFFER_SIZE];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    break;
+                }
+                out.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    /**
+     * Xóa media trong Database, object trên storage được xóa nền qua outbox
      * Cả 2 người trong couple đều có quyền xóa media của couple
      */
     @Transactional
@@ -138,23 +618,198 @@ public class MediaService {
             throw new ForbiddenException("Bạn không có quyền xóa file này!");
         }
 
-        try {
-            // Xác định resource_type để Cloudinary biết đường mà xóa
-            String resourceType = mediaFile.getType().equals(AppConstants.MEDIA_TYPE_VIDEO) ? "video" : "image";
+        mediaFileRepository.delete(mediaFile);
+        mediaDeletionService.enqueue(List.of(mediaFile));
+        timelineService.recordRemoved(List.of(mediaFile));
+        searchService.onMediaRemoved(mediaFile.getCoupleId(), List.of(mediaFile.getId()));
+        onAlbumChanged(mediaFile.getCoupleId());
+        log.info("Đã xóa file: {}", mediaFile.getFileName());
+    }
+
+    /**
+     * Xóa nhiều media một lần: một câu DELETE cho các bản ghi và một lô outbox.
+     * Id không tồn tại được bỏ qua; chỉ cần một media thuộc couple khác là từ chối cả lô.
+     */
+    @Transactional
+    public int deleteFiles(List<Long> ids, User owner) {
+        if (owner.getCoupleId() == null) {
+            throw new ForbiddenException("Bạn không có quyền xóa các file này!");
+        }
+        // Chỉ xóa media đã READY: bản ghi PENDING chưa có trên timeline, upload đang chạy tự dọn nó
+        List<MediaFile> mediaFiles = mediaFileRepository.findByIdInAndStatus(new LinkedHashSet<>(ids),
+                AppConstants.MEDIA_STATUS_READY);
+        boolean foreign = mediaFiles.stream().anyMatch(mediaFile -> !owner.getCoupleId().equals(mediaFile.getCoupleId()));
+        if (foreign) {
+            throw new ForbiddenException("Bạn không có quyền xóa các file này!");
+        }
+
+        mediaFileRepository.deleteAllInBatch(mediaFiles);
+        mediaDeletionService.enqueue(mediaFiles);
+        timelineService.recordRemoved(mediaFiles);
+        searchService.onMediaRemoved(owner.getCoupleId(), mediaFiles.stream().map(MediaFile::getId).toList());
+        onAlbumChanged(owner.getCoupleId());
+        log.info("Đã xóa {} file cho couple: {}", mediaFiles.size(), owner.getCoupleId());
+        return mediaFiles.size();
+    }
+
+    /**
+     * Sửa caption / tags / ngày chụp. Đổi ngày thì chuyển media sang kỳ mới trên timeline trong cùng transaction.
+     */
+    @Transactional
+    public MediaFileResponse updateMedia(Long id, UpdateMediaRequest request, User user) {
+        MediaFile mediaFile = getMediaFile(id);
+        if (user.getCoupleId() == null || !user.getCoupleId().equals(mediaFile.getCoupleId())) {
+            throw new ForbiddenException("Bạn không có quyền sửa file này!");
+        }
+
+        MediaEdit edit = applyEdit(mediaFile, request);
+        if (edit.dateChanged()) {
+            timelineService.recordMoved(edit.before(), mediaFile);
+            onAlbumChanged(mediaFile.getCoupleId());
+        } else {
+            onThisDayService.invalidateIfContains(mediaFile.getCoupleId(), mediaFile.getId());
+            coupleVersionService.bump(mediaFile.getCoupleId());
+        }
+        // Chỉ mục tìm kiếm lấy caption / tags / ngày sau khi đã sửa
+        if (edit.tagsChanged()) {
+            searchService.onTagsChanged(mediaFile);
+        } else if (edit.captionChanged() || edit.dateChanged()) {
+            searchService.onMediaChanged(mediaFile);
+        }
+        return toResponse(mediaFile);
+    }
+
+    /**
+     * Sửa nhiều media trong một transaction: cả lô thành công hoặc không dòng nào đổi.
+     * Mọi thay đổi được áp lên entity trước, các UPDATE (và INSERT media_tags) vì vậy đi thành JDBC batch;
+     * timeline và media_tags được cập nhật một lần cho cả lô thay vì theo từng media.
+     */
+    @Transactional
+    public List<MediaFileResponse> updateMediaBatch(List<BulkUpdateMediaRequest.Item> items, User user) {
+        Long coupleId = user.getCoupleId();
+        if (coupleId == null) {
+            throw new ForbiddenException("Bạn không có quyền sửa các file này!");
+        }
+        Map<Long, BulkUpdateMediaRequest.Item> requests = new LinkedHashMap<>();
+        for (BulkUpdateMediaRequest.Item item : items) {
+            if (requests.put(item.getId(), item) != null) {
+                throw new BadRequestException("Media " + item.getId() + " bị sửa hai lần trong cùng một lô!");
+            }
+        }
+        Map<Long, MediaFile> mediaFiles = mediaFileRepository.findAllById(requests.keySet()).stream()
+                .filter(m -> AppConstants.MEDIA_STATUS_READY.equals(m.getStatus()))
+                .collect(Collectors.toMap(MediaFile::getId, Function.identity()));
+        for (Long id : requests.keySet()) {
+            MediaFile mediaFile = mediaFiles.get(id);
+            if (mediaFile == null) {
+                throw new ResourceNotFoundException("Media file", "id", id);
+            }
+            if (!coupleId.equals(mediaFile.getCoupleId())) {
+                throw new ForbiddenException("Bạn không có quyền sửa các file này!");
+            }
+        }
+
+        List<MediaEdit> edits = requests.entrySet().stream()
+                .map(entry -> applyEdit(mediaFiles.get(entry.getKey()), entry.getValue()))
+                .toList();
+        List<MediaEdit> moved = edits.stream().filter(MediaEdit::dateChanged).toList();
+        if (!moved.isEmpty()) {
+            timelineService.recordRemoved(moved.stream().map(MediaEdit::before).toList());
+            timelineService.recordAdded(moved.stream().map(MediaEdit::mediaFile).toList());
+            onAlbumChanged(coupleId);
+        } else {
+            edits.forEach(edit -> onThisDayService.invalidateIfContains(coupleId, edit.mediaFile().getId()));
+            coupleVersionService.bump(coupleId);
+        }
+        searchService.onTagsChanged(edits.stream()
+                .filter(MediaEdit::tagsChanged)
+                .map(MediaEdit::mediaFile)
+                .toList());
+        edits.stream()
+                .filter(edit -> !edit.tagsChanged() && (edit.captionChanged() || edit.dateChanged()))
+                .forEach(edit -> searchService.onMediaChanged(edit.mediaFile()));
+        log.info("Đã sửa {} media cho couple: {}", edits.size(), coupleId);
+        return edits.stream().map(edit -> toResponse(edit.mediaFile())).toList();
+    }
+
+    /**
+     * Áp các trường khác null của request lên entity (chưa ghi gì khác); đổi ngày thì giữ bản sao vị trí cũ
+     * để trừ khỏi kỳ cũ trên timeline.
+     */
+    private MediaEdit applyEdit(MediaFile mediaFile, UpdateMediaRequest request) {
+        boolean captionChanged = request.getCaption() != null
+                && !request.getCaption().equals(mediaFile.getCaption());
+        boolean tagsChanged = request.getTags() != null && !request.getTags().equals(mediaFile.getTags());
+        MediaFile before = null;
+        if (captionChanged) {
+            mediaFile.setCaption(request.getCaption());
+        }
+        if (tagsChanged) {
+            mediaFile.setTags(request.getTags());
+        }
+        if (request.getMediaDate() != null && !request.getMediaDate().equals(mediaFile.getMediaDate())) {
+            before = MediaFile.builder()
+                    .id(mediaFile.getId())
+                    .coupleId(mediaFile.getCoupleId())
+                    .type(mediaFile.getType())
+                    .status(mediaFile.getStatus())
+                    .mediaDate(mediaFile.getMediaDate())
+                    .build();
+            mediaFile.setMediaDate(request.getMediaDate());
+            mediaFile.setMonthDay(OnThisDayService.monthDay(request.getMediaDate(),
+                    onThisDayService.zoneOf(mediaFile.getCoupleId())));
+        }
+        return new MediaEdit(mediaFile, captionChanged, tagsChanged, before);
+    }
+
+    /**
+     * Timeline theo năm / tháng / ngày, đọc từ bảng thống kê
+     */
+    public List<MediaPeriodStatResponse> getTimeline(Long coupleId, String granularity, Integer year) {
+        return queryCache.get(coupleId, "timeline", () -> timelineService.getTimeline(coupleId, granularity, year),
+                granularity, year);
+    }
+
+    /**
+     * Tìm theo caption / tag, phân trang keyset như gallery: cursor là (media_date, id) của kết quả cuối
+     * trang trước, chỉ mục trả về id theo thứ tự nên chỉ nạp bản ghi của trang đang đọc.
+     */
+    public MediaSearchResponse search(Long coupleId, String query, String after, int limit) {
+        int size = Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS);
+        MediaCursor cursor = MediaCursor.decode(after);
+        InvertedIndex.Hits hits = searchService.search(coupleId, query, cursor.mediaDate(), cursor.id(), size + 1);
+        boolean hasNext = hits.hits().size() > size;
+        List<InvertedIndex.Hit> page = hasNext ? hits.hits().subList(0, size) : hits.hits();
+        List<Long> pageIds = page.stream().map(InvertedIndex.Hit::id).toList();
+        Map<Long, MediaFile> byId = mediaFileRepository.findAllById(pageIds).stream()
+                .filter(m -> AppConstants.MEDIA_STATUS_READY.equals(m.getStatus()))
+                .collect(Collectors.toMap(MediaFile::getId, Function.identity()));
+        List<MediaFileResponse> content = pageIds.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::toResponse)
+                .toList();
+        InvertedIndex.Hit last = hasNext ? page.get(page.size() - 1) : null;
+        return MediaSearchResponse.builder()
+                .query(query)
+                .total(hits.total())
+                .content(content)
+                .hasNext(hasNext)
+                .nextCursor(last != null ? new MediaCursor(last.mediaDate(), last.id()).encode() : null)
+                .build();
+    }
 
-            // Xóa trên Cloudinary
-            cloudinary.uploader().destroy(mediaFile.getFileName(), ObjectUtils.asMap("resource_type", resourceType));
+    public List<String> suggest(Long coupleId, String prefix, int limit) {
+        return searchService.suggest(coupleId, prefix, Math.min(Math.max(limit, 1), MAX_SUGGESTIONS));
+    }
 
-            // Xóa trong DB
-            mediaFileRepository.delete(mediaFile);
-            log.info("Đã xóa file: {}", mediaFile.getFileName());
-        } catch (IOException ex) {
-            log.error("Lỗi khi xóa file trên Cloudinary", ex);
-            throw new RuntimeException("Không xóa được file!");
+    void requireCouple(User owner) {
+        if (owner.getCoupleId() == null) {
+            throw new BadRequestException("Bạn cần ghép đôi trước khi upload media!");
         }
     }
 
-    private void validateFile(MultipartFile file) {
+    void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new BadRequestException("File trống rỗng nè bé ơi!");
         }
@@ -185,34 +840,211 @@ public class MediaService {
                 .caption(mediaFile.getCaption())
                 .tags(mediaFile.getTags())
                 .mediaDate(mediaFile.getMediaDate())
+                .contentHash(mediaFile.getContentHash())
+                .placeholder(mediaFile.getPlaceholder())
+                .dominantColor(mediaFile.getDominantColor())
+                .width(mediaFile.getWidth())
+                .height(mediaFile.getHeight())
+                .orientation(mediaFile.getOrientation())
                 .build();
     }
 
+    /**
+     * Phần tử của các response dạng danh sách. Response JSON (rawJson) dùng JSON lấy từ cache fragment
+     * theo (id, row_version), generator chỉ chép byte. CBOR / Smile không nhận byte JSON thô,
+     * nên nhận thẳng MediaFileResponse cho mapper nhị phân ghi, không đi qua fragment.
+     */
+    private Object toItem(MediaFile mediaFile, boolean rawJson) {
+        return rawJson ? jsonFragments.fragment(mediaFile, this::toResponse) : toResponse(mediaFile);
+    }
+
     /**
      * Pagination: Lấy media theo couple với phân trang
      */
-    public Page<MediaFileResponse> getMediaByCoupleId(Long coupleId, String type, int page, int size) {
+    public Page<?> getMediaByCoupleId(Long coupleId, String type, int page, int size, boolean rawJson) {
+        return queryCache.get(coupleId, "page", () -> loadMediaPage(coupleId, type, page, size, rawJson),
+                normalizeType(type), page, size, rawJson);
+    }
+
+    private Page<?> loadMediaPage(Long coupleId, String type, int page, int size, boolean rawJson) {
         Pageable pageable = PageRequest.of(page, size);
         Page<MediaFile> mediaPage;
         if (type == null || type.equalsIgnoreCase(AppConstants.MEDIA_TYPE_ALL)) {
-            mediaPage = mediaFileRepository.findByCoupleIdOrderByMediaDateDesc(coupleId, pageable);
+            mediaPage = mediaFileRepository.findByCoupleIdAndStatusOrderByMediaDateDesc(coupleId,
+                    AppConstants.MEDIA_STATUS_READY, pageable);
         } else {
-            mediaPage = mediaFileRepository.findByCoupleIdAndTypeOrderByMediaDateDesc(coupleId, type.toUpperCase(),
-                    pageable);
+            mediaPage = mediaFileRepository.findByCoupleIdAndTypeAndStatusOrderByMediaDateDesc(coupleId,
+                    type.toUpperCase(), AppConstants.MEDIA_STATUS_READY, pageable);
         }
-        return mediaPage.map(this::toResponse);
+        return mediaPage.map(mediaFile -> toItem(mediaFile, rawJson));
     }
 
     /**
-     * On This Day: Lấy ảnh của ngày này các năm trước
+     * Keyset pagination: trang sau bắt đầu ngay sau (media_date, id) của phần tử cuối trang trước,
+     * nên trang thứ 50 tốn như trang đầu. Đọc thừa một phần tử để biết còn trang sau không.
      */
-    public List<MediaFileResponse> getOnThisDay(Long coupleId) {
-        LocalDate today = LocalDate.now(ZoneId.systemDefault());
-        int month = today.getMonthValue();
-        int day = today.getDayOfMonth();
-        int currentYear = today.getYear();
+    public MediaCursorPageResponse<?> getMediaAfter(Long coupleId, String type, String after, int size,
+            boolean includeTotal, String fields, boolean rawJson) {
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        MediaCursor cursor = MediaCursor.decode(after);
+        String normalizedType = normalizeType(type);
+        Long total = includeTotal ? countMedia(coupleId, normalizedType) : null;
+
+        MediaFields sparse = MediaFields.parse(fields);
+        if (sparse != null) {
+            List<Tuple> rows = mediaFileRepository.findFieldsAfter(coupleId, normalizedType, cursor.mediaDate(),
+                    cursor.id(), limit + 1, sparse.attributes());
+            return cursorPage(rows, limit, total,
+                    row -> new MediaCursor(row.get("mediaDate", Instant.class), row.get("id", Long.class)),
+                    sparse::toMap);
+        }
+
+        Pageable firstRows = PageRequest.of(0, limit + 1);
+        List<MediaFile> rows = normalizedType == null
+                ? mediaFileRepository.findPageAfter(coupleId, cursor.mediaDate(), cursor.id(), firstRows)
+                : mediaFileRepository.findPageAfterByType(coupleId, normalizedType, cursor.mediaDate(), cursor.id(),
+                        firstRows);
+        return cursorPage(rows, limit, total, row -> new MediaCursor(row.getMediaDate(), row.getId()),
+                row -> toItem(row, rawJson));
+    }
+
+    /**
+     * Lọc kết hợp (khoảng ngày, loại, người upload, có caption) bằng Specification, kèm số đếm cho FilterChips.
+     * Trang đầu tính facets bằng một câu GROUP BY trên phạm vi (couple + khoảng ngày); các chip loại /
+     * người upload / caption được cộng từ các nhóm đó trong bộ nhớ nên không tốn thêm câu COUNT nào.
+     */
+    public MediaQueryResponse queryMedia(Long coupleId, MediaQueryRequest request, boolean rawJson) {
+        int limit = Math.max(1, Math.min(request.getSize() != null ? request.getSize() : DEFAULT_QUERY_PAGE_SIZE,
+                MAX_CURSOR_PAGE_SIZE));
+        if (request.getFrom() != null && request.getTo() != null && request.getFrom().isAfter(request.getTo())) {
+            throw new BadRequestException("Ngày bắt đầu phải trước ngày kết thúc!");
+        }
+        ZoneId zone = onThisDayService.zoneOf(coupleId);
+        String type = normalizeType(request.getType());
 
-        List<MediaFile> files = mediaFileRepository.findOnThisDay(coupleId, month, day, currentYear);
-        return files.stream().map(this::toResponse).collect(Collectors.toList());
+        Specification<MediaFile> scope = MediaFileSpecifications.readyInCouple(coupleId)
+                .and(MediaFileSpecifications.mediaDateFrom(request.getFrom() != null
+                        ? request.getFrom().atStartOfDay(zone).toInstant() : null))
+                .and(MediaFileSpecifications.mediaDateBefore(request.getTo() != null
+                        ? request.getTo().plusDays(1).atStartOfDay(zone).toInstant() : null));
+        Specification<MediaFile> filter = scope
+                .and(MediaFileSpecifications.ofType(type))
+                .and(MediaFileSpecifications.ownedBy(request.getOwnerId()))
+                .and(MediaFileSpecifications.hasCaption(request.getHasCaption()));
+
+        MediaCursor cursor = MediaCursor.decode(request.getAfter());
+        List<MediaFile> rows = mediaFileRepository.findBy(filter.and(
+                        MediaFileSpecifications.after(cursor.mediaDate(), cursor.id())),
+                query -> query.sortBy(GALLERY_ORDER).limit(limit + 1).all());
+        MediaCursorPageResponse<Object> page = cursorPage(rows, limit, null,
+                row -> new MediaCursor(row.getMediaDate(), row.getId()), row -> toItem(row, rawJson));
+
+        MediaQueryResponse.MediaQueryResponseBuilder response = MediaQueryResponse.builder()
+                .content(page.getContent())
+                .size(page.getSize())
+                .hasNext(page.isHasNext())
+                .nextCursor(page.getNextCursor());
+        if (request.getAfter() == null || request.getAfter().isBlank()) {
+            List<MediaFileFacetRepository.FacetCount> groups = mediaFileRepository.countFacets(scope);
+            response.facets(facets(groups, type, request.getOwnerId(), request.getHasCaption()))
+                    .totalElements(groups.stream()
+                            .filter(g -> type == null || type.equals(g.type()))
+                            .filter(g -> request.getOwnerId() == null || request.getOwnerId().equals(g.ownerId()))
+                            .mapToLong(g -> captionCount(g, request.getHasCaption()))
+                            .sum());
+        }
+        return response.build();
+    }
+
+    // Mỗi nhóm chip đếm theo các bộ lọc của nhóm khác, không tính bộ lọc của chính nó
+    private static MediaFacetsResponse facets(List<MediaFileFacetRepository.FacetCount> groups, String type,
+            Long ownerId, Boolean hasCaption) {
+        Map<String, Long> types = new TreeMap<>();
+        Map<Long, Long> owners = new TreeMap<>();
+        long withCaption = 0;
+        long withoutCaption = 0;
+        for (MediaFileFacetRepository.FacetCount group : groups) {
+            boolean typeMatches = type == null || type.equals(group.type());
+            boolean ownerMatches = ownerId == null || ownerId.equals(group.ownerId());
+            if (ownerMatches) {
+                types.merge(group.type(), captionCount(group, hasCaption), Long::sum);
+            }
+            if (typeMatches) {
+                owners.merge(group.ownerId(), captionCount(group, hasCaption), Long::sum);
+            }
+            if (typeMatches && ownerMatches) {
+                withCaption += group.captioned();
+                withoutCaption += group.count() - group.captioned();
+            }
+        }
+        return MediaFacetsResponse.builder()
+                .types(types)
+                .owners(owners)
+                .withCaption(withCaption)
+                .withoutCaption(withoutCaption)
+                .build();
+    }
+
+    private static long captionCount(MediaFileFacetRepository.FacetCount group, Boolean hasCaption) {
+        if (hasCaption == null) {
+            return group.count();
+        }
+        return hasCaption ? group.captioned() : group.count() - group.captioned();
+    }
+
+    // rows đọc dư một dòng (limit + 1) để biết còn trang sau hay không
+    private static <R, T> MediaCursorPageResponse<T> cursorPage(List<R> rows, int limit, Long total,
+            Function<R, MediaCursor> position, Function<R, T> mapper) {
+        boolean hasNext = rows.size() > limit;
+        List<R> page = hasNext ? rows.subList(0, limit) : rows;
+        return MediaCursorPageResponse.<T>builder()
+                .content(page.stream().map(mapper).toList())
+                .size(page.size())
+                .hasNext(hasNext)
+                .nextCursor(hasNext ? position.apply(page.get(page.size() - 1)).encode() : null)
+                .totalElements(total)
+                .build();
+    }
+
+    // Tổng số media theo (couple, type), chỉ tính khi client cần
+    private long countMedia(Long coupleId, String type) {
+        String key = type == null ? AppConstants.MEDIA_TYPE_ALL : type;
+        return queryCache.get(coupleId, "count", () -> type == null
+                ? mediaFileRepository.countByCoupleIdAndStatus(coupleId, AppConstants.MEDIA_STATUS_READY)
+                : mediaFileRepository.countByCoupleIdAndTypeAndStatus(coupleId, type, AppConstants.MEDIA_STATUS_READY),
+                key);
+    }
+
+    /**
+     * Gọi mỗi khi media của couple thêm/bớt để các số liệu cache không bị cũ.
+     */
+    private void onAlbumChanged(Long coupleId) {
+        if (coupleId != null) {
+            onThisDayService.invalidate(coupleId);
+            queryCache.invalidate(coupleId);
+            coupleVersionService.bump(coupleId);
+        }
+    }
+
+    private static String normalizeType(String type) {
+        return type == null || type.isBlank() || type.equalsIgnoreCase(AppConstants.MEDIA_TYPE_ALL)
+                ? null
+                : type.toUpperCase();
+    }
+
+    /**
+     * Hôm nay theo múi giờ của couple
+     */
+    public LocalDate getLocalDate(Long coupleId) {
+        return LocalDate.now(onThisDayService.zoneOf(coupleId));
+    }
+
+    /**
+     * On This Day: Lấy ảnh của ngày này các năm trước (theo múi giờ couple, đã tính sẵn từ nửa đêm).
+     * Không qua queryCache: snapshot của OnThisDayService đã gắn phiên bản và là lớp cache duy nhất,
+     * cache thêm một tầng nữa thì entry có thể giữ snapshot cũ dưới phiên bản mới.
+     */
+    public List<MediaFileResponse> getOnThisDay(Long coupleId) {
+        return onThisDayService.get(coupleId).stream().map(this::toResponse).toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,233 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.constant.AppConstants;
+import com.couple.anniversary.common.exception.BadRequestException;
+import com.couple.anniversary.domain.media.dto.MediaPeriodStatResponse;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.couple.anniversary.domain.media.entity.MediaPeriodStat;
+import com.couple.anniversary.domain.media.repository.MediaFileRepository;
+import com.couple.anniversary.domain.media.repository.MediaPeriodStatRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bảng thống kê media_period_stats cho timeline / lịch: mỗi thay đổi album cộng trừ vào 3 dòng
+ * (ngày, tháng, năm) trong cùng transaction, nên đọc timeline chỉ tốn O(số kỳ) thay vì O(số media).
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class MediaTimelineService {
+
+    public static final String GRANULARITY_YEAR = "year";
+    public static final String GRANULARITY_MONTH = "month";
+    public static final String GRANULARITY_DAY = "day";
+
+    private static final Pageable FIRST_ROW = PageRequest.of(0, 1);
+
+    private final MediaPeriodStatRepository statRepository;
+    private final MediaFileRepository mediaFileRepository;
+    private final OnThisDayService onThisDayService;
+
+    // Một kỳ: month = 0 là cả năm, day = 0 là cả tháng
+    private record Period(int year, int month, int day) {
+
+        static List<Period> of(LocalDate date) {
+            return List.of(new Period(date.getYear(), date.getMonthValue(), date.getDayOfMonth()),
+                    new Period(date.getYear(), date.getMonthValue(), 0),
+                    new Period(date.getYear(), 0, 0));
+        }
+
+        LocalDate start() {
+            return LocalDate.of(year, Math.max(month, 1), Math.max(day, 1));
+        }
+
+        LocalDate end() {
+            if (day > 0) {
+                return start().plusDays(1);
+            }
+            return month > 0 ? start().plusMonths(1) : start().plusYears(1);
+        }
+    }
+
+    // Ảnh bìa là ảnh mới nhất theo (media_date, id), cùng thứ tự với gallery
+    private static final Comparator<MediaFile> COVER_ORDER = Comparator.comparing(MediaFile::getMediaDate)
+            .thenComparing(MediaFile::getId);
+
+    // Thay đổi gộp cho một kỳ trước khi ghi xuống DB
+    private static final class Delta {
+        int count;
+        MediaFile newestPhoto;
+        final Set<Long> photoIds = new HashSet<>();
+
+        Long coverId() {
+            return newestPhoto != null ? newestPhoto.getId() : null;
+        }
+
+        Instant coverDate() {
+            return newestPhoto != null ? newestPhoto.getMediaDate() : null;
+        }
+    }
+
+    public MediaTimelineService(MediaPeriodStatRepository statRepository,
+            MediaFileRepository mediaFileRepository,
+            OnThisDayService onThisDayService) {
+        this.statRepository = statRepository;
+        this.mediaFileRepository = mediaFileRepository;
+        this.onThisDayService = onThisDayService;
+    }
+
+    /**
+     * Media vừa READY. Phải gọi trong transaction chuyển trạng thái.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAdded(Collection<MediaFile> mediaFiles) {
+        groupByCouple(mediaFiles).forEach((coupleId, files) -> {
+            Map<Period, Delta> deltas = deltas(files, onThisDayService.zoneOf(coupleId));
+            deltas.forEach((period, delta) -> add(coupleId, period, delta));
+        });
+    }
+
+    /**
+     * Media bị xóa (hoặc rời kỳ cũ khi sửa ngày). Phải gọi trong transaction xóa/sửa bản ghi.
+     * Kỳ về 0 thì bỏ dòng; kỳ mất ảnh bìa thì chọn lại ảnh mới nhất còn lại.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(Collection<MediaFile> mediaFiles) {
+        groupByCouple(mediaFiles).forEach((coupleId, files) -> {
+            ZoneId zone = onThisDayService.zoneOf(coupleId);
+            Set<Long> removedIds = files.stream().map(MediaFile::getId).collect(Collectors.toSet());
+            deltas(files, zone).forEach((period, delta) -> {
+                // Trừ trực tiếp trong câu UPDATE (giữ row lock), không đọc-rồi-ghi để khỏi mất cập nhật song song
+                statRepository.decrement(coupleId, period.year(), period.month(), period.day(), delta.count);
+                if (delta.photoIds.isEmpty()) {
+                    return;
+                }
+                Long cover = statRepository.findCoverMediaId(coupleId, period.year(), period.month(), period.day())
+                        .orElse(null);
+                if (cover != null && delta.photoIds.contains(cover)) {
+                    MediaFile latest = mediaFileRepository.findLatestPhotos(coupleId,
+                            period.start().atStartOfDay(zone).toInstant(),
+                            period.end().atStartOfDay(zone).toInstant(), removedIds, FIRST_ROW).stream()
+                            .findFirst()
+                            .orElse(null);
+                    statRepository.updateCover(coupleId, period.year(), period.month(), period.day(),
+                            latest != null ? latest.getId() : null, latest != null ? latest.getMediaDate() : null);
+                }
+            });
+            statRepository.deleteEmpty(coupleId);
+        });
+    }
+
+    /**
+     * Media đổi ngày: rời kỳ cũ rồi vào kỳ mới.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMoved(MediaFile before, MediaFile after) {
+        recordRemoved(List.of(before));
+        recordAdded(List.of(after));
+    }
+
+    /**
+     * Tính lại toàn bộ thống kê của couple, dùng khi couple đổi múi giờ.
+     */
+    @Transactional
+    public void rebuild(Long coupleId, ZoneId zone) {
+        statRepository.deleteByCoupleId(coupleId);
+        List<MediaFile> mediaFiles = mediaFileRepository.findByCoupleIdAndStatus(coupleId,
+                AppConstants.MEDIA_STATUS_READY);
+        deltas(mediaFiles, zone).forEach((period, delta) -> add(coupleId, period, delta));
+        log.info("Đã tính lại timeline cho couple {} theo múi giờ {}", coupleId, zone);
+    }
+
+    private void add(Long coupleId, Period period, Delta delta) {
+        statRepository.upsert(coupleId, period.year(), period.month(), period.day(), delta.count,
+                delta.coverId(), delta.coverDate());
+        if (delta.newestPhoto != null) {
+            statRepository.raiseCover(coupleId, period.year(), period.month(), period.day(),
+                    delta.coverId(), delta.coverDate());
+        }
+    }
+
+    public List<MediaPeriodStatResponse> getTimeline(Long coupleId, String granularity, Integer year) {
+        String level = granularity == null ? GRANULARITY_MONTH : granularity.toLowerCase();
+        List<MediaPeriodStat> stats = switch (level) {
+            case GRANULARITY_YEAR -> statRepository.findYears(coupleId);
+            case GRANULARITY_MONTH -> statRepository.findMonths(coupleId, year);
+            case GRANULARITY_DAY -> statRepository.findDays(coupleId, year);
+            default -> throw new BadRequestException("granularity chỉ nhận year, month hoặc day!");
+        };
+
+        // Ảnh bìa của mọi kỳ lấy bằng một câu truy vấn
+        Set<Long> coverIds = stats.stream()
+                .map(MediaPeriodStat::getCoverMediaId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, MediaFile> covers = coverIds.isEmpty() ? Map.of()
+                : mediaFileRepository.findAllById(coverIds).stream()
+                        .collect(Collectors.toMap(MediaFile::getId, Function.identity()));
+
+        return stats.stream().map(stat -> {
+            MediaFile cover = stat.getCoverMediaId() != null ? covers.get(stat.getCoverMediaId()) : null;
+            return MediaPeriodStatResponse.builder()
+                    .year(stat.getYear())
+                    .month(stat.getMonth() > 0 ? stat.getMonth() : null)
+                    .day(stat.getDay() > 0 ? stat.getDay() : null)
+                    .count(stat.getMediaCount())
+                    .coverMediaId(cover != null ? cover.getId() : null)
+                    .coverUrl(cover != null ? cover.getPath() : null)
+                    .coverPlaceholder(cover != null ? cover.getPlaceholder() : null)
+                    .build();
+        }).toList();
+    }
+
+    private static Map<Long, List<MediaFile>> groupByCouple(Collection<MediaFile> mediaFiles) {
+        return mediaFiles.stream()
+                .filter(m -> m.getCoupleId() != null && m.getMediaDate() != null)
+                .filter(m -> AppConstants.MEDIA_STATUS_READY.equals(m.getStatus()))
+                .collect(Collectors.groupingBy(MediaFile::getCoupleId));
+    }
+
+    private static Map<Period, Delta> deltas(Collection<MediaFile> mediaFiles, ZoneId zone) {
+        Map<Period, Delta> deltas = new HashMap<>();
+        for (MediaFile mediaFile : mediaFiles) {
+            if (mediaFile.getMediaDate() == null) {
+                continue;
+            }
+            boolean photo = AppConstants.MEDIA_TYPE_PHOTO.equals(mediaFile.getType());
+            for (Period period : Period.of(localDate(mediaFile.getMediaDate(), zone))) {
+                Delta delta = deltas.computeIfAbsent(period, key -> new Delta());
+                delta.count++;
+                if (photo) {
+                    delta.photoIds.add(mediaFile.getId());
+                    if (delta.newestPhoto == null || COVER_ORDER.compare(mediaFile, delta.newestPhoto) > 0) {
+                        delta.newestPhoto = mediaFile;
+                    }
+                }
+            }
+        }
+        return deltas;
+    }
+
+    private static LocalDate localDate(Instant instant, ZoneId zone) {
+        return instant.atZone(zone).toLocalDate();
+    }
+}
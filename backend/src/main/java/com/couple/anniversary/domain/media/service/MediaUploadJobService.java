@@ -0,0 +1,147 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.exception.ResourceNotFoundException;
+import com.couple.anniversary.common.exception.ServiceUnavailableException;
+import com.couple.anniversary.domain.media.dto.MediaFileResponse;
+import com.couple.anniversary.domain.media.dto.MediaUploadJobResponse;
+import com.couple.anniversary.domain.media.job.MediaUploadJob;
+import com.couple.anniversary.domain.user.entity.User;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pipeline upload bất đồng bộ: request chỉ spool file xuống đĩa rồi trả về job id,
+ * worker pool có giới hạn mới đẩy file lên storage và tạo bản ghi MediaFile.
+ */
+@Slf4j
+@Service
+public class MediaUploadJobService {
+
+    private final MediaService mediaService;
+    private final ThreadPoolTaskExecutor mediaUploadExecutor;
+    private final Path spoolDir;
+    private final Duration jobTtl;
+
+    private final Map<String, MediaUploadJob> jobs = new ConcurrentHashMap<>();
+
+    public MediaUploadJobService(MediaService mediaService,
+            @Qualifier("mediaUploadExecutor") ThreadPoolTaskExecutor mediaUploadExecutor,
+            @Value("${app.work.dir}") String workDir,
+            @Value("${app.media.upload.job-ttl:PT1H}") Duration jobTtl) {
+        this.mediaService = mediaService;
+        this.mediaUploadExecutor = mediaUploadExecutor;
+        this.spoolDir = Paths.get(workDir, "spool").toAbsolutePath();
+        this.jobTtl = jobTtl;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(spoolDir);
+    }
+
+    /**
+     * Spool file xuống đĩa và xếp job vào hàng đợi, không chờ storage.
+     */
+    public MediaUploadJobResponse submit(MultipartFile file, User owner) {
+        mediaService.validateFile(file);
+        mediaService.requireCouple(owner);
+
+        Path spoolFile = spoolDir.resolve(UUID.randomUUID() + ".upload");
+        try {
+            // Với file tạm của Tomcat đây thường chỉ là một lần rename, không copy lại byte
+            file.transferTo(spoolFile.toFile());
+        } catch (IOException e) {
+            log.error("Không spool được file upload: ", e);
+            throw new RuntimeException("Hệ thống không tải file lên được!");
+        }
+
+        MediaUploadJob job = new MediaUploadJob(owner.getCoupleId(), owner.getId(),
+                file.getOriginalFilename(), file.getContentType(), file.getSize(), spoolFile);
+        jobs.put(job.getId(), job);
+
+        try {
+            mediaUploadExecutor.execute(() -> process(job, owner));
+        } catch (TaskRejectedException e) {
+            jobs.remove(job.getId());
+            deleteQuietly(spoolFile);
+            throw new ServiceUnavailableException("Hệ thống đang bận, bé thử upload lại sau nhé!");
+        }
+
+        log.info("Đã nhận job upload {} cho couple: {}", job.getId(), owner.getCoupleId());
+        return toResponse(job);
+    }
+
+    public MediaUploadJobResponse getJob(String jobId, User user) {
+        MediaUploadJob job = jobs.get(jobId);
+        if (job == null || !Objects.equals(job.getCoupleId(), user.getCoupleId())) {
+            throw new ResourceNotFoundException("Upload job", "id", jobId);
+        }
+        return toResponse(job);
+    }
+
+    private void process(MediaUploadJob job, User owner) {
+        job.markUploading();
+        try {
+            MediaFileResponse response = mediaService.uploadSpooledFile(job.getSpoolFile(), job.getOriginalName(),
+                    job.getContentType(), owner, (bytesUploaded, totalBytes) -> job.updateProgress(bytesUploaded));
+            job.complete(response);
+        } catch (Exception e) {
+            log.error("Job upload {} thất bại: ", job.getId(), e);
+            job.fail("Hệ thống không tải file lên được!");
+        } finally {
+            deleteQuietly(job.getSpoolFile());
+        }
+    }
+
+    /**
+     * Dọn các job đã xong quá thời gian lưu giữ.
+     */
+    @Scheduled(fixedDelayString = "${app.media.upload.job-cleanup-interval:PT5M}")
+    void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(jobTtl);
+        jobs.values().removeIf(job -> job.isFinished() && job.getUpdatedAt().isBefore(cutoff));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Không xóa được file spool {}: {}", path, e.getMessage());
+        }
+    }
+
+    private MediaUploadJobResponse toResponse(MediaUploadJob job) {
+        long total = job.getTotalBytes();
+        int progress = total > 0 ? (int) (job.getUploadedBytes() * 100 / total) : 0;
+        return MediaUploadJobResponse.builder()
+                .jobId(job.getId())
+                .status(job.getStatus().name())
+                .originalName(job.getOriginalName())
+                .totalBytes(total)
+                .uploadedBytes(job.getUploadedBytes())
+                .progress(progress)
+                .media(job.getResult())
+                .error(job.getError())
+                .createdAt(job.getCreatedAt())
+                .updatedAt(job.getUpdatedAt())
+                .build();
+    }
+}
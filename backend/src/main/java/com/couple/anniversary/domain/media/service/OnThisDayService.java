@@ -0,0 +1,215 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.constant.AppConstants;
+import com.couple.anniversary.domain.couple.entity.Couple;
+import com.couple.anniversary.domain.couple.repository.CoupleRepository;
+import com.couple.anniversary.domain.couple.service.CoupleVersionService;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.couple.anniversary.domain.media.repository.MediaFileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "Ngày này năm xưa" theo múi giờ của từng couple.
+ * month_day được tính sẵn khi lưu media nên truy vấn đi thẳng vào index (couple_id, month_day, status, media_date);
+ * kết quả của ngày hôm nay được tính lại ngay sau nửa đêm giờ địa phương và giữ trong bộ nhớ,
+ * request từ màn hình chính chỉ còn là một lần tra map.
+ * Kết quả gắn với phiên bản couple lúc bắt đầu tính: album đổi (bump sau commit) thì kết quả cũ tự hết hiệu lực,
+ * kể cả khi nó được tính từ dữ liệu chưa commit trong lúc transaction ghi đang chạy.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class OnThisDayService {
+
+    private static final ZoneId DEFAULT_ZONE = ZoneId.of(AppConstants.DEFAULT_TIME_ZONE);
+    private static final String COUPLE_STATUS_ACTIVE = "ACTIVE";
+    private static final int UPDATE_CHUNK_SIZE = 1000;
+
+    // Danh sách media của một ngày (theo giờ địa phương của couple), tính ở phiên bản couple version
+    private record Snapshot(LocalDate day, long version, List<MediaFile> mediaFiles) {
+
+        boolean isFor(LocalDate today, long currentVersion) {
+            return day.equals(today) && version == currentVersion;
+        }
+    }
+
+    private final MediaFileRepository mediaFileRepository;
+    private final CoupleRepository coupleRepository;
+    private final CoupleVersionService coupleVersionService;
+    private final Map<Long, ZoneId> zones = new ConcurrentHashMap<>();
+    private final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public OnThisDayService(MediaFileRepository mediaFileRepository, CoupleRepository coupleRepository,
+            CoupleVersionService coupleVersionService) {
+        this.mediaFileRepository = mediaFileRepository;
+        this.coupleRepository = coupleRepository;
+        this.coupleVersionService = coupleVersionService;
+    }
+
+    /**
+     * tháng * 100 + ngày của thời điểm theo múi giờ cho trước, ví dụ 14/2 -> 214.
+     */
+    public static Integer monthDay(Instant instant, ZoneId zone) {
+        if (instant == null) {
+            return null;
+        }
+        LocalDate date = instant.atZone(zone).toLocalDate();
+        return date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    public static ZoneId parseZone(String timeZone) {
+        if (timeZone == null || timeZone.isBlank()) {
+            return DEFAULT_ZONE;
+        }
+        try {
+            return ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            log.warn("Múi giờ không hợp lệ: {}, dùng mặc định {}", timeZone, DEFAULT_ZONE);
+            return DEFAULT_ZONE;
+        }
+    }
+
+    public ZoneId zoneOf(Long coupleId) {
+        ZoneId zone = zones.get(coupleId);
+        if (zone == null) {
+            zone = coupleRepository.findById(coupleId)
+                    .map(couple -> parseZone(couple.getTimeZone()))
+                    .orElse(DEFAULT_ZONE);
+            zones.put(coupleId, zone);
+        }
+        return zone;
+    }
+
+    /**
+     * Media cùng ngày/tháng hôm nay (giờ địa phương của couple) từ các năm trước, mới nhất trước.
+     */
+    public List<MediaFile> get(Long coupleId) {
+        ZoneId zone = zoneOf(coupleId);
+        LocalDate today = LocalDate.now(zone);
+        // Lấy phiên bản trước khi đọc DB, giống ETag
+        long version = coupleVersionService.current(coupleId);
+        Snapshot snapshot = snapshots.get(coupleId);
+        if (snapshot == null || !snapshot.isFor(today, version)) {
+            snapshot = load(coupleId, zone, today, version);
+        }
+        return snapshot.mediaFiles();
+    }
+
+    /**
+     * Chạy mỗi 15 phút (múi giờ lệch 30/45 phút vẫn bắt kịp), chỉ tính lại cho couple vừa qua nửa đêm.
+     */
+    @Scheduled(cron = "${app.media.on-this-day.refresh-cron:0 */15 * * * *}")
+    public void refresh() {
+        int refreshed = 0;
+        for (Couple couple : coupleRepository.findByStatus(COUPLE_STATUS_ACTIVE)) {
+            ZoneId zone = parseZone(couple.getTimeZone());
+            zones.put(couple.getId(), zone);
+            LocalDate today = LocalDate.now(zone);
+            long version = coupleVersionService.current(couple.getId());
+            Snapshot snapshot = snapshots.get(couple.getId());
+            if (snapshot == null || !snapshot.isFor(today, version)) {
+                load(couple.getId(), zone, today, version);
+                refreshed++;
+            }
+        }
+        if (refreshed > 0) {
+            log.info("Đã tính lại \"ngày này năm xưa\" cho {} couple", refreshed);
+        }
+    }
+
+    /**
+     * Album của couple thay đổi (thêm/xóa/sửa ngày): bỏ kết quả đã tính sau khi transaction commit,
+     * lần đọc sau tính lại. Bỏ sớm hơn thì request chen giữa có thể tính lại từ dữ liệu chưa commit.
+     */
+    public void invalidate(Long coupleId) {
+        if (coupleId != null) {
+            afterCommit(() -> snapshots.remove(coupleId));
+        }
+    }
+
+    /**
+     * Media đã nằm trong kết quả hôm nay vừa có thêm dữ liệu (placeholder...): tính lại để client thấy.
+     */
+    public void invalidateIfContains(Long coupleId, Long mediaId) {
+        if (coupleId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            Snapshot snapshot = snapshots.get(coupleId);
+            if (snapshot != null
+                    && snapshot.mediaFiles().stream().anyMatch(m -> Objects.equals(m.getId(), mediaId))) {
+                snapshots.remove(coupleId, snapshot);
+            }
+        });
+    }
+
+    /**
+     * Couple đổi múi giờ: tính lại month_day cho mọi media của couple,
+     * mỗi giá trị month_day một câu UPDATE theo danh sách id.
+     */
+    @Transactional
+    public void changeZone(Long coupleId, ZoneId zone) {
+        Map<Integer, List<Long>> idsByMonthDay = new HashMap<>();
+        for (Object[] row : mediaFileRepository.findIdAndMediaDateByCoupleId(coupleId)) {
+            Integer monthDay = monthDay((Instant) row[1], zone);
+            if (!monthDay.equals(row[2])) {
+                idsByMonthDay.computeIfAbsent(monthDay, key -> new ArrayList<>()).add((Long) row[0]);
+            }
+        }
+        int updated = 0;
+        for (Map.Entry<Integer, List<Long>> entry : idsByMonthDay.entrySet()) {
+            List<Long> ids = entry.getValue();
+            for (int from = 0; from < ids.size(); from += UPDATE_CHUNK_SIZE) {
+                updated += mediaFileRepository.updateMonthDay(ids.subList(from, Math.min(from + UPDATE_CHUNK_SIZE,
+                        ids.size())), entry.getKey());
+            }
+        }
+        log.info("Couple {} đổi múi giờ sang {}, cập nhật month_day cho {} media", coupleId, zone, updated);
+
+        afterCommit(() -> {
+            zones.put(coupleId, zone);
+            snapshots.remove(coupleId);
+        });
+    }
+
+    private static void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    private Snapshot load(Long coupleId, ZoneId zone, LocalDate today, long version) {
+        // "Các năm trước" = trước 0h ngày 1/1 năm nay theo giờ địa phương
+        Instant startOfYear = today.withDayOfYear(1).atStartOfDay(zone).toInstant();
+        List<MediaFile> mediaFiles = mediaFileRepository
+                .findByCoupleIdAndMonthDayAndStatusAndMediaDateBeforeOrderByMediaDateDesc(coupleId,
+                        today.getMonthValue() * 100 + today.getDayOfMonth(), AppConstants.MEDIA_STATUS_READY,
+                        startOfYear);
+        Snapshot snapshot = new Snapshot(today, version, List.copyOf(mediaFiles));
+        snapshots.put(coupleId, snapshot);
+        return snapshot;
+    }
+}
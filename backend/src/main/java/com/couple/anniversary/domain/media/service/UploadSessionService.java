@@ -0,0 +1,309 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.constant.AppConstants;
+import com.couple.anniversary.common.exception.BadRequestException;
+import com.couple.anniversary.common.exception.ConflictException;
+import com.couple.anniversary.common.exception.ResourceNotFoundException;
+import com.couple.anniversary.domain.media.dto.CreateUploadSessionRequest;
+import com.couple.anniversary.domain.media.dto.MediaFileResponse;
+import com.couple.anniversary.domain.media.dto.UploadSessionResponse;
+import com.couple.anniversary.domain.media.entity.UploadSession;
+import com.couple.anniversary.domain.media.repository.UploadSessionRepository;
+import com.couple.anniversary.domain.user.entity.User;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Upload có thể resume (kiểu tus): tạo phiên, PUT từng chunk theo offset,
+ * hỏi offset hiện tại và finalize thành MediaFile.
+ * Chunk được ghi xuống đĩa bằng positional write của FileChannel, không giữ trong heap.
+ */
+@Slf4j
+@Service
+public class UploadSessionService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final MediaService mediaService;
+    private final Path sessionDir;
+    private final Duration sessionTtl;
+
+    // Mỗi phiên chỉ cho một request ghi chunk tại một thời điểm
+    private final Map<String, ReentrantLock> writeLocks = new ConcurrentHashMap<>();
+    // Finalize đang chạy: request retry sẽ chờ chung kết quả thay vì upload lại lên storage
+    private final Map<String, CompletableFuture<MediaFileResponse>> finalizing = new ConcurrentHashMap<>();
+
+    public UploadSessionService(UploadSessionRepository uploadSessionRepository,
+            MediaService mediaService,
+            @Value("${app.work.dir}") String workDir,
+            @Value("${app.media.upload.session-ttl:PT24H}") Duration sessionTtl) {
+        this.uploadSessionRepository = uploadSessionRepository;
+        this.mediaService = mediaService;
+        this.sessionDir = Paths.get(workDir, "sessions").toAbsolutePath();
+        this.sessionTtl = sessionTtl;
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(sessionDir);
+    }
+
+    public UploadSessionResponse createSession(CreateUploadSessionRequest request, String idempotencyKey,
+            User owner) {
+        mediaService.requireCouple(owner);
+        if (request.getSize() > AppConstants.MAX_FILE_SIZE) {
+            throw new BadRequestException("File nặng quá, bé chọn cái nào nhẹ hơn 100MB nhé!");
+        }
+
+        // Cùng idempotency key thì trả lại phiên cũ, client không phải upload lại từ đầu
+        if (StringUtils.hasText(idempotencyKey)) {
+            UploadSession existing = uploadSessionRepository
+                    .findFirstByCoupleIdAndIdempotencyKey(owner.getCoupleId(), idempotencyKey)
+                    .orElse(null);
+            if (existing != null) {
+                return toResponse(existing);
+            }
+        }
+
+        UploadSession session = UploadSession.builder()
+                .id(UUID.randomUUID().toString())
+                .coupleId(owner.getCoupleId())
+                .ownerId(owner.getId())
+                .originalName(StringUtils.cleanPath(request.getFileName()))
+                .contentType(request.getContentType())
+                .totalSize(request.getSize())
+                .idempotencyKey(StringUtils.hasText(idempotencyKey) ? idempotencyKey : null)
+                .build();
+
+        try {
+            Files.createFile(partFile(session.getId()));
+        } catch (IOException e) {
+            log.error("Không tạo được file cho phiên upload: ", e);
+            throw new RuntimeException("Hệ thống không tạo được phiên upload!");
+        }
+
+        session = uploadSessionRepository.save(session);
+        log.info("Tạo phiên upload {} ({} bytes) cho couple: {}", session.getId(), session.getTotalSize(),
+                owner.getCoupleId());
+        return toResponse(session);
+    }
+
+    public UploadSessionResponse getSession(String sessionId, User user) {
+        return toResponse(findSession(sessionId, user));
+    }
+
+    /**
+     * Ghi một chunk bắt đầu tại offset. Offset phải khớp số byte server đã nhận,
+     * nếu lệch client cần hỏi lại offset rồi gửi tiếp từ đó.
+     */
+    public UploadSessionResponse appendChunk(String sessionId, long offset, long contentLength, InputStream body,
+            User user) {
+        UploadSession session = findSession(sessionId, user);
+        if (!"ACTIVE".equals(session.getStatus())) {
+            throw new ConflictException("Phiên upload này đã hoàn tất!");
+        }
+
+        ReentrantLock lock = writeLocks.computeIfAbsent(sessionId, id -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            throw new ConflictException("Phiên upload đang nhận một chunk khác!");
+        }
+        try {
+            // Đọc lại sau khi có lock để chắc offset là mới nhất
+            session = findSession(sessionId, user);
+            if (offset != session.getUploadedBytes()) {
+                throw new ConflictException("Offset không khớp, server đã nhận " + session.getUploadedBytes()
+                        + " bytes");
+            }
+            long remaining = session.getTotalSize() - offset;
+            if (contentLength > remaining) {
+                throw new BadRequestException("Chunk vượt quá kích thước file đã khai báo!");
+            }
+
+            ChunkWrite chunk;
+            try (FileChannel channel = FileChannel.open(partFile(sessionId), StandardOpenOption.WRITE)) {
+                chunk = writeAt(channel, body, offset, remaining);
+                channel.force(false);
+            } catch (IOException e) {
+                log.error("Không ghi được chunk cho phiên {}: ", sessionId, e);
+                throw new RuntimeException("Hệ thống không ghi được chunk!");
+            }
+
+            session.setUploadedBytes(offset + chunk.written());
+            session = uploadSessionRepository.save(session);
+            if (chunk.interrupted() != null) {
+                log.warn("Chunk của phiên {} bị ngắt sau {} bytes: {}", sessionId, chunk.written(),
+                        chunk.interrupted().getMessage());
+            }
+            return toResponse(session);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Đẩy file đã đủ byte lên storage và tạo MediaFile. Gọi lại (kể cả đồng thời) không upload lần hai.
+     */
+    public MediaFileResponse finalizeSession(String sessionId, String idempotencyKey, User user) {
+        UploadSession session = findSession(sessionId, user);
+        if (StringUtils.hasText(idempotencyKey) && session.getIdempotencyKey() != null
+                && !idempotencyKey.equals(session.getIdempotencyKey())) {
+            throw new ConflictException("Idempotency key không khớp với phiên upload!");
+        }
+        if ("COMPLETED".equals(session.getStatus())) {
+            return mediaService.getMediaFileResponse(session.getMediaFileId());
+        }
+        if (!Objects.equals(session.getUploadedBytes(), session.getTotalSize())) {
+            throw new BadRequestException("Phiên upload chưa nhận đủ dữ liệu!");
+        }
+
+        CompletableFuture<MediaFileResponse> future = new CompletableFuture<>();
+        CompletableFuture<MediaFileResponse> running = finalizing.putIfAbsent(sessionId, future);
+        if (running != null) {
+            return await(running);
+        }
+
+        try {
+            // Kiểm tra lại sau khi giành quyền finalize, phòng trường hợp lần trước vừa xong
+            UploadSession current = findSession(sessionId, user);
+            MediaFileResponse response;
+            if ("COMPLETED".equals(current.getStatus())) {
+                response = mediaService.getMediaFileResponse(current.getMediaFileId());
+            } else {
+                response = mediaService.uploadSpooledFile(partFile(sessionId), current.getOriginalName(),
+                        current.getContentType(), user, null);
+                current.setStatus("COMPLETED");
+                current.setMediaFileId(response.getId());
+                uploadSessionRepository.save(current);
+                deleteQuietly(partFile(sessionId));
+                writeLocks.remove(sessionId);
+            }
+            future.complete(response);
+            return response;
+        } catch (IOException e) {
+            log.error("Finalize phiên upload {} thất bại: ", sessionId, e);
+            RuntimeException failure = new RuntimeException("Hệ thống không tải file lên được!");
+            future.completeExceptionally(failure);
+            throw failure;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            finalizing.remove(sessionId, future);
+        }
+    }
+
+    /**
+     * Dọn các phiên bị bỏ dở quá lâu cùng file tạm của chúng.
+     */
+    @Scheduled(fixedDelayString = "${app.media.upload.session-cleanup-interval:PT1H}")
+    void purgeExpiredSessions() {
+        Instant cutoff = Instant.now().minus(sessionTtl);
+        for (UploadSession session : uploadSessionRepository.findByStatusAndUpdatedAtBefore("ACTIVE", cutoff)) {
+            deleteQuietly(partFile(session.getId()));
+            writeLocks.remove(session.getId());
+            uploadSessionRepository.delete(session);
+            log.info("Đã dọn phiên upload hết hạn: {}", session.getId());
+        }
+    }
+
+    private ChunkWrite writeAt(FileChannel channel, InputStream body, long position, long limit)
+            throws IOException {
+        ReadableByteChannel source = Channels.newChannel(body);
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+        long written = 0;
+        while (written < limit) {
+            buffer.clear();
+            if (limit - written < buffer.capacity()) {
+                buffer.limit((int) (limit - written));
+            }
+            int read;
+            try {
+                read = source.read(buffer);
+            } catch (IOException e) {
+                // Client rớt mạng giữa chừng: vẫn giữ phần đã nhận để lần sau gửi tiếp
+                return new ChunkWrite(written, e);
+            }
+            if (read < 0) {
+                break;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer, position + written);
+            }
+        }
+        return new ChunkWrite(written, null);
+    }
+
+    private record ChunkWrite(long written, IOException interrupted) {
+    }
+
+    private MediaFileResponse await(CompletableFuture<MediaFileResponse> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private UploadSession findSession(String sessionId, User user) {
+        if (user.getCoupleId() == null) {
+            throw new ResourceNotFoundException("Upload session", "id", sessionId);
+        }
+        return uploadSessionRepository.findByIdAndCoupleId(sessionId, user.getCoupleId())
+                .orElseThrow(() -> new ResourceNotFoundException("Upload session", "id", sessionId));
+    }
+
+    private Path partFile(String sessionId) {
+        return sessionDir.resolve(sessionId + ".part");
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Không xóa được file tạm {}: {}", path, e.getMessage());
+        }
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session) {
+        return UploadSessionResponse.builder()
+                .id(session.getId())
+                .originalName(session.getOriginalName())
+                .contentType(session.getContentType())
+                .size(session.getTotalSize())
+                .offset(session.getUploadedBytes())
+                .status(session.getStatus())
+                .mediaFileId(session.getMediaFileId())
+                .createdAt(session.getCreatedAt())
+                .updatedAt(session.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.couple.anniversary.domain.media.storage;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.utils.ObjectUtils;
+import com.couple.anniversary.common.constant.AppConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.storage.provider", havingValue = "cloudinary", matchIfMissing = true)
+public class CloudinaryStorageProvider implements StorageProvider {
+
+    private final Cloudinary cloudinary;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    @Override
+    public StoredObject store(InputStream in, StorageRequest request, UploadProgressListener progressListener)
+            throws IOException {
+        Map<String, Object> options = new HashMap<>();
+        // "auto" để Cloudinary tự nhận diện video/image
+        options.put("resource_type", "auto");
+        String publicId = keyFor(request);
+        if (publicId != null) {
+            // public_id đầy đủ cả folder: key giống nhau ở cả chế độ fixed folder lẫn dynamic folder
+            options.put("public_id", publicId);
+        } else {
+            options.put("folder", request.getFolder());
+        }
+        if (request.getTransformation() != null) {
+            options.put("transformation", request.getTransformation());
+        }
+
+        // Stream theo từng chunk cố định, không đọc cả file vào heap
+        Map<?, ?> uploadResult = cloudinary.uploader().uploadLarge(in, options, AppConstants.UPLOAD_CHUNK_SIZE,
+                progressListener == null ? null : progressListener::onProgress);
+
+        return new StoredObject((String) uploadResult.get("public_id"), (String) uploadResult.get("secure_url"));
+    }
+
+    @Override
+    public String keyFor(StorageRequest request) {
+        return request.getPublicId() == null ? null : request.getFolder() + "/" + request.getPublicId();
+    }
+
+    @Override
+    public InputStream open(String key, String url, long start, long length) throws IOException {
+        // CDN của Cloudinary hỗ trợ Range: chỉ kéo đúng đoạn cần đọc thay vì cả object
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header(HttpHeaders.RANGE, "bytes=" + start + "-" + (start + length - 1))
+                .timeout(Duration.ofMinutes(5))
+                .GET()
+                .build();
+        HttpResponse<InputStream> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while fetching " + key);
+        }
+
+        InputStream body = response.body();
+        if (response.statusCode() == HttpStatus.PARTIAL_CONTENT.value()) {
+            return body;
+        }
+        if (response.statusCode() == HttpStatus.OK.value()) {
+            // Server bỏ qua Range thì tự bỏ phần đầu
+            body.skipNBytes(start);
+            return body;
+        }
+        body.close();
+        throw new IOException("Cloudinary trả về " + response.statusCode() + " cho " + key);
+    }
+
+    @Override
+    public void delete(String key, String mediaType) throws IOException {
+        cloudinary.uploader().destroy(key, ObjectUtils.asMap("resource_type", resourceType(mediaType)));
+    }
+
+    @Override
+    public void deleteAll(List<String> keys, String mediaType) throws IOException {
+        // Admin API delete_resources nhận tối đa 100 public id mỗi lần gọi
+        try {
+            cloudinary.api().deleteResources(keys, ObjectUtils.asMap("resource_type", resourceType(mediaType)));
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Cloudinary không xóa được " + keys.size() + " object: " + e.getMessage(), e);
+        }
+    }
+
+    private static String resourceType(String mediaType) {
+        // Xác định resource_type để Cloudinary biết đường mà xóa
+        return AppConstants.MEDIA_TYPE_VIDEO.equals(mediaType) ? "video" : "image";
+    }
+}
@@ -0,0 +1,216 @@
+package com.couple.anniversary.domain.media.storage;
+
+import com.couple.anniversary.common.exception.ResourceNotFoundException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Lưu media trên ổ đĩa local theo địa chỉ nội dung: {@code <folder>/<coupleId>/ab/cd/<sha256>.<ext>}.
+ * Folder và couple tách không gian key: cùng nội dung chỉ dùng chung file trong album của một couple,
+ * không bao giờ giữa hai couple hay giữa media và avatar. Key cũ dạng {@code ab/cd/<sha256>.<ext>} vẫn đọc được.
+ * Hai cấp thư mục theo 4 ký tự đầu của hash giữ mỗi thư mục nhỏ và đều nhau.
+ * Ghi bằng FileChannel, phục vụ bằng sendfile/transferTo qua {@code LocalMediaController}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.storage.provider", havingValue = "local")
+public class LocalStorageProvider implements StorageProvider {
+
+    public static final String URL_PREFIX = "/uploads/media/";
+
+    private static final long TRANSFER_CHUNK = 1024 * 1024;
+    private static final Pattern KEY_PATTERN = Pattern.compile(
+            "^([a-z0-9_-]+/)*[0-9a-f]{2}/[0-9a-f]{2}/[0-9a-f]{64}(\\.[a-z0-9]{1,5})?$");
+    private static final Pattern FOLDER_PATTERN = Pattern.compile("^[a-z0-9_-]+(/[a-z0-9_-]+)*$");
+    private static final Pattern EXTENSION_PATTERN = Pattern.compile("^[a-z0-9]{1,5}$");
+
+    private final Path root;
+    private final Path tmpDir;
+    private final String publicBaseUrl;
+    // store() giữ read lock trong lúc kiểm tra/đưa file vào chỗ, runExclusive() giữ write lock
+    private final ReadWriteLock publishLock = new ReentrantReadWriteLock();
+
+    public LocalStorageProvider(@Value("${app.upload.dir}") String uploadDir,
+            @Value("${app.work.dir}") String workDir,
+            @Value("${app.storage.local.public-base-url:http://localhost:8080}") String publicBaseUrl) {
+        this.root = Paths.get(uploadDir, "media").toAbsolutePath().normalize();
+        // File đang ghi dở không được nằm dưới /uploads/** (public)
+        this.tmpDir = Paths.get(workDir, "tmp").toAbsolutePath().normalize();
+        this.publicBaseUrl = StringUtils.trimTrailingCharacter(publicBaseUrl, '/');
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(root);
+        Files.createDirectories(tmpDir);
+    }
+
+    @Override
+    public StoredObject store(InputStream in, StorageRequest request, UploadProgressListener progressListener)
+            throws IOException {
+        // Caller chưa tính hash (ví dụ avatar) thì vừa ghi vừa băm
+        MessageDigest digest = request.getContentHash() == null ? newSha256() : null;
+        InputStream source = digest != null ? new DigestInputStream(in, digest) : in;
+
+        Path tmp = Files.createTempFile(tmpDir, "store-", ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ReadableByteChannel channel = Channels.newChannel(source);
+                long position = 0;
+                long transferred;
+                while ((transferred = out.transferFrom(channel, position, TRANSFER_CHUNK)) > 0) {
+                    position += transferred;
+                    if (progressListener != null) {
+                        progressListener.onProgress(position, request.getSize());
+                    }
+                }
+                out.force(false);
+            }
+
+            String hash = digest != null ? HexFormat.of().formatHex(digest.digest()) : request.getContentHash();
+            String key = keyOf(request, hash);
+            Path target = resolve(key);
+            publishLock.readLock().lock();
+            try {
+                if (!Files.exists(target)) {
+                    Files.createDirectories(target.getParent());
+                    try {
+                        moveIntoPlace(tmp, target);
+                    } catch (FileAlreadyExistsException e) {
+                        // Một request khác vừa ghi cùng nội dung, dùng luôn file đó
+                        log.debug("Object {} đã tồn tại", key);
+                    }
+                }
+            } finally {
+                publishLock.readLock().unlock();
+            }
+            return new StoredObject(key, publicBaseUrl + URL_PREFIX + key);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Đưa file tạm vào vị trí cuối bằng một lần rename nguyên tử. Work dir nằm khác ổ đĩa với
+     * upload dir thì không rename thẳng được: chép sang file ẩn cạnh target trước rồi mới rename.
+     */
+    private void moveIntoPlace(Path tmp, Path target) throws IOException {
+        try {
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            return;
+        } catch (AtomicMoveNotSupportedException e) {
+            log.debug("Work dir khác filesystem với {}, chép rồi rename", root);
+        }
+        Path sibling = Files.createTempFile(target.getParent(), ".store-", ".tmp");
+        try {
+            Files.copy(tmp, sibling, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(sibling, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(sibling);
+        }
+    }
+
+    @Override
+    public String keyFor(StorageRequest request) {
+        return request.getContentHash() == null ? null : keyOf(request, request.getContentHash());
+    }
+
+    @Override
+    public String urlOf(String key) {
+        return publicBaseUrl + URL_PREFIX + key;
+    }
+
+    @Override
+    public void runExclusive(Runnable action) {
+        publishLock.writeLock().lock();
+        try {
+            action.run();
+        } finally {
+            publishLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public InputStream open(String key, String url, long start, long length) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        channel.position(start);
+        return Channels.newInputStream(channel);
+    }
+
+    @Override
+    public void delete(String key, String mediaType) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public int maxDeleteBatchSize() {
+        return 500;
+    }
+
+    @Override
+    public boolean isRemote() {
+        return false;
+    }
+
+    /**
+     * Đường dẫn tuyệt đối của object, key sai định dạng (ví dụ chứa ../) bị từ chối.
+     */
+    public Path resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new ResourceNotFoundException("Media object", "key", key);
+        }
+        return root.resolve(key);
+    }
+
+    private String keyOf(StorageRequest request, String hash) {
+        String folder = request.getFolder() == null ? "" : request.getFolder().toLowerCase(Locale.ROOT);
+        if (!FOLDER_PATTERN.matcher(folder).matches()) {
+            throw new IllegalArgumentException("Folder không hợp lệ: " + request.getFolder());
+        }
+        String namespace = request.getCoupleId() == null ? folder : folder + "/" + request.getCoupleId();
+        return namespace + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash
+                + extensionOf(request.getOriginalName());
+    }
+
+    private String extensionOf(String originalName) {
+        String extension = StringUtils.getFilenameExtension(originalName);
+        if (extension == null) {
+            return "";
+        }
+        extension = extension.toLowerCase(Locale.ROOT);
+        return EXTENSION_PATTERN.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.couple.anniversary.domain.media.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Cache đọc xuyên (read-through) trên ổ đĩa cho blob ở storage remote, key là public id của media.
+ * Giới hạn theo tổng số byte, loại bỏ theo LRU. Nhiều request miss cùng một blob chỉ tải về một lần.
+ */
+@Slf4j
+@Component
+public class MediaBlobCache {
+
+    /**
+     * Mở stream đọc toàn bộ blob từ storage khi cache miss.
+     */
+    @FunctionalInterface
+    public interface BlobLoader {
+        InputStream open() throws IOException;
+    }
+
+    private record Entry(Path path, long size) {
+    }
+
+    private final boolean enabled;
+    private final Path cacheDir;
+    private final Path tmpDir;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+
+    // access-order = true: get() đẩy entry xuống cuối, phần tử đầu là ít dùng nhất
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, CompletableFuture<Path>> inFlight = new ConcurrentHashMap<>();
+    private long currentBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public MediaBlobCache(@Value("${app.media.cache.enabled:true}") boolean enabled,
+            @Value("${app.media.cache.dir:${app.work.dir}/blob-cache}") String cacheDir,
+            @Value("${app.media.cache.max-size:2GB}") DataSize maxSize,
+            @Value("${app.media.cache.max-entry-size:50MB}") DataSize maxEntrySize,
+            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cacheDir = Paths.get(cacheDir).toAbsolutePath().normalize();
+        this.tmpDir = this.cacheDir.resolve("tmp");
+        this.maxBytes = maxSize.toBytes();
+        this.maxEntryBytes = Math.min(maxEntrySize.toBytes(), maxBytes);
+
+        this.hits = Counter.builder("media.blob.cache.requests").tag("result", "hit")
+                .description("Số lần đọc blob có sẵn trong cache").register(meterRegistry);
+        this.misses = Counter.builder("media.blob.cache.requests").tag("result", "miss")
+                .description("Số lần phải tải blob từ storage").register(meterRegistry);
+        this.evictions = Counter.builder("media.blob.cache.evictions")
+                .description("Số blob bị loại khỏi cache").register(meterRegistry);
+        Gauge.builder("media.blob.cache.size", this, MediaBlobCache::currentBytes)
+                .baseUnit("bytes").register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Files.createDirectories(tmpDir);
+        try (Stream<Path> tmpFiles = Files.list(tmpDir)) {
+            for (Path tmp : tmpFiles.toList()) {
+                Files.deleteIfExists(tmp);
+            }
+        }
+
+        // Nạp lại cache còn trên ổ đĩa sau khi restart, file sửa gần nhất coi như dùng gần nhất
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(cacheDir)) {
+            files = new ArrayList<>(stream.filter(Files::isRegularFile).toList());
+        }
+        files.sort(Comparator.comparing(this::lastModifiedMillis));
+        synchronized (this) {
+            for (Path file : files) {
+                long size = Files.size(file);
+                entries.put(file.getFileName().toString(), new Entry(file, size));
+                currentBytes += size;
+            }
+            evictIfNeeded(null);
+        }
+        log.info("Blob cache tại {}: {} file, {} byte", cacheDir, entries.size(), currentBytes);
+    }
+
+    /**
+     * Blob kích thước này có nên đi qua cache không. Blob quá lớn (video dài) đọc thẳng theo range.
+     */
+    public boolean accepts(long size) {
+        return enabled && size > 0 && size <= maxEntryBytes;
+    }
+
+    /**
+     * Mở blob từ cache, miss thì tải toàn bộ từ storage trước. Channel luôn được mở trước khi
+     * entry có thể bị loại (hit: trong lock; miss: ngay trên file tạm), nên vẫn đọc được
+     * kể cả khi file bị loại khỏi cache trong lúc đang phục vụ.
+     */
+    public FileChannel open(String key, BlobLoader loader) throws IOException {
+        String name = fileNameOf(key);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(name);
+            if (entry != null) {
+                try {
+                    FileChannel channel = FileChannel.open(entry.path(), StandardOpenOption.READ);
+                    hits.increment();
+                    return channel;
+                } catch (NoSuchFileException e) {
+                    // File bị xóa ngoài ý muốn, coi như miss
+                    entries.remove(name);
+                    currentBytes -= entry.size();
+                }
+            }
+        }
+
+        misses.increment();
+        return fetch(name, loader);
+    }
+
+    /**
+     * Bỏ blob khỏi cache, gọi khi object trên storage bị xóa.
+     */
+    public void evict(String key) {
+        if (enabled && key != null) {
+            remove(fileNameOf(key));
+        }
+    }
+
+    public synchronized long currentBytes() {
+        return currentBytes;
+    }
+
+    private FileChannel fetch(String name, BlobLoader loader) throws IOException {
+        CompletableFuture<Path> created = new CompletableFuture<>();
+        CompletableFuture<Path> existing = inFlight.putIfAbsent(name, created);
+        if (existing != null) {
+            Path path = await(existing);
+            try {
+                return FileChannel.open(path, StandardOpenOption.READ);
+            } catch (NoSuchFileException e) {
+                // Bị loại ngay sau khi request kia tải xong: tự tải lại một lần
+                return download(name, loader);
+            }
+        }
+
+        try {
+            FileChannel channel = download(name, loader);
+            created.complete(cacheDir.resolve(name));
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(name, created);
+        }
+    }
+
+    /**
+     * Tải blob vào file tạm rồi mở channel trên chính file đó trước khi move vào cache:
+     * channel giữ inode nên entry bị loại ngay sau đó cũng không làm hỏng lần đọc này.
+     */
+    private FileChannel download(String name, BlobLoader loader) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir, "blob-", ".tmp");
+        FileChannel channel = null;
+        try {
+            long size;
+            try (InputStream in = loader.open()) {
+                size = Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            channel = FileChannel.open(tmp, StandardOpenOption.READ);
+            Path target = cacheDir.resolve(name);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            synchronized (this) {
+                Entry previous = entries.put(name, new Entry(target, size));
+                if (previous != null) {
+                    currentBytes -= previous.size();
+                }
+                currentBytes += size;
+                evictIfNeeded(name);
+            }
+            return channel;
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            throw e;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void evictIfNeeded(String keep) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            iterator.remove();
+            currentBytes -= eldest.getValue().size();
+            deleteQuietly(eldest.getValue().path());
+            evictions.increment();
+        }
+    }
+
+    private void remove(String name) {
+        Entry removed;
+        synchronized (this) {
+            removed = entries.remove(name);
+            if (removed != null) {
+                currentBytes -= removed.size();
+            }
+        }
+        if (removed != null) {
+            deleteQuietly(removed.path());
+        }
+    }
+
+    private Path await(CompletableFuture<Path> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Bị ngắt khi chờ tải blob");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Không thể tải blob vào cache", e.getCause());
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Không thể xóa blob cache {}: {}", path, e.getMessage());
+        }
+    }
+
+    private long lastModifiedMillis(Path path) {
+        try {
+            return Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Public id có dấu "/" và ký tự tùy ý, băm ra tên file phẳng và an toàn.
+     */
+    private static String fileNameOf(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
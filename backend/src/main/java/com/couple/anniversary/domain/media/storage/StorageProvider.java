@@ -0,0 +1,78 @@
+package com.couple.anniversary.domain.media.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Nơi lưu byte của media (Cloudinary, ổ đĩa local...). Service chỉ làm việc qua interface này,
+ * provider được chọn bằng {@code app.storage.provider}.
+ */
+public interface StorageProvider {
+
+    /**
+     * Stream nội dung lên storage, không đọc cả file vào heap.
+     */
+    StoredObject store(InputStream in, StorageRequest request, UploadProgressListener progressListener)
+            throws IOException;
+
+    /**
+     * Key mà {@link #store} sẽ trả về cho request này, biết trước khi đẩy byte lên.
+     * Null nếu provider chỉ biết key sau khi lưu xong.
+     */
+    default String keyFor(StorageRequest request) {
+        return null;
+    }
+
+    /**
+     * URL công khai của một key đã lưu, null nếu provider không suy ra được từ key
+     * (Cloudinary: URL còn phụ thuộc version). Dùng để tìm bản ghi lưu URL thay vì key, như avatar.
+     */
+    default String urlOf(String key) {
+        return null;
+    }
+
+    /**
+     * Chạy action khi không có {@link #store} nào đang đưa object vào chỗ. Provider dùng chung object giữa
+     * nhiều bản ghi (local: cùng nội dung thì cùng file) override để outbox "kiểm tra còn ai trỏ tới rồi xóa"
+     * không chen vào giữa một lần store vừa thấy object đã có và bỏ qua việc ghi.
+     */
+    default void runExclusive(Runnable action) {
+        action.run();
+    }
+
+    /**
+     * Mở object đã lưu để đọc từ byte {@code start}, chỉ lấy đúng đoạn {@code length} byte từ storage.
+     * Caller đọc tối đa {@code length} byte rồi đóng stream.
+     */
+    InputStream open(String key, String url, long start, long length) throws IOException;
+
+    /**
+     * Xóa object theo key. mediaType là PHOTO/VIDEO như trên MediaFile.
+     */
+    void delete(String key, String mediaType) throws IOException;
+
+    /**
+     * Xóa nhiều object cùng loại. Mặc định xóa từng cái; provider có API xóa hàng loạt thì override.
+     * Key không còn tồn tại không bị coi là lỗi.
+     */
+    default void deleteAll(List<String> keys, String mediaType) throws IOException {
+        for (String key : keys) {
+            delete(key, mediaType);
+        }
+    }
+
+    /**
+     * Số key tối đa cho một lần gọi {@link #deleteAll}.
+     */
+    default int maxDeleteBatchSize() {
+        return 100;
+    }
+
+    /**
+     * Storage nằm ngoài server (mỗi lần đọc tốn một lượt mạng), khi đó blob đáng được cache local.
+     */
+    default boolean isRemote() {
+        return true;
+    }
+}
@@ -0,0 +1,18 @@
+package com.couple.anniversary.domain.media.storage;
+
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class StorageRequest {
+
+    String folder; // ví dụ anniversary/media, anniversary/avatars
+    Long coupleId; // couple sở hữu object (media), null với avatar
+    String originalName;
+    String contentType;
+    long size;
+    String contentHash; // SHA-256 hex nếu caller đã tính sẵn, có thể null
+    String transformation; // chỉ provider hỗ trợ biến đổi ảnh (Cloudinary) mới dùng
+    String publicId; // tên object do caller chọn trước (trong folder), có thể null
+}
@@ -0,0 +1,7 @@
+package com.couple.anniversary.domain.media.storage;
+
+/**
+ * Kết quả lưu: key để tìm/xóa lại trên storage và URL public để client tải.
+ */
+public record StoredObject(String key, String url) {
+}
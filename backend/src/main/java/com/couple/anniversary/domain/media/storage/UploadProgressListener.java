@@ -0,0 +1,7 @@
+package com.couple.anniversary.domain.media.storage;
+
+@FunctionalInterface
+public interface UploadProgressListener {
+
+    void onProgress(long bytesUploaded, long totalBytes);
+}
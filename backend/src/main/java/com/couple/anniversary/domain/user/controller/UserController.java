@@ -1,8 +1,9 @@
 package com.couple.anniversary.domain.user.controller;
 
-import com.cloudinary.Cloudinary;
-import com.cloudinary.utils.ObjectUtils;
 import com.couple.anniversary.common.dto.ApiResponse;
+import com.couple.anniversary.domain.media.storage.StorageProvider;
+import com.couple.anniversary.domain.media.storage.StorageRequest;
+import com.couple.anniversary.domain.media.storage.StoredObject;
 import com.couple.anniversary.domain.user.dto.UpdateProfileRequest;
 import com.couple.anniversary.domain.user.dto.UserResponse;
 import com.couple.anniversary.domain.user.entity.User;
@@ -23,7 +24,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.Map;
+import java.io.InputStream;
 
 @Slf4j
 @RestController
@@ -34,7 +35,7 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
-    private final Cloudinary cloudinary;
+    private final StorageProvider storageProvider;
 
     @Operation(summary = "Get current user", description = "Get the current authenticated user's information")
     @ApiResponses(value = {
@@ -77,13 +78,19 @@ public class UserController {
         User user = userService.findByUsername(userDetails.getUsername());
 
         try {
-            // Upload to Cloudinary
-            Map<?, ?> uploadResult = cloudinary.uploader().upload(file.getBytes(), ObjectUtils.asMap(
-                    "resource_type", "image",
-                    "folder", "anniversary/avatars",
-                    "transformation", "c_fill,w_200,h_200"));
+            // Stream to storage in fixed-size chunks instead of buffering the whole file
+            StoredObject stored;
+            try (InputStream in = file.getInputStream()) {
+                stored = storageProvider.store(in, StorageRequest.builder()
+                        .folder("anniversary/avatars")
+                        .originalName(file.getOriginalFilename())
+                        .contentType(file.getContentType())
+                        .size(file.getSize())
+                        .transformation("c_fill,w_200,h_200")
+                        .build(), null);
+            }
 
-            String avatarUrl = (String) uploadResult.get("secure_url");
+            String avatarUrl = stored.url();
             user.setAvatarUrl(avatarUrl);
             User updatedUser = userService.save(user);
 
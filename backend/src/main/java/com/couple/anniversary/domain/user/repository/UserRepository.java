@@ -2,8 +2,12 @@ package com.couple.anniversary.domain.user.repository;
 
 import com.couple.anniversary.domain.user.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +20,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByInviteCode(String inviteCode);
 
     boolean existsByEmail(String email);
+
+    @Query("SELECT u.avatarUrl FROM User u WHERE u.avatarUrl IN :urls")
+    List<String> findAvatarUrlsIn(@Param("urls") Collection<String> urls);
 }
@@ -2,6 +2,7 @@ package com.couple.anniversary.domain.user.service;
 
 import com.couple.anniversary.common.exception.BadRequestException;
 import com.couple.anniversary.common.exception.ResourceNotFoundException;
+import com.couple.anniversary.domain.couple.service.CoupleVersionService;
 import com.couple.anniversary.domain.user.dto.UpdateProfileRequest;
 import com.couple.anniversary.domain.user.entity.User;
 import com.couple.anniversary.domain.user.repository.UserRepository;
@@ -17,6 +18,7 @@ import java.util.UUID;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final CoupleVersionService coupleVersionService;
 
     public User findByUsername(String username) {
         return userRepository.findByUsername(username)
@@ -38,6 +40,8 @@ public class UserService {
         if (user.getInviteCode() == null || user.getInviteCode().isEmpty()) {
             user.setInviteCode(generateInviteCode());
         }
+        // Tên / avatar nằm trong thông tin couple của cả hai người
+        coupleVersionService.bump(user.getCoupleId());
         return userRepository.save(user);
     }
 
@@ -56,6 +60,7 @@ public class UserService {
         if (request.getBirthday() != null) {
             user.setBirthday(request.getBirthday());
         }
+        coupleVersionService.bump(user.getCoupleId());
         return userRepository.save(user);
     }
 
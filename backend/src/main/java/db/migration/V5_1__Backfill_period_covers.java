@@ -0,0 +1,93 @@
+package db.migration;
+
+import com.couple.anniversary.domain.media.service.OnThisDayService;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Chọn ảnh bìa cho các kỳ timeline V5 vừa đếm: ảnh mới nhất theo (media_date, id),
+ * chia kỳ theo múi giờ của từng couple giống MediaTimelineService.
+ */
+public class V5_1__Backfill_period_covers extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    // month = 0 là cả năm, day = 0 là cả tháng
+    private record Period(long coupleId, int year, int month, int day) {
+    }
+
+    private record Cover(long id, Instant mediaDate) {
+
+        boolean isNewerThan(Cover other) {
+            int byDate = mediaDate.compareTo(other.mediaDate);
+            return byDate > 0 || (byDate == 0 && id > other.id);
+        }
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        Map<Long, ZoneId> zones = new HashMap<>();
+        try (Statement select = connection.createStatement();
+                ResultSet rows = select.executeQuery("SELECT id, time_zone FROM couples")) {
+            while (rows.next()) {
+                zones.put(rows.getLong("id"), OnThisDayService.parseZone(rows.getString("time_zone")));
+            }
+        }
+
+        Map<Period, Cover> covers = new HashMap<>();
+        try (Statement select = connection.createStatement();
+                ResultSet rows = select.executeQuery("SELECT id, couple_id, media_date FROM media_files "
+                        + "WHERE type = 'PHOTO' AND status = 'READY' AND couple_id IS NOT NULL "
+                        + "AND media_date IS NOT NULL")) {
+            while (rows.next()) {
+                long coupleId = rows.getLong("couple_id");
+                Cover cover = new Cover(rows.getLong("id"), rows.getTimestamp("media_date").toInstant());
+                LocalDate date = cover.mediaDate().atZone(zones.computeIfAbsent(coupleId,
+                        id -> OnThisDayService.parseZone(null))).toLocalDate();
+                for (Period period : List.of(
+                        new Period(coupleId, date.getYear(), date.getMonthValue(), date.getDayOfMonth()),
+                        new Period(coupleId, date.getYear(), date.getMonthValue(), 0),
+                        new Period(coupleId, date.getYear(), 0, 0))) {
+                    covers.merge(period, cover, (current, candidate) -> candidate.isNewerThan(current)
+                            ? candidate : current);
+                }
+            }
+        }
+
+        try (PreparedStatement update = connection.prepareStatement("UPDATE media_period_stats "
+                + "SET cover_media_id = ?, cover_media_date = ? WHERE couple_id = ? AND period_year = ? "
+                + "AND period_month = ? AND period_day = ?")) {
+            int pending = 0;
+            for (Map.Entry<Period, Cover> entry : covers.entrySet()) {
+                Period period = entry.getKey();
+                update.setLong(1, entry.getValue().id());
+                update.setTimestamp(2, Timestamp.from(entry.getValue().mediaDate()));
+                update.setLong(3, period.coupleId());
+                update.setInt(4, period.year());
+                update.setInt(5, period.month());
+                update.setInt(6, period.day());
+                update.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package db.migration;
+
+import com.couple.anniversary.domain.media.search.SearchText;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Tách media_files.tags (chuỗi phân cách bằng dấu phẩy) thành các dòng media_tags,
+ * chuẩn hóa bằng đúng SearchText.parseTags mà ứng dụng dùng khi sửa tags.
+ */
+public class V7__Backfill_media_tags extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        try (Statement select = connection.createStatement();
+                ResultSet rows = select.executeQuery("SELECT id, couple_id, tags FROM media_files "
+                        + "WHERE couple_id IS NOT NULL AND tags IS NOT NULL AND tags <> ''");
+                PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO media_tags (media_id, couple_id, tag) VALUES (?, ?, ?)")) {
+            int pending = 0;
+            while (rows.next()) {
+                for (String tag : SearchText.parseTags(rows.getString("tags"))) {
+                    insert.setLong(1, rows.getLong("id"));
+                    insert.setLong(2, rows.getLong("couple_id"));
+                    insert.setString(3, tag);
+                    insert.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        insert.executeBatch();
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) {
+                insert.executeBatch();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+-- Schema như lúc còn dùng ddl-auto: update. Database đã có sẵn bảng thì Flyway
+-- baseline ở version 1 và bỏ qua file này (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE users (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    username      VARCHAR(255) NOT NULL,
+    password      VARCHAR(255) NOT NULL,
+    role          VARCHAR(255) NOT NULL,
+    email         VARCHAR(255),
+    display_name  VARCHAR(255),
+    birthday      DATETIME(6),
+    avatar_url    VARCHAR(255),
+    couple_id     BIGINT,
+    invite_code   VARCHAR(255),
+    created_at    DATETIME(6),
+    updated_at    DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT uk_users_invite_code UNIQUE (invite_code)
+) ENGINE = InnoDB;
+
+CREATE TABLE couples (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    user1_id          BIGINT       NOT NULL,
+    user2_id          BIGINT       NOT NULL,
+    anniversary_date  DATETIME(6),
+    created_at        DATETIME(6),
+    status            VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE couple_requests (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    from_user_id  BIGINT       NOT NULL,
+    to_user_id    BIGINT       NOT NULL,
+    status        VARCHAR(255) NOT NULL,
+    created_at    DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE media_files (
+    id             BIGINT        NOT NULL AUTO_INCREMENT,
+    file_name      VARCHAR(255)  NOT NULL,
+    original_name  VARCHAR(255)  NOT NULL,
+    content_type   VARCHAR(255),
+    size           BIGINT,
+    type           VARCHAR(255)  NOT NULL,
+    caption        VARCHAR(1000),
+    tags           VARCHAR(255),
+    media_date     DATETIME(6),
+    couple_id      BIGINT,
+    path           VARCHAR(255)  NOT NULL,
+    created_at     DATETIME(6)   NOT NULL,
+    owner_id       BIGINT        NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_media_owner FOREIGN KEY (owner_id) REFERENCES users (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE couple_settings (
+    couple_id         BIGINT       NOT NULL,
+    background_type   VARCHAR(255),
+    background_color  VARCHAR(255),
+    background_image  VARCHAR(255),
+    font_family       VARCHAR(255),
+    PRIMARY KEY (couple_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE special_dates (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    couple_id       BIGINT       NOT NULL,
+    title           VARCHAR(255) NOT NULL,
+    date            DATETIME(6)  NOT NULL,
+    type            VARCHAR(255) NOT NULL,
+    notify_enabled  BIT          NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE notifications (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id     BIGINT       NOT NULL,
+    title       VARCHAR(255) NOT NULL,
+    message     VARCHAR(255) NOT NULL,
+    is_read     BIT          NOT NULL,
+    created_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_media_owner ON media_files (owner_id);
+CREATE INDEX idx_media_type ON media_files (type);
@@ -0,0 +1,46 @@
+-- Các cột/bảng của pipeline upload đã thêm khi schema còn do Hibernate tự cập nhật.
+
+ALTER TABLE media_files
+    ADD COLUMN content_hash   VARCHAR(64),
+    ADD COLUMN placeholder    VARCHAR(64),
+    ADD COLUMN dominant_color VARCHAR(7),
+    ADD COLUMN width          INT,
+    ADD COLUMN height         INT,
+    ADD COLUMN orientation    INT,
+    -- Bản ghi có từ trước đều đã upload xong
+    ADD COLUMN status         VARCHAR(16) NOT NULL DEFAULT 'READY';
+
+CREATE INDEX idx_media_couple_hash ON media_files (couple_id, content_hash);
+CREATE INDEX idx_media_status_created ON media_files (status, created_at);
+
+CREATE TABLE upload_sessions (
+    id               VARCHAR(36)  NOT NULL,
+    couple_id        BIGINT       NOT NULL,
+    owner_id         BIGINT       NOT NULL,
+    original_name    VARCHAR(255) NOT NULL,
+    content_type     VARCHAR(255),
+    total_size       BIGINT       NOT NULL,
+    uploaded_bytes   BIGINT       NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    idempotency_key  VARCHAR(100),
+    media_file_id    BIGINT,
+    created_at       DATETIME(6)  NOT NULL,
+    updated_at       DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_upload_session_couple_key ON upload_sessions (couple_id, idempotency_key);
+CREATE INDEX idx_upload_session_status_updated ON upload_sessions (status, updated_at);
+
+CREATE TABLE media_deletion_outbox (
+    id               BIGINT       NOT NULL AUTO_INCREMENT,
+    storage_key      VARCHAR(255) NOT NULL,
+    media_type       VARCHAR(16)  NOT NULL,
+    attempts         INT          NOT NULL,
+    next_attempt_at  DATETIME(6)  NOT NULL,
+    last_error       VARCHAR(500),
+    created_at       DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_media_deletion_next_attempt ON media_deletion_outbox (next_attempt_at);
@@ -0,0 +1,11 @@
+-- Mọi truy vấn gallery lọc theo couple_id + status và sắp theo (media_date, id):
+-- index ghép cho phép seek và đọc đúng thứ tự, không full scan, không filesort.
+
+-- Bản ghi rất cũ có thể thiếu media_date; keyset pagination cần giá trị này
+UPDATE media_files SET media_date = created_at WHERE media_date IS NULL;
+
+CREATE INDEX idx_media_couple_status_date ON media_files (couple_id, status, media_date, id);
+CREATE INDEX idx_media_couple_type_status_date ON media_files (couple_id, type, status, media_date, id);
+
+-- Chỉ có 2 giá trị PHOTO/VIDEO, đã được index ghép ở trên thay thế
+DROP INDEX idx_media_type ON media_files;
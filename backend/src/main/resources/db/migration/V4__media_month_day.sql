@@ -0,0 +1,13 @@
+-- "Ngày này năm xưa": so khớp trên cột month_day (tháng * 100 + ngày theo múi giờ couple)
+-- thay vì MONTH()/DAY() trên media_date, để truy vấn dùng được index.
+
+ALTER TABLE couples ADD COLUMN time_zone VARCHAR(64);
+
+ALTER TABLE media_files ADD COLUMN month_day INT;
+
+-- media_date lưu theo UTC; couple hiện có dùng múi giờ mặc định Asia/Ho_Chi_Minh (UTC+7, không đổi giờ mùa hè)
+UPDATE media_files
+SET month_day = CAST(DATE_FORMAT(CONVERT_TZ(media_date, '+00:00', '+07:00'), '%m%d') AS UNSIGNED)
+WHERE media_date IS NOT NULL;
+
+CREATE INDEX idx_media_couple_month_day ON media_files (couple_id, month_day, status, media_date);
@@ -0,0 +1,39 @@
+-- Thống kê số media theo năm / tháng / ngày cho timeline và lịch.
+-- period_month = 0: dòng tổng của năm; period_day = 0: dòng tổng của tháng.
+-- Ảnh bìa của kỳ là ảnh mới nhất theo (media_date, id) như thứ tự gallery; lưu kèm media_date của ảnh bìa
+-- để upsert so được ảnh mới thêm vào mà không phải join media_files.
+
+CREATE TABLE media_period_stats (
+    id              BIGINT  NOT NULL AUTO_INCREMENT,
+    couple_id       BIGINT  NOT NULL,
+    period_year     INT     NOT NULL,
+    period_month    INT     NOT NULL,
+    period_day      INT     NOT NULL,
+    media_count     INT     NOT NULL,
+    cover_media_id  BIGINT,
+    cover_media_date DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_media_period UNIQUE (couple_id, period_year, period_month, period_day)
+) ENGINE = InnoDB;
+
+-- Số media của dữ liệu hiện có, theo múi giờ mặc định Asia/Ho_Chi_Minh (UTC+7) giống V4; ảnh bìa do V5_1 chọn
+INSERT INTO media_period_stats (couple_id, period_year, period_month, period_day, media_count)
+SELECT couple_id, YEAR(local_date), MONTH(local_date), DAY(local_date), COUNT(*)
+FROM (SELECT couple_id, CONVERT_TZ(media_date, '+00:00', '+07:00') AS local_date
+      FROM media_files
+      WHERE status = 'READY' AND couple_id IS NOT NULL AND media_date IS NOT NULL) m
+GROUP BY couple_id, YEAR(local_date), MONTH(local_date), DAY(local_date);
+
+INSERT INTO media_period_stats (couple_id, period_year, period_month, period_day, media_count)
+SELECT couple_id, YEAR(local_date), MONTH(local_date), 0, COUNT(*)
+FROM (SELECT couple_id, CONVERT_TZ(media_date, '+00:00', '+07:00') AS local_date
+      FROM media_files
+      WHERE status = 'READY' AND couple_id IS NOT NULL AND media_date IS NOT NULL) m
+GROUP BY couple_id, YEAR(local_date), MONTH(local_date);
+
+INSERT INTO media_period_stats (couple_id, period_year, period_month, period_day, media_count)
+SELECT couple_id, YEAR(local_date), 0, 0, COUNT(*)
+FROM (SELECT couple_id, CONVERT_TZ(media_date, '+00:00', '+07:00') AS local_date
+      FROM media_files
+      WHERE status = 'READY' AND couple_id IS NOT NULL AND media_date IS NOT NULL) m
+GROUP BY couple_id, YEAR(local_date);
@@ -0,0 +1,14 @@
+-- Tag đã chuẩn hóa của media (chữ thường, bỏ dấu), mỗi tag một dòng, phục vụ tìm kiếm và gợi ý tag.
+-- Dữ liệu cũ được tách từ media_files.tags ở V7 (Java migration, vì cần bỏ dấu tiếng Việt).
+
+CREATE TABLE media_tags (
+    id         BIGINT       NOT NULL AUTO_INCREMENT,
+    media_id   BIGINT       NOT NULL,
+    couple_id  BIGINT       NOT NULL,
+    tag        VARCHAR(100) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_media_tag_media FOREIGN KEY (media_id) REFERENCES media_files (id) ON DELETE CASCADE
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_media_tag_couple_tag ON media_tags (couple_id, tag);
+CREATE INDEX idx_media_tag_media ON media_tags (media_id);
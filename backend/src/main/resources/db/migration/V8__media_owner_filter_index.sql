@@ -0,0 +1,6 @@
+-- Lọc theo người upload trên /api/media/query: cùng dạng với idx_media_couple_type_status_date
+-- để vừa lọc vừa đọc theo thứ tự (media_date, id) không cần filesort.
+-- Lọc theo ngày dùng idx_media_couple_status_date, theo loại dùng idx_media_couple_type_status_date;
+-- has-caption chỉ chia đôi dữ liệu nên lọc trên dòng, không đáng một index riêng.
+
+CREATE INDEX idx_media_couple_owner_status_date ON media_files (couple_id, owner_id, status, media_date, id);
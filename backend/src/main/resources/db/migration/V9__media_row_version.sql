@@ -0,0 +1,4 @@
+-- Phiên bản của từng bản ghi media (JPA @Version), key của cache JSON fragment.
+-- Các câu UPDATE hàng loạt trong MediaFileRepository tự tăng cột này.
+
+ALTER TABLE media_files ADD COLUMN row_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,40 @@
+package com.couple.anniversary.domain.couple.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ETag chỉ được trùng khi variant thật sự giống nhau, nếu không client nhận 304 cho nội dung khác.
+ */
+class CoupleVersionServiceTest {
+
+    private final CoupleVersionService versionService = new CoupleVersionService();
+
+    @Test
+    void variantsWithSameHashCodeGetDifferentEtags() {
+        // "Aa" và "BB" cùng hashCode, nên Arrays.hashCode của hai bộ tham số này cũng trùng
+        Object[] first = { "ndjson", "Aa", 1 };
+        Object[] second = { "ndjson", "BB", 1 };
+        assertThat(Arrays.hashCode(first)).isEqualTo(Arrays.hashCode(second));
+
+        assertThat(versionService.etag(1L, first)).isNotEqualTo(versionService.etag(1L, second));
+    }
+
+    @Test
+    void variantBoundariesAndNullsAreDistinct() {
+        assertThat(versionService.etag(1L, "a,b")).isNotEqualTo(versionService.etag(1L, "a", "b"));
+        assertThat(versionService.etag(1L, (Object) null)).isNotEqualTo(versionService.etag(1L, "null"));
+        assertThat(versionService.etag(1L, "PHOTO", null)).isEqualTo(versionService.etag(1L, "PHOTO", null));
+    }
+
+    @Test
+    void etagChangesAfterBump() {
+        String before = versionService.etag(1L, "PHOTO");
+        versionService.bump(1L);
+
+        assertThat(versionService.etag(1L, "PHOTO")).isNotEqualTo(before);
+    }
+}
@@ -0,0 +1,77 @@
+package com.couple.anniversary.domain.media.image;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Placeholder phải theo chiều hiển thị: ảnh chụp dọc được lưu ngang kèm EXIF Orientation 6/8.
+ */
+class ImagePlaceholdersTest {
+
+    private static final int RED = 0xFF0000;
+    private static final int BLUE = 0x0000FF;
+
+    @Test
+    void rotatedSensorImageGetsPortraitComponents() throws IOException {
+        byte[] png = png(landscape());
+
+        // Ký tự đầu của BlurHash mã hóa (nx - 1) + (ny - 1) * 9: 4x3 -> 21 ('L'), 3x4 -> 29 ('T')
+        assertThat(ImagePlaceholders.compute(new ByteArrayInputStream(png), null).orElseThrow().blurHash())
+                .startsWith("L");
+        assertThat(ImagePlaceholders.compute(new ByteArrayInputStream(png), 6).orElseThrow().blurHash())
+                .startsWith("T");
+        assertThat(ImagePlaceholders.compute(new ByteArrayInputStream(png), 8).orElseThrow().blurHash())
+                .startsWith("T");
+    }
+
+    @Test
+    void orientMapsPixelsToDisplayPosition() {
+        BufferedImage source = landscape(); // nửa trái đỏ, nửa phải xanh
+
+        // 6: xoay 90° theo chiều kim đồng hồ -> nửa trái (đỏ) lên trên
+        BufferedImage rotatedRight = ImagePlaceholders.orient(source, 6);
+        assertThat(rotatedRight.getWidth()).isEqualTo(source.getHeight());
+        assertThat(rotatedRight.getHeight()).isEqualTo(source.getWidth());
+        assertThat(rgb(rotatedRight, 0, 0)).isEqualTo(RED);
+        assertThat(rgb(rotatedRight, 0, rotatedRight.getHeight() - 1)).isEqualTo(BLUE);
+
+        // 8: xoay ngược chiều kim đồng hồ -> nửa phải (xanh) lên trên
+        BufferedImage rotatedLeft = ImagePlaceholders.orient(source, 8);
+        assertThat(rgb(rotatedLeft, 0, 0)).isEqualTo(BLUE);
+
+        // 2: lật ngang, giữ kích thước
+        BufferedImage mirrored = ImagePlaceholders.orient(source, 2);
+        assertThat(mirrored.getWidth()).isEqualTo(source.getWidth());
+        assertThat(rgb(mirrored, 0, 0)).isEqualTo(BLUE);
+
+        assertThat(ImagePlaceholders.orient(source, 1)).isSameAs(source);
+        assertThat(ImagePlaceholders.orient(source, null)).isSameAs(source);
+    }
+
+    private static BufferedImage landscape() {
+        BufferedImage image = new BufferedImage(80, 40, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, x < image.getWidth() / 2 ? RED : BLUE);
+            }
+        }
+        return image;
+    }
+
+    private static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static int rgb(BufferedImage image, int x, int y) {
+        return image.getRGB(x, y) & 0xFFFFFF;
+    }
+}
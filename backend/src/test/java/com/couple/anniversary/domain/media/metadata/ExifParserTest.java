@@ -0,0 +1,177 @@
+package com.couple.anniversary.domain.media.metadata;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Đọc EXIF từ khối TIFF dựng tay: thứ tự byte, IFD0 + Exif sub-IFD, chuỗi nằm trong entry hay ở vùng dữ liệu.
+ */
+class ExifParserTest {
+
+    private static final ZoneId VIETNAM = ZoneId.of("Asia/Ho_Chi_Minh");
+
+    private static final int ORIENTATION = 0x0112;
+    private static final int DATE_TIME = 0x0132;
+    private static final int DATE_TIME_ORIGINAL = 0x9003;
+    private static final int OFFSET_TIME_ORIGINAL = 0x9011;
+    private static final int PIXEL_X = 0xA002;
+    private static final int PIXEL_Y = 0xA003;
+
+    @Test
+    void localTimeWithoutOffsetIsResolvedInCoupleZone() {
+        MediaMetadata metadata = ExifParser.parse(tiff(true, Map.of(ORIENTATION, 6),
+                Map.of(DATE_TIME_ORIGINAL, "2023:02:14 23:30:00")), 0);
+
+        assertThat(metadata.takenAt()).isNull();
+        assertThat(metadata.localTakenAt()).isEqualTo(LocalDateTime.of(2023, 2, 14, 23, 30));
+        // 23:30 ở Việt Nam là 16:30 UTC cùng ngày, bất kể múi giờ của server
+        assertThat(metadata.takenAt(VIETNAM)).isEqualTo(Instant.parse("2023-02-14T16:30:00Z"));
+        assertThat(metadata.orientation()).isEqualTo(6);
+    }
+
+    @Test
+    void offsetTimeOriginalGivesExactInstant() {
+        Map<Integer, Object> exif = new LinkedHashMap<>();
+        exif.put(DATE_TIME_ORIGINAL, "2023:02:14 23:30:00");
+        exif.put(OFFSET_TIME_ORIGINAL, "+09:00");
+        MediaMetadata metadata = ExifParser.parse(tiff(false, Map.of(), exif), 0);
+
+        assertThat(metadata.takenAt()).isEqualTo(Instant.parse("2023-02-14T14:30:00Z"));
+        assertThat(metadata.localTakenAt()).isNull();
+        assertThat(metadata.takenAt(VIETNAM)).isEqualTo(metadata.takenAt());
+    }
+
+    @Test
+    void malformedOffsetFallsBackToLocalTime() {
+        Map<Integer, Object> exif = new LinkedHashMap<>();
+        exif.put(DATE_TIME_ORIGINAL, "2023:02:14 23:30:00");
+        exif.put(OFFSET_TIME_ORIGINAL, "   :  ");
+        MediaMetadata metadata = ExifParser.parse(tiff(true, Map.of(), exif), 0);
+
+        assertThat(metadata.takenAt()).isNull();
+        assertThat(metadata.takenAt(ZoneOffset.UTC)).isEqualTo(Instant.parse("2023-02-14T23:30:00Z"));
+    }
+
+    @Test
+    void fallsBackToIfd0DateTimeAndReadsPixelSizeBigEndian() {
+        Map<Integer, Object> exif = new LinkedHashMap<>();
+        exif.put(PIXEL_X, 4032);
+        exif.put(PIXEL_Y, 3024);
+        MediaMetadata metadata = ExifParser.parse(tiff(false, Map.of(DATE_TIME, "2020:01:01 08:00:00"), exif), 0);
+
+        assertThat(metadata.localTakenAt()).isEqualTo(LocalDateTime.of(2020, 1, 1, 8, 0));
+        assertThat(metadata.width()).isEqualTo(4032);
+        assertThat(metadata.height()).isEqualTo(3024);
+    }
+
+    @Test
+    void unsetCameraClockHasNoCaptureTime() {
+        MediaMetadata metadata = ExifParser.parse(tiff(true, Map.of(),
+                Map.of(DATE_TIME_ORIGINAL, "0000:00:00 00:00:00")), 0);
+
+        assertThat(metadata.takenAt(VIETNAM)).isNull();
+    }
+
+    @Test
+    void invalidOrTruncatedBlocksDoNotThrow() {
+        assertThat(ExifParser.parse(new byte[] { 'X', 'X', 0, 42, 0, 0, 0, 8 }, 0)).isEqualTo(MediaMetadata.EMPTY);
+        assertThat(ExifParser.parse(new byte[4], 0)).isEqualTo(MediaMetadata.EMPTY);
+
+        byte[] full = tiff(true, Map.of(ORIENTATION, 3), Map.of(DATE_TIME_ORIGINAL, "2023:02:14 23:30:00"));
+        // Cắt giữa Exif sub-IFD: giữ được orientation đã đọc ở IFD0
+        MediaMetadata truncated = ExifParser.parse(Arrays.copyOf(full, 30), 0);
+        assertThat(truncated.orientation()).isEqualTo(3);
+        assertThat(truncated.localTakenAt()).isNull();
+    }
+
+    @Test
+    void readerTakesExifTimeAndFrameSizeFromJpegHeader() {
+        byte[] exif = tiff(true, Map.of(ORIENTATION, 8), Map.of(DATE_TIME_ORIGINAL, "2023:02:14 23:30:00"));
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        jpeg.writeBytes(new byte[] { (byte) 0xFF, (byte) 0xD8 });
+        // APP1 "Exif\0\0" + TIFF
+        writeSegment(jpeg, 0xE1, concat("Exif\0\0".getBytes(StandardCharsets.US_ASCII), exif));
+        // SOF0: precision, height, width, 1 component
+        writeSegment(jpeg, 0xC0, new byte[] { 8, 0x0B, (byte) 0xD0, 0x0F, (byte) 0xC0, 1, 1, 0x11, 0 });
+        jpeg.writeBytes(new byte[] { (byte) 0xFF, (byte) 0xD9 });
+
+        MediaMetadata metadata = MediaMetadataReader.read(new ByteArrayInputStream(jpeg.toByteArray()));
+
+        assertThat(metadata.takenAt(VIETNAM)).isEqualTo(Instant.parse("2023-02-14T16:30:00Z"));
+        assertThat(metadata.width()).isEqualTo(4032);
+        assertThat(metadata.height()).isEqualTo(3024);
+        assertThat(metadata.orientation()).isEqualTo(8);
+    }
+
+    /**
+     * Khối TIFF: header, IFD0 (kèm con trỏ Exif IFD nếu có), Exif IFD, rồi vùng dữ liệu cho chuỗi dài hơn 4 byte.
+     * Integer ghi thành SHORT, String thành ASCII có byte 0 kết thúc.
+     */
+    private static byte[] tiff(boolean littleEndian, Map<Integer, Object> ifd0, Map<Integer, Object> exif) {
+        int ifd0Entries = ifd0.size() + (exif.isEmpty() ? 0 : 1);
+        int ifd0Offset = 8;
+        int exifOffset = ifd0Offset + 2 + ifd0Entries * 12 + 4;
+        int dataOffset = exifOffset + (exif.isEmpty() ? 0 : 2 + exif.size() * 12 + 4);
+
+        ByteBuffer buffer = ByteBuffer.allocate(1024).order(littleEndian ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+        buffer.put(littleEndian ? (byte) 'I' : (byte) 'M').put(littleEndian ? (byte) 'I' : (byte) 'M');
+        buffer.putShort((short) 42).putInt(ifd0Offset);
+
+        int[] data = { dataOffset };
+        buffer.putShort((short) ifd0Entries);
+        ifd0.forEach((tag, value) -> putEntry(buffer, tag, value, data));
+        if (!exif.isEmpty()) {
+            buffer.putShort((short) 0x8769).putShort((short) 4).putInt(1).putInt(exifOffset);
+        }
+        buffer.putInt(0);
+        if (!exif.isEmpty()) {
+            buffer.putShort((short) exif.size());
+            exif.forEach((tag, value) -> putEntry(buffer, tag, value, data));
+            buffer.putInt(0);
+        }
+        return Arrays.copyOf(buffer.array(), Math.max(data[0], buffer.position()));
+    }
+
+    private static void putEntry(ByteBuffer buffer, int tag, Object value, int[] data) {
+        buffer.putShort((short) tag);
+        if (value instanceof Integer number) {
+            buffer.putShort((short) 3).putInt(1).putShort(number.shortValue()).putShort((short) 0);
+            return;
+        }
+        byte[] ascii = (value + "\0").getBytes(StandardCharsets.US_ASCII);
+        buffer.putShort((short) 2).putInt(ascii.length);
+        if (ascii.length <= 4) {
+            buffer.put(Arrays.copyOf(ascii, 4));
+            return;
+        }
+        buffer.putInt(data[0]);
+        buffer.put(data[0], ascii);
+        data[0] += ascii.length;
+    }
+
+    private static void writeSegment(ByteArrayOutputStream out, int code, byte[] payload) {
+        int length = payload.length + 2;
+        out.writeBytes(new byte[] { (byte) 0xFF, (byte) code, (byte) (length >> 8), (byte) length });
+        out.writeBytes(payload);
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
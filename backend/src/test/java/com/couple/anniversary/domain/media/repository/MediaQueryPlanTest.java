@@ -0,0 +1,250 @@
+package com.couple.anniversary.domain.media.repository;
+
+import com.couple.anniversary.common.constant.AppConstants;
+import com.couple.anniversary.domain.media.dto.MediaQueryRequest;
+import com.couple.anniversary.domain.media.service.MediaService;
+import com.couple.anniversary.domain.media.service.OnThisDayService;
+import com.couple.anniversary.support.SqlCapture;
+import com.couple.anniversary.support.TestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Kiểm tra kế hoạch thực thi của các truy vấn nóng trên schema thật do Flyway dựng:
+ * mỗi câu phải seek vào đúng index đã thiết kế cho nó, không full scan, không filesort.
+ * Gọi đúng method repository / service rồi EXPLAIN lại câu SQL và tham số Hibernate đã gửi (SqlCapture),
+ * nên sửa query, Specification hay index mà làm lệch kế hoạch thì test này báo.
+ */
+@SpringBootTest(properties = {
+        "app.storage.provider=local",
+        "app.upload.dir=${java.io.tmpdir}/anniversary_uploads_it",
+        "app.work.dir=${java.io.tmpdir}/anniversary_work_it",
+        // Lượt quét placeholder nền không được chen câu SQL vào giữa các lần đo
+        "app.media.image.placeholder-sweep-interval=PT24H"
+})
+@Import(SqlCapture.class)
+@EnabledIf("com.couple.anniversary.support.TestDatabase#isAvailable")
+class MediaQueryPlanTest {
+
+    private static final int COUPLES = 8;
+    private static final int MEDIA_ROWS = 12_000;
+    private static final long COUPLE_ID = 3L;
+    private static final Instant CURSOR_DATE = Instant.parse("2020-06-01T00:00:00Z");
+    private static final PageRequest FIRST_ROWS = PageRequest.of(0, 21);
+
+    private static boolean seeded;
+    private static long ownerId;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, "media_query_plan");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlCapture sqlCapture;
+
+    @Autowired
+    private MediaFileRepository mediaFileRepository;
+
+    @Autowired
+    private MediaPeriodStatRepository statRepository;
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private OnThisDayService onThisDayService;
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO users (username, password, role) VALUES ('plan-a', 'x', 'USER'), "
+                + "('plan-b', 'x', 'USER')");
+        ownerId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username LIKE 'plan-%'", Long.class);
+
+        // Album nhiều năm, chia đều cho vài couple; người thứ hai chỉ upload khoảng 5% media của mỗi couple,
+        // một ít PENDING, VIDEO, caption như dữ liệu thật
+        jdbcTemplate.execute(TestDatabase.isMariaDb()
+                ? "SET SESSION max_recursive_iterations = " + MEDIA_ROWS
+                : "SET SESSION cte_max_recursion_depth = " + MEDIA_ROWS);
+        jdbcTemplate.update("""
+                INSERT INTO media_files (file_name, original_name, type, path, created_at, owner_id,
+                                         couple_id, status, media_date, month_day, content_hash, caption)
+                WITH RECURSIVE seq (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < ?)
+                SELECT CONCAT('anniversary/media/', n), CONCAT(n, '.jpg'),
+                       IF(n % 5 = 0, 'VIDEO', 'PHOTO'), '', d, ? + IF((n DIV ?) % 20 = 0, 1, 0), n % ? + 1,
+                       IF(n % 50 = 0, 'PENDING', 'READY'), d, CAST(DATE_FORMAT(d, '%m%d') AS UNSIGNED),
+                       SHA2(n, 256), IF(n % 3 = 0, CONCAT('Kỷ niệm ', n), NULL)
+                FROM (SELECT n, TIMESTAMP('2015-01-01') + INTERVAL n * 7 HOUR AS d FROM seq) s
+                """, MEDIA_ROWS, ownerId, COUPLES, COUPLES);
+
+        // Thống kê timeline cùng dạng V5 dựng: dòng ngày, dòng tháng (day = 0), dòng năm (month = 0)
+        String stats = """
+                INSERT INTO media_period_stats (couple_id, period_year, period_month, period_day, media_count,
+                                                cover_media_id)
+                SELECT couple_id, YEAR(media_date), %s, %s, COUNT(*), MAX(id)
+                FROM media_files WHERE status = 'READY'
+                GROUP BY couple_id, YEAR(media_date)%s
+                """;
+        jdbcTemplate.update(stats.formatted("MONTH(media_date)", "DAY(media_date)",
+                ", MONTH(media_date), DAY(media_date)"));
+        jdbcTemplate.update(stats.formatted("MONTH(media_date)", "0", ", MONTH(media_date)"));
+        jdbcTemplate.update(stats.formatted("0", "0", ""));
+
+        jdbcTemplate.execute("ANALYZE TABLE media_files, media_period_stats");
+        // Múi giờ couple được cache sau lần đầu, để /query không kéo thêm câu đọc couples vào lúc đo
+        onThisDayService.zoneOf(COUPLE_ID);
+        seeded = true;
+    }
+
+    // Trang gallery theo offset: câu lấy trang và câu COUNT của Page
+    @Test
+    void galleryPageSeeksCoupleStatusIndex() {
+        List<SqlCapture.Statement> sql = sqlCapture.capture(() -> mediaFileRepository
+                .findByCoupleIdAndStatusOrderByMediaDateDesc(COUPLE_ID, AppConstants.MEDIA_STATUS_READY,
+                        PageRequest.of(2, 20)));
+        assertThat(sql).hasSize(2);
+        sql.forEach(statement -> assertPlan("idx_media_couple_status_date", statement));
+    }
+
+    @Test
+    void galleryPageByTypeSeeksTypeIndex() {
+        List<SqlCapture.Statement> sql = sqlCapture.capture(() -> mediaFileRepository
+                .findByCoupleIdAndTypeAndStatusOrderByMediaDateDesc(COUPLE_ID, AppConstants.MEDIA_TYPE_VIDEO,
+                        AppConstants.MEDIA_STATUS_READY, PageRequest.of(0, 20)));
+        assertThat(sql).hasSize(2);
+        sql.forEach(statement -> assertPlan("idx_media_couple_type_status_date", statement));
+    }
+
+    // Keyset, cũng là từng chunk của list/NDJSON
+    @Test
+    void keysetPageSeeksCoupleStatusIndex() {
+        assertPlan("idx_media_couple_status_date", single(() -> mediaFileRepository
+                .findPageAfter(COUPLE_ID, CURSOR_DATE, 5_000L, FIRST_ROWS)));
+        assertPlan("idx_media_couple_type_status_date", single(() -> mediaFileRepository
+                .findPageAfterByType(COUPLE_ID, AppConstants.MEDIA_TYPE_PHOTO, CURSOR_DATE, 5_000L, FIRST_ROWS)));
+    }
+
+    // Sparse fieldset (fields=)
+    @Test
+    void fieldsPageSeeksTheSameIndexesAsEntityPages() {
+        List<String> fields = List.of("id", "mediaDate", "caption");
+        assertPlan("idx_media_couple_status_date", single(() -> mediaFileRepository
+                .findFieldsAfter(COUPLE_ID, null, CURSOR_DATE, 5_000L, 21, fields)));
+        assertPlan("idx_media_couple_type_status_date", single(() -> mediaFileRepository
+                .findFieldsAfter(COUPLE_ID, AppConstants.MEDIA_TYPE_PHOTO, CURSOR_DATE, 5_000L, 21, fields)));
+    }
+
+    @Test
+    void countsUseCoveringIndexes() {
+        assertPlan("idx_media_couple_status_date", single(() -> mediaFileRepository
+                .countByCoupleIdAndStatus(COUPLE_ID, AppConstants.MEDIA_STATUS_READY)));
+        assertPlan("idx_media_couple_type_status_date", single(() -> mediaFileRepository
+                .countByCoupleIdAndTypeAndStatus(COUPLE_ID, AppConstants.MEDIA_TYPE_PHOTO,
+                        AppConstants.MEDIA_STATUS_READY)));
+    }
+
+    // Chống upload trùng: tra theo (couple_id, content_hash) trước khi lưu
+    @Test
+    void duplicateLookupSeeksContentHashIndex() {
+        String hash = jdbcTemplate.queryForObject("SELECT SHA2(4003, 256)", String.class);
+        assertPlan("idx_media_couple_hash", single(() -> mediaFileRepository
+                .findFirstByCoupleIdAndContentHashAndStatus(COUPLE_ID, hash, AppConstants.MEDIA_STATUS_READY)));
+    }
+
+    // Dựng chỉ mục tìm kiếm của couple
+    @Test
+    void searchIndexBuildSeeksCoupleStatusIndex() {
+        assertPlan("idx_media_couple_status_date", single(() -> mediaFileRepository
+                .findSearchFieldsByCoupleId(COUPLE_ID)));
+    }
+
+    @Test
+    void onThisDaySeeksMonthDayIndex() {
+        assertPlan("idx_media_couple_month_day", single(() -> mediaFileRepository
+                .findByCoupleIdAndMonthDayAndStatusAndMediaDateBeforeOrderByMediaDateDesc(COUPLE_ID, 614,
+                        AppConstants.MEDIA_STATUS_READY, Instant.parse("2019-06-14T00:00:00Z"))));
+    }
+
+    // Chọn lại ảnh bìa của kỳ khi ảnh bìa bị xóa
+    @Test
+    void timelineCoverSeeksTypeIndex() {
+        assertPlan("idx_media_couple_type_status_date", single(() -> mediaFileRepository
+                .findLatestPhotos(COUPLE_ID, Instant.parse("2018-01-01T00:00:00Z"),
+                        Instant.parse("2019-01-01T00:00:00Z"), List.of(4_000L, 4_008L), PageRequest.of(0, 1))));
+    }
+
+    @Test
+    void timelineReadsPeriodStatsInKeyOrder() {
+        assertPlan("uk_media_period", single(() -> statRepository.findYears(COUPLE_ID)));
+        assertPlan("uk_media_period", single(() -> statRepository.findMonths(COUPLE_ID, null)));
+        assertPlan("uk_media_period", single(() -> statRepository.findDays(COUPLE_ID, 2018)));
+    }
+
+    // /api/media/query: trang lọc theo Specification, trang đầu kèm câu GROUP BY đếm facets
+    @Test
+    void filteredQueryPicksIndexPerFilter() {
+        MediaQueryRequest byDate = new MediaQueryRequest();
+        byDate.setFrom(LocalDate.of(2017, 1, 1));
+        byDate.setTo(LocalDate.of(2018, 12, 31));
+        byDate.setHasCaption(true);
+        List<SqlCapture.Statement> sql = sqlCapture.capture(() -> mediaService.queryMedia(COUPLE_ID, byDate, false));
+        assertThat(sql).hasSize(2);
+        assertPlan("idx_media_couple_status_date", sql.get(0));
+        // Nhóm theo (type, owner_id) thì cần bảng tạm (MariaDB còn sắp theo nhóm), nhưng chỉ trên các dòng
+        // đã seek theo couple + khoảng ngày; số nhóm rất nhỏ
+        assertThat(sql.get(1).sql()).containsIgnoringCase("group by");
+        assertAccess("idx_media_couple_status_date", sql.get(1));
+
+        MediaQueryRequest byType = new MediaQueryRequest();
+        byType.setType(AppConstants.MEDIA_TYPE_VIDEO);
+        byType.setAfter(mediaService.queryMedia(COUPLE_ID, byType, false).getNextCursor());
+        assertPlan("idx_media_couple_type_status_date",
+                single(() -> mediaService.queryMedia(COUPLE_ID, byType, false)));
+
+        MediaQueryRequest byOwner = new MediaQueryRequest();
+        byOwner.setOwnerId(ownerId + 1);
+        byOwner.setAfter(mediaService.queryMedia(COUPLE_ID, byOwner, false).getNextCursor());
+        assertPlan("idx_media_couple_owner_status_date",
+                single(() -> mediaService.queryMedia(COUPLE_ID, byOwner, false)));
+    }
+
+    private SqlCapture.Statement single(Runnable query) {
+        List<SqlCapture.Statement> sql = sqlCapture.capture(query);
+        assertThat(sql).hasSize(1);
+        return sql.get(0);
+    }
+
+    private void assertPlan(String expectedIndex, SqlCapture.Statement statement) {
+        Map<String, Object> plan = assertAccess(expectedIndex, statement);
+        assertThat(String.valueOf(plan.get("Extra"))).as("Extra của %s", statement.sql()).doesNotContain("filesort");
+    }
+
+    private Map<String, Object> assertAccess(String expectedIndex, SqlCapture.Statement statement) {
+        Map<String, Object> plan = jdbcTemplate.queryForList("EXPLAIN " + statement.sql(),
+                statement.parameters().toArray()).get(0);
+        assertThat(plan.get("key")).as("index của %s", statement.sql()).isEqualTo(expectedIndex);
+        assertThat(plan.get("type")).as("kiểu truy cập của %s", statement.sql()).isNotEqualTo("ALL");
+        return plan;
+    }
+}
@@ -0,0 +1,146 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.domain.media.dto.BulkUpdateMediaRequest;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.couple.anniversary.domain.media.repository.MediaFileRepository;
+import com.couple.anniversary.domain.user.entity.User;
+import com.couple.anniversary.domain.user.repository.UserRepository;
+import com.couple.anniversary.support.TestDatabase;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * PATCH /api/media hàng loạt trên database đã có dữ liệu từ trước khi có các migration sau V4:
+ * insert mới (media, media_tags) không đụng id cũ, và một item lỗi thì cả lô không ghi gì.
+ */
+@SpringBootTest(properties = {
+        "app.storage.provider=local",
+        "app.upload.dir=${java.io.tmpdir}/anniversary_uploads_it",
+        "app.work.dir=${java.io.tmpdir}/anniversary_work_it"
+})
+@EnabledIf("com.couple.anniversary.support.TestDatabase#isAvailable")
+class MediaBulkUpdateTest {
+
+    private static final String DATABASE = "media_bulk_update";
+    private static final long USER_ID = 7;
+    private static final long COUPLE_ID = 3;
+    // Id cũ lớn hơn AUTO_INCREMENT ban đầu, như dữ liệu đã qua nhiều lần xóa
+    private static final long FIRST_MEDIA_ID = 5001;
+    private static final int MEDIA_COUNT = 3;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, DATABASE);
+    }
+
+    /**
+     * Chạy trước khi context khởi động: dựng schema tới V4 và đổ dữ liệu như production lúc đó,
+     * để Flyway của context chạy các migration còn lại (thống kê, tag, row_version...) trên bảng đã có dòng.
+     */
+    @BeforeAll
+    static void populateBeforeLaterMigrations() {
+        DataSource dataSource = TestDatabase.dataSource(DATABASE);
+        Flyway.configure().dataSource(dataSource).target("4").load().migrate();
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO users (id, username, password, role, couple_id) VALUES (?, 'an', 'x', 'USER', ?)",
+                USER_ID, COUPLE_ID);
+        jdbc.update("INSERT INTO couples (id, user1_id, user2_id, status) VALUES (?, ?, ?, 'ACTIVE')",
+                COUPLE_ID, USER_ID, USER_ID);
+        for (int i = 0; i < MEDIA_COUNT; i++) {
+            jdbc.update("INSERT INTO media_files (id, file_name, original_name, type, tags, media_date, couple_id, "
+                            + "path, created_at, owner_id) VALUES (?, ?, ?, 'PHOTO', 'Biển, Hè', ?, ?, ?, ?, ?)",
+                    FIRST_MEDIA_ID + i, "f" + i, "anh-" + i + ".jpg",
+                    Instant.parse("2023-06-10T05:00:00Z").plusSeconds(i), COUPLE_ID, "anniversary/f" + i,
+                    Instant.parse("2023-06-10T05:00:00Z"), USER_ID);
+        }
+    }
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private MediaFileRepository mediaFileRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void insertsAfterMigratingPopulatedTables() {
+        // V7 đã tách tag của các dòng cũ
+        Long oldTagMax = jdbcTemplate.queryForObject("SELECT MAX(id) FROM media_tags", Long.class);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM media_tags WHERE media_id = ?", Long.class,
+                FIRST_MEDIA_ID + 1)).isEqualTo(2);
+
+        User user = userRepository.findById(USER_ID).orElseThrow();
+        mediaService.updateMediaBatch(List.of(item(FIRST_MEDIA_ID + 1, "biển, hoàng hôn, đà lạt")), user);
+
+        List<Map<String, Object>> tags = jdbcTemplate.queryForList(
+                "SELECT id, tag FROM media_tags WHERE media_id = ? ORDER BY tag", FIRST_MEDIA_ID + 1);
+        assertThat(tags).extracting(row -> row.get("tag")).containsExactly("bien", "da lat", "hoang hon");
+        assertThat(tags).allSatisfy(row -> assertThat(((Number) row.get("id")).longValue()).isGreaterThan(oldTagMax));
+
+        MediaFile inserted = mediaFileRepository.save(MediaFile.builder()
+                .fileName("moi")
+                .originalName("moi.jpg")
+                .type("PHOTO")
+                .coupleId(COUPLE_ID)
+                .path("anniversary/moi")
+                .owner(user)
+                .build());
+        assertThat(inserted.getId()).isGreaterThan(FIRST_MEDIA_ID + MEDIA_COUNT - 1);
+    }
+
+    @Test
+    void failedItemRollsBackTheWholeBatch() {
+        List<Map<String, Object>> mediaBefore = snapshot("SELECT id, caption, tags, media_date, month_day, row_version "
+                + "FROM media_files ORDER BY id");
+        List<Map<String, Object>> tagsBefore = snapshot("SELECT id, media_id, tag FROM media_tags ORDER BY id");
+        List<Map<String, Object>> statsBefore = snapshot("SELECT * FROM media_period_stats ORDER BY id");
+
+        BulkUpdateMediaRequest.Item moved = item(FIRST_MEDIA_ID, "du lịch");
+        moved.setCaption("Chuyến đi đầu tiên");
+        moved.setMediaDate(Instant.parse("2021-01-01T03:00:00Z"));
+        // Gọi thẳng service nên @Size của request không chặn: cột tags 255 ký tự làm câu UPDATE lỗi lúc flush,
+        // sau khi thống kê timeline và media_tags của item đầu đã được ghi trong transaction
+        BulkUpdateMediaRequest.Item tooLong = item(FIRST_MEDIA_ID + 2, "a".repeat(300));
+
+        User user = userRepository.findById(USER_ID).orElseThrow();
+        assertThatThrownBy(() -> mediaService.updateMediaBatch(List.of(moved, tooLong), user))
+                .isInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(snapshot("SELECT id, caption, tags, media_date, month_day, row_version FROM media_files ORDER BY id"))
+                .isEqualTo(mediaBefore);
+        assertThat(snapshot("SELECT id, media_id, tag FROM media_tags ORDER BY id")).isEqualTo(tagsBefore);
+        assertThat(snapshot("SELECT * FROM media_period_stats ORDER BY id")).isEqualTo(statsBefore);
+    }
+
+    private List<Map<String, Object>> snapshot(String sql) {
+        return jdbcTemplate.queryForList(sql);
+    }
+
+    private static BulkUpdateMediaRequest.Item item(long id, String tags) {
+        BulkUpdateMediaRequest.Item item = new BulkUpdateMediaRequest.Item();
+        item.setId(id);
+        item.setTags(tags);
+        return item;
+    }
+}
@@ -0,0 +1,123 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.domain.media.entity.MediaDeletion;
+import com.couple.anniversary.domain.media.repository.MediaDeletionRepository;
+import com.couple.anniversary.domain.media.repository.MediaFileRepository;
+import com.couple.anniversary.domain.media.storage.LocalStorageProvider;
+import com.couple.anniversary.domain.media.storage.MediaBlobCache;
+import com.couple.anniversary.domain.media.storage.StorageRequest;
+import com.couple.anniversary.domain.user.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Outbox chỉ xóa object không còn ai trỏ tới, kể cả khi một upload cùng nội dung chen vào lúc đang kiểm tra.
+ */
+class MediaDeletionServiceTest {
+
+    private static final byte[] PHOTO = "ảnh kỷ niệm".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    private MediaDeletionRepository mediaDeletionRepository;
+    private MediaFileRepository mediaFileRepository;
+    private UserRepository userRepository;
+    private LocalStorageProvider storageProvider;
+    private MediaDeletionService deletionService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mediaDeletionRepository = mock(MediaDeletionRepository.class);
+        mediaFileRepository = mock(MediaFileRepository.class);
+        userRepository = mock(UserRepository.class);
+        storageProvider = new LocalStorageProvider(dir.resolve("uploads").toString(), dir.resolve("work").toString(),
+                "http://localhost:8080");
+        // Thư mục tạm mà init() (@PostConstruct) tạo khi chạy trong Spring
+        Files.createDirectories(dir.resolve("work/tmp"));
+        deletionService = new MediaDeletionService(mediaDeletionRepository, mediaFileRepository, userRepository,
+                storageProvider, mock(MediaBlobCache.class), 100, Duration.ofSeconds(30), Duration.ofHours(6));
+    }
+
+    @Test
+    void objectStillUsedAsAvatarIsKept() throws IOException {
+        String key = store();
+        due(key);
+        when(mediaFileRepository.findReferencedFileNames(anyCollection())).thenReturn(List.of());
+        when(userRepository.findAvatarUrlsIn(anyCollection())).thenReturn(List.of(storageProvider.urlOf(key)));
+
+        deletionService.drain();
+
+        assertThat(storageProvider.resolve(key)).hasBinaryContent(PHOTO);
+    }
+
+    @Test
+    void storeDuringReferenceCheckKeepsObject() throws Exception {
+        String key = store();
+        due(key);
+        CompletableFuture<String> upload = new CompletableFuture<>();
+        when(mediaFileRepository.findReferencedFileNames(anyCollection())).thenAnswer(invocation -> {
+            // Upload cùng nội dung: bản ghi PENDING commit sau lúc đọc tham chiếu, store chạy ngay sau đó
+            CompletableFuture.runAsync(() -> {
+                try {
+                    upload.complete(store());
+                } catch (IOException e) {
+                    upload.completeExceptionally(e);
+                }
+            });
+            try {
+                upload.get(1, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                // store phải chờ outbox xóa xong mới được đưa file vào chỗ
+            }
+            return List.of();
+        });
+        when(userRepository.findAvatarUrlsIn(anyCollection())).thenReturn(List.of());
+
+        deletionService.drain();
+
+        assertThat(upload.get(5, TimeUnit.SECONDS)).isEqualTo(key);
+        assertThat(storageProvider.resolve(key)).hasBinaryContent(PHOTO);
+    }
+
+    private String store() throws IOException {
+        StorageRequest request = StorageRequest.builder()
+                .folder("anniversary/media")
+                .coupleId(1L)
+                .originalName("anh.jpg")
+                .size(PHOTO.length)
+                .build();
+        return storageProvider.store(new ByteArrayInputStream(PHOTO), request, null).key();
+    }
+
+    private void due(String key) {
+        MediaDeletion deletion = MediaDeletion.builder()
+                .id(1L)
+                .storageKey(key)
+                .mediaType("PHOTO")
+                .nextAttemptAt(Instant.now())
+                .createdAt(Instant.now())
+                .build();
+        when(mediaDeletionRepository.findByNextAttemptAtLessThanEqualOrderByIdAsc(any(), any()))
+                .thenReturn(List.of(deletion));
+    }
+}
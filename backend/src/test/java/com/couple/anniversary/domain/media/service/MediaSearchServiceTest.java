@@ -0,0 +1,102 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.couple.anniversary.domain.media.repository.MediaFileRepository;
+import com.couple.anniversary.domain.media.repository.MediaTagRepository;
+import com.couple.anniversary.domain.media.search.InvertedIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Thay đổi commit trong lúc chỉ mục đang được dựng (sau khi đã đọc DB) không được mất;
+ * trang kết quả đi theo cursor (media_date, id) như gallery.
+ */
+class MediaSearchServiceTest {
+
+    private static final long COUPLE_ID = 7L;
+    private static final Instant DATE = Instant.parse("2023-02-14T10:00:00Z");
+
+    private MediaFileRepository mediaFileRepository;
+    private MediaSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        mediaFileRepository = mock(MediaFileRepository.class);
+        MediaTagRepository mediaTagRepository = mock(MediaTagRepository.class);
+        when(mediaTagRepository.findByCoupleId(COUPLE_ID)).thenReturn(List.of());
+        searchService = new MediaSearchService(mediaFileRepository, mediaTagRepository);
+    }
+
+    @Test
+    void changeCommittedDuringBuildIsReplayed() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] { 1L, DATE, "đi biển" });
+        when(mediaFileRepository.findSearchFieldsByCoupleId(COUPLE_ID)).thenAnswer(invocation -> {
+            // Dữ liệu đã đọc xong thì transaction khác commit: sửa caption media 1, xóa media 2
+            searchService.onMediaChanged(media(1L, "leo núi"));
+            searchService.onMediaRemoved(COUPLE_ID, List.of(2L));
+            return rows;
+        });
+        rows.add(new Object[] { 2L, DATE, "leo núi cùng nhau" });
+
+        assertThat(ids("nui ")).containsExactly(1L);
+        assertThat(ids("bien ")).isEmpty();
+    }
+
+    @Test
+    void changeAfterInstallGoesStraightToIndex() {
+        when(mediaFileRepository.findSearchFieldsByCoupleId(COUPLE_ID)).thenReturn(List.<Object[]>of());
+        assertThat(ids("bien ")).isEmpty();
+
+        searchService.onMediaChanged(media(3L, "đi biển"));
+
+        assertThat(ids("bien ")).containsExactly(3L);
+    }
+
+    @Test
+    void pagesFollowCursorNewestFirstWithoutGapsOrRepeats() {
+        when(mediaFileRepository.findSearchFieldsByCoupleId(COUPLE_ID)).thenReturn(List.<Object[]>of());
+        assertThat(ids("bien")).isEmpty();
+        searchService.onMediaChanged(media(1L, "đi biển", DATE.minusSeconds(60)));
+        searchService.onMediaChanged(media(2L, "biển xanh", DATE));
+        searchService.onMediaChanged(media(3L, "biển đêm", DATE));
+        searchService.onMediaChanged(media(4L, "leo núi", DATE));
+        searchService.onMediaChanged(media(5L, "biển sáng", DATE.plusSeconds(60)));
+
+        InvertedIndex.Hits first = searchService.search(COUPLE_ID, "bien", MediaCursor.START.mediaDate(),
+                MediaCursor.START.id(), 2);
+        assertThat(first.hits()).extracting(InvertedIndex.Hit::id).containsExactly(5L, 3L);
+        assertThat(first.total()).isEqualTo(4);
+
+        InvertedIndex.Hit last = first.hits().get(1);
+        InvertedIndex.Hits second = searchService.search(COUPLE_ID, "bien", last.mediaDate(), last.id(), 2);
+        assertThat(second.hits()).extracting(InvertedIndex.Hit::id).containsExactly(2L, 1L);
+        assertThat(second.total()).isEqualTo(4);
+    }
+
+    private List<Long> ids(String query) {
+        return searchService.search(COUPLE_ID, query, MediaCursor.START.mediaDate(), MediaCursor.START.id(), 200)
+                .hits().stream().map(InvertedIndex.Hit::id).toList();
+    }
+
+    private static MediaFile media(long id, String caption) {
+        return media(id, caption, DATE);
+    }
+
+    private static MediaFile media(long id, String caption, Instant mediaDate) {
+        return MediaFile.builder()
+                .id(id)
+                .coupleId(COUPLE_ID)
+                .caption(caption)
+                .mediaDate(mediaDate)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.constant.AppConstants;
+import com.couple.anniversary.domain.media.entity.MediaFile;
+import com.couple.anniversary.domain.media.entity.MediaPeriodStat;
+import com.couple.anniversary.domain.media.repository.MediaPeriodStatRepository;
+import com.couple.anniversary.support.TestDatabase;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Ảnh bìa của kỳ trên MySQL thật: ảnh cũ hơn thêm vào sau không được thay ảnh bìa,
+ * kể cả khi id lớn hơn, và id / ngày của ảnh bìa luôn đi cùng nhau.
+ */
+@SpringBootTest(properties = {
+        "app.storage.provider=local",
+        "app.upload.dir=${java.io.tmpdir}/anniversary_uploads_it",
+        "app.work.dir=${java.io.tmpdir}/anniversary_work_it"
+})
+@EnabledIf("com.couple.anniversary.support.TestDatabase#isAvailable")
+@Transactional
+class MediaTimelineServiceTest {
+
+    // Không có dòng couples nên dùng múi giờ mặc định (UTC+7); các giờ dưới đây cùng một ngày ở đó
+    private static final long COUPLE_ID = 41;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, "media_timeline");
+    }
+
+    @Autowired
+    private MediaTimelineService timelineService;
+
+    @Autowired
+    private MediaPeriodStatRepository statRepository;
+
+    @Test
+    void olderPhotoAddedLaterKeepsTheCover() {
+        timelineService.recordAdded(List.of(photo(10, "2024-03-05T04:00:00Z")));
+        // Id lớn hơn nhưng chụp sớm hơn: ảnh bìa vẫn là ảnh 10
+        timelineService.recordAdded(List.of(photo(11, "2024-03-05T01:00:00Z")));
+
+        assertThat(statRepository.findDays(COUPLE_ID, 2024)).singleElement().satisfies(day -> {
+            assertThat(day.getMediaCount()).isEqualTo(2);
+            assertThat(day.getCoverMediaId()).isEqualTo(10);
+            assertThat(day.getCoverMediaDate()).isEqualTo(Instant.parse("2024-03-05T04:00:00Z"));
+        });
+    }
+
+    @Test
+    void newerPhotoReplacesCoverIdAndDateTogether() {
+        timelineService.recordAdded(List.of(photo(20, "2024-03-05T04:00:00Z")));
+        timelineService.recordAdded(List.of(photo(15, "2024-03-05T06:00:00Z")));
+        // Cùng ngày chụp thì id lớn hơn thắng, như thứ tự gallery
+        timelineService.recordAdded(List.of(photo(16, "2024-03-05T06:00:00Z")));
+
+        List<MediaPeriodStat> periods = List.of(
+                statRepository.findDays(COUPLE_ID, 2024).get(0),
+                statRepository.findMonths(COUPLE_ID, 2024).get(0),
+                statRepository.findYears(COUPLE_ID).get(0));
+        assertThat(periods).allSatisfy(period -> {
+            assertThat(period.getMediaCount()).isEqualTo(3);
+            assertThat(period.getCoverMediaId()).isEqualTo(16);
+            assertThat(period.getCoverMediaDate()).isEqualTo(Instant.parse("2024-03-05T06:00:00Z"));
+        });
+    }
+
+    @Test
+    void videoDoesNotTouchTheCover() {
+        timelineService.recordAdded(List.of(photo(30, "2024-03-05T04:00:00Z")));
+        MediaFile video = photo(31, "2024-03-05T05:00:00Z");
+        video.setType(AppConstants.MEDIA_TYPE_VIDEO);
+        timelineService.recordAdded(List.of(video));
+
+        assertThat(statRepository.findDays(COUPLE_ID, 2024)).singleElement().satisfies(day -> {
+            assertThat(day.getMediaCount()).isEqualTo(2);
+            assertThat(day.getCoverMediaId()).isEqualTo(30);
+        });
+    }
+
+    private static MediaFile photo(long id, String mediaDate) {
+        return MediaFile.builder()
+                .id(id)
+                .coupleId(COUPLE_ID)
+                .type(AppConstants.MEDIA_TYPE_PHOTO)
+                .mediaDate(Instant.parse(mediaDate))
+                .build();
+    }
+}
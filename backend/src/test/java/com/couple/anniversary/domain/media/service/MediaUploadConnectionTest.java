@@ -0,0 +1,170 @@
+package com.couple.anniversary.domain.media.service;
+
+import com.couple.anniversary.common.constant.AppConstants;
+import com.couple.anniversary.domain.media.dto.MediaFileResponse;
+import com.couple.anniversary.domain.media.repository.MediaFileRepository;
+import com.couple.anniversary.domain.media.storage.StorageProvider;
+import com.couple.anniversary.domain.media.storage.StorageRequest;
+import com.couple.anniversary.domain.media.storage.StoredObject;
+import com.couple.anniversary.domain.media.storage.UploadProgressListener;
+import com.couple.anniversary.domain.user.entity.User;
+import com.couple.anniversary.domain.user.repository.UserRepository;
+import com.couple.anniversary.support.TestDatabase;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Page;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Upload đang đẩy byte lên storage không được giữ connection: với pool 10 connection,
+ * mười upload treo ở bước storage vẫn để gallery đọc bình thường.
+ */
+@SpringBootTest(properties = {
+        "app.storage.provider=blocking-stub",
+        "app.upload.dir=${java.io.tmpdir}/anniversary_uploads_it",
+        "app.work.dir=${java.io.tmpdir}/anniversary_work_it",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        // Pool bị chiếm hết thì đọc phải lỗi nhanh thay vì chờ 20s
+        "spring.datasource.hikari.connection-timeout=2000"
+})
+@EnabledIf("com.couple.anniversary.support.TestDatabase#isAvailable")
+class MediaUploadConnectionTest {
+
+    private static final int UPLOADS = 10;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        TestDatabase.register(registry, "media_upload_connection");
+    }
+
+    @Autowired
+    private MediaService mediaService;
+
+    @Autowired
+    private MediaFileRepository mediaFileRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BlockingStorageProvider storageProvider;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    private final ExecutorService uploaders = Executors.newFixedThreadPool(UPLOADS);
+
+    @AfterEach
+    void tearDown() {
+        storageProvider.release.countDown();
+        uploaders.shutdownNow();
+    }
+
+    @Test
+    void galleryReadsProceedWhileTenUploadsAreInFlight() throws Exception {
+        User owner = userRepository.save(User.builder()
+                .username("be-" + System.nanoTime())
+                .password("x")
+                .coupleId(System.nanoTime())
+                .build());
+
+        List<CompletableFuture<MediaFileResponse>> uploads = new ArrayList<>();
+        for (int i = 0; i < UPLOADS; i++) {
+            MockMultipartFile file = new MockMultipartFile("file", "anh-" + i + ".jpg", "image/jpeg",
+                    ("anh " + i).getBytes(StandardCharsets.UTF_8));
+            uploads.add(CompletableFuture.supplyAsync(() -> mediaService.uploadFile(file, owner), uploaders));
+        }
+        assertThat(storageProvider.entered.await(30, TimeUnit.SECONDS)).isTrue();
+
+        // Cả mười upload đang nằm trong storage.store: không upload nào được giữ connection
+        assertThat(dataSource.getHikariPoolMXBean().getThreadsAwaitingConnection()).isZero();
+        // Bản ghi PENDING chưa hiện trong gallery
+        assertThat(readPage(owner, 0).getTotalElements()).isZero();
+        // Mỗi trang là một key cache riêng nên lần nào cũng xuống DB; nhiều hơn số connection trong pool
+        for (int page = 1; page <= UPLOADS * 2; page++) {
+            readPage(owner, page);
+        }
+        assertThat(mediaFileRepository.count()).isGreaterThanOrEqualTo(UPLOADS);
+
+        storageProvider.release.countDown();
+        for (CompletableFuture<MediaFileResponse> upload : uploads) {
+            assertThat(upload.get(30, TimeUnit.SECONDS).getId()).isNotNull();
+        }
+        assertThat(readPage(owner, 0).getTotalElements()).isEqualTo(UPLOADS);
+    }
+
+    private Page<?> readPage(User owner, int page) throws Exception {
+        return CompletableFuture.supplyAsync(() -> mediaService.getMediaByCoupleId(owner.getCoupleId(),
+                AppConstants.MEDIA_TYPE_ALL, page, 20, true)).get(5, TimeUnit.SECONDS);
+    }
+
+    @TestConfiguration
+    static class StorageConfig {
+
+        @Bean
+        BlockingStorageProvider blockingStorageProvider() {
+            return new BlockingStorageProvider();
+        }
+    }
+
+    /**
+     * Storage giả: nhận hết byte rồi treo cho tới khi test thả ra, như một upload video chậm.
+     */
+    static class BlockingStorageProvider implements StorageProvider {
+
+        private final CountDownLatch entered = new CountDownLatch(UPLOADS);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public StoredObject store(InputStream in, StorageRequest request, UploadProgressListener progressListener)
+                throws IOException {
+            in.transferTo(OutputStream.nullOutputStream());
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Upload bị hủy");
+            }
+            String key = request.getFolder() + "/" + request.getPublicId();
+            return new StoredObject(key, "https://cdn.test/" + key);
+        }
+
+        @Override
+        public String keyFor(StorageRequest request) {
+            return request.getFolder() + "/" + request.getPublicId();
+        }
+
+        @Override
+        public InputStream open(String key, String url, long start, long length) {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public void delete(String key, String mediaType) {
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.couple.anniversary.domain.media.storage;
+
+import com.couple.anniversary.common.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cùng nội dung chỉ dùng chung file trong cùng folder và couple.
+ */
+class LocalStorageProviderTest {
+
+    private static final byte[] PHOTO = "cùng một tấm ảnh".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path dir;
+
+    private LocalStorageProvider provider;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        provider = new LocalStorageProvider(dir.resolve("uploads").toString(), dir.resolve("work").toString(),
+                "http://localhost:8080");
+        provider.init();
+    }
+
+    @Test
+    void sameContentIsNotSharedAcrossCouplesOrWithAvatars() throws IOException {
+        String first = store("anniversary/media", 1L);
+        String second = store("anniversary/media", 2L);
+        String avatar = store("anniversary/avatars", null);
+
+        assertThat(first).startsWith("anniversary/media/1/");
+        assertThat(second).startsWith("anniversary/media/2/");
+        assertThat(avatar).startsWith("anniversary/avatars/");
+        assertThat(store("anniversary/media", 1L)).isEqualTo(first);
+
+        provider.delete(first, "PHOTO");
+
+        assertThat(provider.resolve(first)).doesNotExist();
+        assertThat(provider.resolve(second)).hasBinaryContent(PHOTO);
+        assertThat(provider.resolve(avatar)).hasBinaryContent(PHOTO);
+    }
+
+    @Test
+    void legacyKeysStillResolveAndTraversalIsRejected() {
+        String legacy = "ab/ab/" + "ab".repeat(32) + ".jpg";
+        assertThat(provider.resolve(legacy)).isEqualTo(dir.resolve("uploads/media").resolve(legacy).toAbsolutePath());
+        assertThatThrownBy(() -> provider.resolve("../" + legacy)).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> provider.resolve("anniversary/../" + legacy))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    private String store(String folder, Long coupleId) throws IOException {
+        StorageRequest request = StorageRequest.builder()
+                .folder(folder)
+                .coupleId(coupleId)
+                .originalName("anh.jpg")
+                .size(PHOTO.length)
+                .build();
+        return provider.store(new ByteArrayInputStream(PHOTO), request, null).key();
+    }
+}
@@ -0,0 +1,97 @@
+package com.couple.anniversary.domain.media.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache chỉ đủ chứa một blob: mỗi lần tải blob khác sẽ loại blob trước, kể cả blob vừa tải cho request khác.
+ */
+class MediaBlobCacheTest {
+
+    private static final int BLOB_SIZE = 4096;
+
+    @TempDir
+    Path dir;
+
+    private MediaBlobCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cache = new MediaBlobCache(true, dir.toString(), DataSize.ofBytes(BLOB_SIZE),
+                DataSize.ofBytes(BLOB_SIZE), new SimpleMeterRegistry());
+        cache.init();
+    }
+
+    @Test
+    void channelStaysReadableAfterItsEntryIsEvicted() throws IOException {
+        try (FileChannel first = cache.open("media/1", () -> new ByteArrayInputStream(blob("media/1")))) {
+            cache.open("media/2", () -> new ByteArrayInputStream(blob("media/2"))).close();
+
+            assertThat(read(first)).isEqualTo(blob("media/1"));
+        }
+    }
+
+    @Test
+    void concurrentMissesNeverSeeEvictedFile() throws Exception {
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 300; i++) {
+                        String key = "media/" + ((i + offset) % 3);
+                        try (FileChannel channel = cache.open(key, () -> new ByteArrayInputStream(blob(key)))) {
+                            assertThat(read(channel)).isEqualTo(blob(key));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(cache.currentBytes()).isLessThanOrEqualTo(BLOB_SIZE);
+    }
+
+    private static byte[] blob(String key) {
+        byte[] data = new byte[BLOB_SIZE];
+        byte[] seed = key.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < data.length; i++) {
+            data[i] = seed[i % seed.length];
+        }
+        return data;
+    }
+
+    private static byte[] read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (buffer.hasRemaining() && channel.read(buffer, buffer.position()) > 0) {
+        }
+        return buffer.array();
+    }
+}
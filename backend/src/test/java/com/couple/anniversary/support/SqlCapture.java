@@ -0,0 +1,89 @@
+package com.couple.anniversary.support;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Ghi lại đúng câu SQL và tham số mà Hibernate gửi xuống JDBC, để test chạy lại chúng (EXPLAIN...)
+ * thay vì chép tay câu truy vấn. Import vào context test; chỉ ghi trong {@link #capture} và chỉ trên thread gọi.
+ */
+public class SqlCapture implements BeanPostProcessor {
+
+    public record Statement(String sql, List<Object> parameters) {
+    }
+
+    private static final ThreadLocal<List<Statement>> RECORDING = new ThreadLocal<>();
+
+    /**
+     * Chạy action và trả về các câu lệnh đã thực thi trên thread này, theo thứ tự.
+     */
+    public List<Statement> capture(Runnable action) {
+        List<Statement> statements = new ArrayList<>();
+        RECORDING.set(statements);
+        try {
+            action.run();
+        } finally {
+            RECORDING.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, (target, method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? connection(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private static Connection connection(Connection connection) {
+        return proxy(Connection.class, (target, method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")) {
+                return statement(statement, (String) args[0]);
+            }
+            return result;
+        });
+    }
+
+    private static PreparedStatement statement(PreparedStatement statement, String sql) {
+        TreeMap<Integer, Object> parameters = new TreeMap<>();
+        return proxy(PreparedStatement.class, (target, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                parameters.clear();
+            } else if (name.startsWith("execute") && RECORDING.get() != null) {
+                RECORDING.get().add(new Statement(sql, new ArrayList<>(parameters.values())));
+            }
+            return invoke(statement, method, args);
+        });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(SqlCapture.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,108 @@
+package com.couple.anniversary.support;
+
+import ch.vorburger.exec.ManagedProcessException;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MySQLContainer;
+
+import javax.sql.DataSource;
+
+/**
+ * MySQL cho các test cần database thật: container mysql:8.0 khi có Docker, không thì MariaDB nhúng
+ * (mariaDB4j) để test vẫn chạy trên máy / CI không có Docker. Cả lượt test dùng chung một server,
+ * mỗi test class một database riêng (tạo khi kết nối lần đầu).
+ */
+public final class TestDatabase {
+
+    private record Server(String baseUrl, String username, String password, boolean mariaDb) {
+    }
+
+    private static Server server;
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Trỏ spring.datasource vào database tên cho trước; gọi từ @DynamicPropertySource.
+     */
+    public static void register(DynamicPropertyRegistry registry, String database) {
+        Server server = server();
+        registry.add("spring.datasource.url", () -> url(database));
+        registry.add("spring.datasource.username", server::username);
+        registry.add("spring.datasource.password", server::password);
+    }
+
+    /**
+     * Kết nối thẳng tới database (ngoài Spring), ví dụ để dựng dữ liệu cũ trước khi context chạy Flyway.
+     */
+    public static DataSource dataSource(String database) {
+        Server server = server();
+        return new DriverManagerDataSource(url(database), server.username(), server.password());
+    }
+
+    private static String url(String database) {
+        return server().baseUrl() + database
+                + "?createDatabaseIfNotExist=true&serverTimezone=UTC&allowPublicKeyRetrieval=true&useSSL=false";
+    }
+
+    /**
+     * Điều kiện @EnabledIf của các test DB: false khi không có Docker và cũng không có bản MariaDB
+     * dựng sẵn cho hệ điều hành này (profile embedded-mariadb trong pom).
+     */
+    public static boolean isAvailable() {
+        try {
+            server();
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Một vài câu lệnh quản trị khác nhau giữa MySQL và MariaDB (giới hạn đệ quy của CTE...).
+     */
+    public static boolean isMariaDb() {
+        return server().mariaDb();
+    }
+
+    private static synchronized Server server() {
+        if (server == null) {
+            server = DockerClientFactory.instance().isDockerAvailable() ? startMySql() : startMariaDb();
+        }
+        return server;
+    }
+
+    private static Server startMySql() {
+        MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0").withUsername("root");
+        mysql.start();
+        String baseUrl = "jdbc:mysql://" + mysql.getHost() + ":" + mysql.getMappedPort(MySQLContainer.MYSQL_PORT) + "/";
+        return new Server(baseUrl, mysql.getUsername(), mysql.getPassword(), false);
+    }
+
+    private static Server startMariaDb() {
+        DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder()
+                .setPort(0)
+                .setDefaultCharacterSet("utf8mb4");
+        if ("root".equals(System.getProperty("user.name"))) {
+            // mariadbd từ chối chạy bằng root nếu không chỉ rõ
+            config.addArg("--user=root");
+        }
+        try {
+            DB db = DB.newEmbeddedDB(config.build());
+            db.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    db.stop();
+                } catch (ManagedProcessException e) {
+                    // JVM đang tắt, thư mục tạm của MariaDB sẽ được dọn ở lần sau
+                }
+            }));
+            return new Server("jdbc:mysql://localhost:" + config.getPort() + "/", "root", "", true);
+        } catch (ManagedProcessException | RuntimeException e) {
+            throw new IllegalStateException("Không có Docker và không khởi động được MariaDB nhúng", e);
+        }
+    }
+}